@@ -0,0 +1,86 @@
+package io.pipeline.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.checkpoint.CheckpointStore;
+import io.pipeline.journal.JournalSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of checkpointing every step of a 10 steps pipeline, from 4 threads sharing the group commits of a {@link CheckpointStore}
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CheckpointBenchmark {
+
+    @Param({"NONE", "ASYNC", "SYNC"})
+    private String mode;
+
+    private final AtomicLong executionIds = new AtomicLong();
+    private Pipeline<Long, Long> pipeline;
+    private CheckpointStore store;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("checkpoints");
+        store = CheckpointStore.open(directory.resolve("checkpoints"), new LongSerializer()).setSynchronous("SYNC".equals(mode));
+
+        pipeline = Pipelines.chain("checkpoint", 10, new Pipelines.Increment()).setCheckpointStore(store);
+        pipeline.getMonitor().setMeterRegistry(new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(directory.resolve("checkpoints"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * Keeps the serialization out of the measure, so it is the cost of the store
+     * */
+    private static final class LongSerializer implements JournalSerializer {
+        @Override
+        public byte[] serialize(Object value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong((Long) value).array();
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    }
+
+    @Benchmark
+    public Long execute(){
+        if("NONE".equals(mode))
+            return pipeline.execute(0L);
+
+        return pipeline.executeCheckpointed(Long.toString(executionIds.incrementAndGet()), 0L);
+    }
+}
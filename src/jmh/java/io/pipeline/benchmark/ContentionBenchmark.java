@@ -0,0 +1,47 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads executing one shared pipeline, contending on its meters and its logging context.
+ * Compare with the single threaded score of {@link ExecuteBenchmark} for the same number of steps
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+    private Pipeline<Long, Long> pipeline;
+
+    @Setup
+    public void setUp(){
+        pipeline = Pipelines.chain("contention", 10, new Pipelines.Increment());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long singleThread(){
+        return pipeline.execute(0L);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Long allThreads(){
+        return pipeline.execute(0L);
+    }
+}
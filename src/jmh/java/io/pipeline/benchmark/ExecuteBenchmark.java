@@ -0,0 +1,48 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.Step;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Pipeline#execute(Object)} by pipeline length, for lambda and class steps
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecuteBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int steps;
+
+    @Param({"lambda", "class"})
+    private String stepKind;
+
+    private Pipeline<Long, Long> pipeline;
+
+    @Setup
+    public void setUp(){
+        final Step<Long, Long> step = "lambda".equals(stepKind) ? in -> in + 1 : new Pipelines.Increment();
+        pipeline = Pipelines.chain("execute", steps, step);
+    }
+
+    @Benchmark
+    public Long execute(){
+        return pipeline.execute(0L);
+    }
+}
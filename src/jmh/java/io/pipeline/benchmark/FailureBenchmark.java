@@ -0,0 +1,76 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.retry.SimpleRetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Succeeded path against the failed path through {@link SimpleRetry},
+ * with the failure thrown to the caller or handed to an error handler
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FailureBenchmark {
+    private static final long FAILING_INPUT = -1L;
+
+    @Param({"1", "3"})
+    private int attempts;
+
+    private Pipeline<Long, Long> pipeline;
+    private Pipeline<Long, Long> handledPipeline;
+
+    @Setup
+    public void setUp(){
+        pipeline = build("failure");
+        handledPipeline = build("failure-handled").onError((in, e) -> {});
+    }
+
+    private Pipeline<Long, Long> build(String prefix){
+        return Pipeline.<Long>init(Pipelines.uniqueName(prefix))
+                .next(in -> in + 1)
+                .next(in -> {
+                    if(in == FAILING_INPUT + 1)
+                        throw new IllegalStateException("Failing on purpose");
+
+                    return in;
+                })
+                .next(in -> in + 1)
+                .setRetry(new SimpleRetry(attempts));
+    }
+
+    @Benchmark
+    public Long success(){
+        return pipeline.execute(0L);
+    }
+
+    @Benchmark
+    public Object failure(){
+        try {
+            return pipeline.execute(FAILING_INPUT);
+        } catch (StepException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Long failureWithErrorHandler(){
+        return handledPipeline.execute(FAILING_INPUT);
+    }
+}
@@ -0,0 +1,96 @@
+package io.pipeline.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.logging.LoggingUtils;
+import io.pipeline.monitor.MetricsLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging context of a 10 steps execution: a put per step left on the thread,
+ * against a {@link LogContext} scope enabled and disabled, alone and inside a pipeline without metrics,
+ * executed and executed asynchronously
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingContextBenchmark {
+    private static final int STEPS = 10;
+
+    private final String[] stepNames = new String[STEPS];
+    private final String[] stepPositions = new String[STEPS];
+
+    private Pipeline<Long, Long> pipeline;
+    private Pipeline<Long, Long> hotPipeline;
+
+    @Setup
+    public void setUp(){
+        for (int i = 0; i < STEPS; i++) {
+            stepNames[i] = "Step" + (i + 1);
+            stepPositions[i] = String.valueOf(i + 1);
+        }
+
+        pipeline = Pipelines.chain("logging-context", STEPS, new Pipelines.Increment()).setMetricsLevel(MetricsLevel.OFF);
+        hotPipeline = Pipelines.chain("logging-context-hot", STEPS, new Pipelines.Increment()).setMetricsLevel(MetricsLevel.OFF).setLoggingContext(false);
+
+        pipeline.getMonitor().setMeterRegistry(new SimpleMeterRegistry());
+        hotPipeline.getMonitor().setMeterRegistry(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void mdcPerStep(){
+        MDC.put(LoggingUtils.MDC_PIPELINE_NAME, "logging-context");
+
+        for (int i = 0; i < STEPS; i++) {
+            MDC.put(LoggingUtils.MDC_STEP_NAME, stepNames[i]);
+            MDC.put(LoggingUtils.MDC_STEP_POSITION, stepPositions[i]);
+        }
+    }
+
+    @Benchmark
+    public void scoped(){
+        try (var scope = LogContext.open("logging-context", true)) {
+            for (int i = 0; i < STEPS; i++)
+                LogContext.step(stepNames[i], stepPositions[i]);
+        }
+    }
+
+    @Benchmark
+    public void scopedDisabled(){
+        try (var scope = LogContext.open("logging-context", false)) {
+            for (int i = 0; i < STEPS; i++)
+                LogContext.step(stepNames[i], stepPositions[i]);
+        }
+    }
+
+    @Benchmark
+    public Long pipelineWithContext(){
+        return pipeline.execute(0L);
+    }
+
+    @Benchmark
+    public Long pipelineWithoutContext(){
+        return hotPipeline.execute(0L);
+    }
+
+    @Benchmark
+    public Long asyncPipelineWithContext(){
+        return pipeline.executeAsync(0L).join();
+    }
+}
@@ -0,0 +1,69 @@
+package io.pipeline.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.monitor.StepMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monitoring overhead of {@link PipelineMonitor} by meter registry: a {@link SimpleMeterRegistry},
+ * the same one behind a composite as the global registry is, and an empty composite whose meters are no-ops
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeterRegistryBenchmark {
+
+    private static final int STEPS = 5;
+
+    @Param({"simple", "composite", "noop"})
+    private String registry;
+
+    private Pipeline<Long, Long> pipeline;
+
+    @Setup
+    public void setUp(){
+        final var meterRegistry = meterRegistry();
+
+        pipeline = Pipelines.chain("registry", STEPS, new Pipelines.Increment());
+        pipeline.getMonitor().setMeterRegistry(meterRegistry);
+
+        //The step meters must follow the registry, or the steps are measured against the global one
+        if(meterRegistry.find(StepMonitor.STEP_EXECUTION_TIME_METRIC).timers().size() != STEPS)
+            throw new IllegalStateException("The step meters are not registered in the " + registry + " registry");
+    }
+
+    private MeterRegistry meterRegistry(){
+        switch (registry){
+            case "simple":
+                return new SimpleMeterRegistry();
+            case "composite":
+                return new CompositeMeterRegistry().add(new SimpleMeterRegistry());
+            default:
+                return new CompositeMeterRegistry();
+        }
+    }
+
+    @Benchmark
+    public Long execute(){
+        return pipeline.execute(0L);
+    }
+}
@@ -0,0 +1,59 @@
+package io.pipeline.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.MetricsLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monitoring overhead of a 10 steps pipeline by {@link MetricsLevel}
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsLevelBenchmark {
+
+    @Param({"FULL", "SAMPLED", "COUNTERS_ONLY", "OFF"})
+    private String level;
+
+    private Pipeline<Long, Long> pipeline;
+
+    @Setup
+    public void setUp(){
+        pipeline = Pipelines.chain("metrics-level", 10, new Pipelines.Increment()).setMetricsLevel(metricsLevel());
+        pipeline.getMonitor().setMeterRegistry(new SimpleMeterRegistry());
+    }
+
+    private MetricsLevel metricsLevel(){
+        switch (level){
+            case "FULL":
+                return MetricsLevel.FULL;
+            case "SAMPLED":
+                return MetricsLevel.sampled(100);
+            case "COUNTERS_ONLY":
+                return MetricsLevel.COUNTERS_ONLY;
+            default:
+                return MetricsLevel.OFF;
+        }
+    }
+
+    @Benchmark
+    public Long execute(){
+        return pipeline.execute(0L);
+    }
+}
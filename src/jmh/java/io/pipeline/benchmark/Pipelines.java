@@ -0,0 +1,39 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.Step;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the pipelines shared by the benchmarks
+ * */
+final class Pipelines {
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private Pipelines() {
+    }
+
+    /**
+     * Pipeline names are unique per JVM, and a fork may set up the same benchmark more than once
+     * */
+    static String uniqueName(String prefix){
+        return prefix + "-" + sequence.incrementAndGet();
+    }
+
+    static Pipeline<Long, Long> chain(String prefix, int steps, Step<Long, Long> step){
+        Pipeline<Long, Long> pipeline = Pipeline.init(uniqueName(prefix));
+
+        for (int i = 0; i < steps; i++)
+            pipeline = pipeline.next(step);
+
+        return pipeline;
+    }
+
+    static final class Increment implements Step<Long, Long> {
+        @Override
+        public Long process(Long in) {
+            return in + 1;
+        }
+    }
+}
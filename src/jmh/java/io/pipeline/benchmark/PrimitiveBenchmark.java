@@ -0,0 +1,59 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.LongStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a chain of long steps executed boxed, with {@link Pipeline#execute(Object)},
+ * and unboxed, with {@link Pipeline#executeLong(long)}. The inputs are out of the cache of {@link Long#valueOf(long)},
+ * so gc.alloc.rate.norm shows the boxing of every step
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveBenchmark {
+
+    @Param({"1", "10"})
+    private int steps;
+
+    private Pipeline<Long, Long> boxed;
+    private Pipeline<Long, Long> primitive;
+    private long input = 1_000_000;
+
+    @Setup
+    public void setUp(){
+        final LongStep step = in -> in + 1;
+
+        boxed = Pipelines.chain("boxed", steps, in -> in + 1);
+        primitive = Pipeline.ofLong(Pipelines.uniqueName("primitive"));
+
+        for (int i = 0; i < steps; i++)
+            primitive = primitive.next(step);
+    }
+
+    @Benchmark
+    public Long execute(){
+        return boxed.execute(input++);
+    }
+
+    @Benchmark
+    public long executeLong(){
+        return primitive.executeLong(input++);
+    }
+}
@@ -0,0 +1,68 @@
+package io.pipeline.benchmark;
+
+import io.pipeline.Pipeline;
+import io.pipeline.concurrent.PipelineRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of I/O bound executions on virtual threads against a fixed pool of platform threads.
+ * Virtual threads are only used on a Java 21 launcher, run it with -Pjmh.java=21
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunnerBenchmark {
+    private static final int EXECUTIONS = 1_000;
+    private static final long IO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"virtual", "fixed"})
+    private String threads;
+
+    private PipelineRunner<Long, Long> runner;
+
+    @Setup
+    public void setUp(){
+        final Pipeline<Long, Long> pipeline = Pipeline.<Long>init(Pipelines.uniqueName("runner"))
+                .next(in -> {
+                    LockSupport.parkNanos(IO_NANOS);
+                    return in + 1;
+                });
+
+        runner = "virtual".equals(threads) ? PipelineRunner.virtualThreads(pipeline) : PipelineRunner.fixedPool(pipeline, 64);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        runner.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXECUTIONS)
+    public void submit(){
+        final var futures = new CompletableFuture<?>[EXECUTIONS];
+
+        for (int i = 0; i < EXECUTIONS; i++)
+            futures[i] = runner.submit((long) i);
+
+        CompletableFuture.allOf(futures).join();
+    }
+}
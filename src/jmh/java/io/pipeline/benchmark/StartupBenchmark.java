@@ -0,0 +1,96 @@
+package io.pipeline.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.PipelineBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of a service creating hundreds of pipelines of 10 steps, each with its own meter registry,
+ * while a registry is added to the global one: chained with {@link Pipeline#next} and given their registry afterwards,
+ * against {@link Pipeline#builder(String)}, with the meters registered by build or on the first execution
+ * */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final int STEPS = 10;
+
+    @Param({"300"})
+    private int pipelines;
+
+    private final MeterRegistry globalBackend = new SimpleMeterRegistry();
+    private final List<Pipeline<Long, Long>> built = new ArrayList<>();
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        Metrics.addRegistry(globalBackend);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown(){
+        built.forEach(Pipeline::close);
+        built.clear();
+
+        Metrics.removeRegistry(globalBackend);
+        globalBackend.clear();
+        Metrics.globalRegistry.clear();
+    }
+
+    @Benchmark
+    public List<Pipeline<Long, Long>> chained(){
+        for (int i = 0; i < pipelines; i++) {
+            final var pipeline = Pipelines.chain("chained", STEPS, new Pipelines.Increment());
+            pipeline.getMonitor().setMeterRegistry(new SimpleMeterRegistry());
+            built.add(pipeline);
+        }
+
+        return built;
+    }
+
+    @Benchmark
+    public List<Pipeline<Long, Long>> builder(){
+        return build(false);
+    }
+
+    @Benchmark
+    public List<Pipeline<Long, Long>> builderLazyMeters(){
+        return build(true);
+    }
+
+    private List<Pipeline<Long, Long>> build(boolean lazyMeters){
+        for (int i = 0; i < pipelines; i++) {
+            PipelineBuilder<Long, Long> builder = Pipeline.<Long>builder(Pipelines.uniqueName("builder"))
+                    .setMeterRegistry(new SimpleMeterRegistry())
+                    .setLazyMeters(lazyMeters);
+
+            for (int j = 0; j < STEPS; j++)
+                builder = builder.next(new Pipelines.Increment());
+
+            built.add(builder.build());
+        }
+
+        return built;
+    }
+}
@@ -1,26 +1,57 @@
 package io.pipeline;
 
 
+import io.pipeline.cache.CacheSpec;
+import io.pipeline.cache.CachingStep;
+import io.pipeline.checkpoint.CheckpointStore;
+import io.pipeline.concurrent.Fork;
+import io.pipeline.concurrent.OutputOrder;
+import io.pipeline.concurrent.ParallelStep;
+import io.pipeline.concurrent.SingleFlight;
+import io.pipeline.concurrent.WindowedExecution;
 import io.pipeline.error.ErrorHandler;
 import io.pipeline.error.StepException;
-import io.pipeline.logging.LoggingUtils;
+import io.pipeline.journal.DeadLetter;
+import io.pipeline.journal.DeadLetterJournal;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.MetricsLevel;
 import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.pipe.CompiledPipe;
 import io.pipeline.pipe.IPipe;
 import io.pipeline.pipe.InitialPipe;
 import io.pipeline.pipe.Pipe;
 import io.pipeline.retry.IRetry;
 import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.ExecutorBoundStep;
+import io.pipeline.step.PrimitiveKind;
 import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
+import io.pipeline.timeout.Deadline;
+import io.pipeline.timeout.DeadlineExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
-import java.util.HashMap;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 /**
  * Following the conventional pipeline pattern but with some additional functionality,
@@ -30,40 +61,90 @@ import static java.util.Objects.nonNull;
  **/
 public class Pipeline<I, O> {
     public static final Logger log = LoggerFactory.getLogger(Pipeline.class);
-    private static final Map<String, Pipeline<?,?>> register = new HashMap<>();
+    private static final Map<String, Pipeline<?,?>> register = new ConcurrentHashMap<>();
 
     private final String name;
     private final int stepCount;
     private final IPipe<I, O> current;
     private final PipelineMonitor monitor;
 
-    private IRetry retry;
+    private IRetry retry = new SimpleRetry();
     private ErrorHandler<I> onErrorHandler;
+    private Function<? super I, ?> singleFlightKey;
+    private SingleFlight<Object, Step.StepOutput<O>> singleFlight;
+    private boolean loggingContext = true;
+    private long timeoutNanos;
+    private CheckpointStore checkpointStore;
 
     private Pipeline(String name, Pipeline<I,O> pipeline) {
         this.name = name;
+        claimName();
+
         this.stepCount = pipeline.stepCount;
-        this.retry = pipeline.retry;
-        this.onErrorHandler = pipeline.onErrorHandler;
         this.monitor = new PipelineMonitor(name);
+        this.monitor.setMetricsLevel(pipeline.monitor.getMetricsLevel());
         this.current = pipeline.current.copyFor(this);
-
-        register.put(name, this);
+        inheritSettings(pipeline);
     }
 
-    private Pipeline(String name, IPipe<I, O> current, int stepCount, IRetry retry, ErrorHandler<I> onErrorHandler) {
+    private Pipeline(String name, IPipe<I, O> current, int stepCount, Pipeline<I, ?> previous) {
         this.name = name;
         this.current = current;
         this.stepCount = stepCount;
-        this.retry = retry;
-        this.onErrorHandler = onErrorHandler;
-        this.monitor = new PipelineMonitor(name);
+        this.monitor = previous.monitor;
+        inheritSettings(previous);
 
-        register.put(name, this);
+        //The last pipeline of the chain takes over the name, unless the chain was closed or the name has a new owner
+        register.computeIfPresent(name, (key, registered) -> registered.monitor == monitor ? this : registered);
     }
 
     private Pipeline(String name, IPipe<I, O> current){
-        this(name, current, 0, new SimpleRetry(), null);
+        this.name = name;
+        claimName();
+
+        this.current = current;
+        this.stepCount = 0;
+        this.monitor = new PipelineMonitor(name);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Pipeline(PipelineBuilder<I, O> builder){
+        this.name = builder.getName();
+        claimName();
+
+        this.monitor = new PipelineMonitor(name, builder.getMeterRegistry(), builder.isLazyMeters());
+        this.monitor.setMetricsLevel(builder.getMetricsLevel());
+
+        final var steps = builder.getSteps();
+        IPipe chain = new InitialPipe<>(builder.getKind());
+
+        for (int i = 0; i < steps.size(); i++)
+            chain = new Pipe<>(chain, (Step) steps.get(i), monitor, i + 1);
+
+        this.current = chain;
+        this.stepCount = steps.size();
+        this.retry = builder.getRetry();
+        this.onErrorHandler = builder.getOnErrorHandler();
+        this.loggingContext = builder.isLoggingContext();
+        this.checkpointStore = builder.getCheckpointStore();
+        setTimeout(builder.getTimeout());
+        singleFlight(builder.getSingleFlightKey());
+    }
+
+    /**
+     * Registers the name before the monitor is created, so a taken name never registers meters under it
+     * */
+    private void claimName(){
+        if(!isNull(register.putIfAbsent(name, this))) throw new IllegalArgumentException("Name: <" + name + "> is already being used");
+    }
+
+    private void inheritSettings(Pipeline<I, ?> previous){
+        this.retry = previous.retry;
+        this.onErrorHandler = previous.onErrorHandler;
+        this.loggingContext = previous.loggingContext;
+        this.timeoutNanos = previous.timeoutNanos;
+        this.checkpointStore = previous.checkpointStore;
+        singleFlight(previous.singleFlightKey);
     }
 
     public String getName() {
@@ -85,51 +166,610 @@ public class Pipeline<I, O> {
         return retry;
     }
 
+    /**
+     * @param metricsLevel how much of the executions is measured, the default is {@link MetricsLevel#FULL}
+     * */
+    public Pipeline<I, O> setMetricsLevel(MetricsLevel metricsLevel) {
+        monitor.setMetricsLevel(metricsLevel);
+        return this;
+    }
+
+    /**
+     * @param enabled whether the executions set the pipeline and step names in the logging context, on by default.
+     * Hot pipelines can switch it off to save the context updates of every execution
+     * @see LogContext
+     * */
+    public Pipeline<I, O> setLoggingContext(boolean enabled) {
+        this.loggingContext = enabled;
+        return this;
+    }
+
+    /**
+     * Sets the deadline of every execution to <timeout> after it starts, none by default.
+     * The retries stop attempting the steps once it is spent, and fail them with a
+     * {@link io.pipeline.timeout.DeadlineExceededException}. Nested executions keep the closest deadline.
+     *
+     * @param timeout the timeout of an execution, or null to remove it
+     * @see Deadline
+     * */
+    public Pipeline<I, O> setTimeout(Duration timeout) {
+        this.timeoutNanos = isNull(timeout) ? 0 : timeout.toNanos();
+        return this;
+    }
+
+    /**
+     * @param checkpointStore where {@link #executeCheckpointed(String, Object)} saves the output of every completed step
+     * */
+    public Pipeline<I, O> setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+        return this;
+    }
+
     public Pipeline<I, O> onError(ErrorHandler<I> errorHandler){
         this.onErrorHandler = errorHandler;
         return this;
     }
 
+    /**
+     * Coalesces concurrent executions with the same key, given by <keyFunction>: while an execution is in flight,
+     * the following ones with its key wait for it and share its output, the failures included,
+     * instead of running every step again. Every caller still gets its own call to the error handler.
+     *
+     * @param keyFunction the key of an input, or null to disable the coalescing
+     * */
+    public Pipeline<I, O> singleFlight(Function<? super I, ?> keyFunction){
+        this.singleFlightKey = keyFunction;
+        this.singleFlight = isNull(keyFunction) ? null : new SingleFlight<>();
+
+        return this;
+    }
+
     public <O2> Pipeline<I, O2> next(Step<O, O2> next) {
         if(isNull(next)) throw new AssertionError("<next> cannot be null");
 
         final var nextStartCounting = this.stepCount + 1;
         final var pipe = new Pipe<>(current, next, monitor, nextStartCounting);
 
-        return new Pipeline<>(name, pipe, nextStartCounting, retry, onErrorHandler);
+        return new Pipeline<>(name, pipe, nextStartCounting, this);
+    }
+
+    /**
+     * Starts a scatter-gather: <branches> are applied concurrently to the output of this pipeline,
+     * each one with its own retry and metrics, and {@link Fork#join(Step)} sets the step combining their results.
+     * <pre>
+     * pipeline.parallel(stepA, stepB, stepC).setJoinPolicy(JoinPolicy.COLLECT_ALL).join(combiner)
+     * </pre>
+     *
+     * @see ParallelStep
+     * */
+    @SafeVarargs
+    public final Fork<I, O> parallel(Step<O, ?>... branches) {
+        if(isNull(branches) || branches.length == 0) throw new AssertionError("<branches> cannot be null or empty");
+
+        final var forked = new ArrayList<Step<O, ?>>(branches.length);
+
+        for (final Step<O, ?> branch : branches) {
+            if(isNull(branch)) throw new AssertionError("<branches> cannot contain null");
+            forked.add(branch);
+        }
+
+        return new Fork<>(this, forked);
+    }
+
+    /**
+     * Same as {@link #next(Step)}, but when executed with {@link #executeAsync(Object)}
+     * the step runs on <executor> instead of the thread that completed the previous step
+     * */
+    public <O2> Pipeline<I, O2> next(Step<O, O2> next, Executor executor) {
+        if(isNull(next)) throw new AssertionError("<next> cannot be null");
+
+        return next(new ExecutorBoundStep<>(next, executor));
+    }
+
+    /**
+     * Same as {@link #next(Step)}, memoizing the results of <next> as described by <cacheSpec>
+     *
+     * @see CachingStep
+     * */
+    public <O2> Pipeline<I, O2> nextCached(Step<O, O2> next, CacheSpec<? super O> cacheSpec) {
+        if(isNull(next)) throw new AssertionError("<next> cannot be null");
+
+        return next(new CachingStep<>(next, cacheSpec));
+    }
+
+    /**
+     * Turns the chain of pipes into a flat execution plan, executed by a single loop
+     * instead of a recursion through every previous pipe.
+     * Adjacent steps marked as pure are fused into one call.
+     *
+     * @return a new instance of the pipeline, with the same name, running the compiled plan
+     * @see Step#pure(Step)
+     * */
+    public Pipeline<I, O> compile(){
+        return new Pipeline<>(name, new CompiledPipe<>(current), stepCount, this);
     }
 
     public O execute(I input){
         monitor.incrementExecutionCount();
 
-        MDC.put(LoggingUtils.MDC_PIPELINE_NAME, name);
-        final var output = monitor.clockExecution(() -> current.apply(this, input));
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos); var trace = monitor.startTrace()) {
+            if(!isNull(singleFlight))
+                return resultOf(input, applyCurrent(input));
 
-        if(output.succeeded()){
-            return output.getResultObj();
+            final var start = monitor.startExecutionClock();
+            final O result;
+
+            try {
+                result = current.applyOrThrow(this, input);
+            } catch (StepFailure failure) {
+                monitor.stopExecutionClock(start);
+                return resultOf(input, failure.getOutput());
+            }
+
+            monitor.stopExecutionClock(start);
+            return result;
         }
+    }
+
+    /**
+     * Same as {@link #execute(Object)} for a pipeline of ints, see {@link #executeLong(long, long)}
+     * */
+    public int executeInt(int input, int resultOnError){
+        return (int) executePrimitive(PrimitiveKind.INT, input, resultOnError);
+    }
+
+    /**
+     * @return the result, or 0 when the error handler handled a failure
+     * */
+    public int executeInt(int input){
+        return executeInt(input, 0);
+    }
+
+    /**
+     * Same as {@link #execute(Object)} for a pipeline of longs, created by {@link #ofLong(String)}.
+     * When every step is a {@link io.pipeline.step.PrimitiveStep}, the value goes from step to step unboxed,
+     * retries and metrics included, and only a failure boxes it for the error handler.
+     * Any other pipeline with long inputs and results is executed with boxed values
+     *
+     * @return the result, or <resultOnError> when the error handler handled a failure
+     * @throws StepException when a step failed and there is no error handler
+     * */
+    public long executeLong(long input, long resultOnError){
+        return executePrimitive(PrimitiveKind.LONG, input, resultOnError);
+    }
+
+    /**
+     * @return the result, or 0 when the error handler handled a failure
+     * */
+    public long executeLong(long input){
+        return executeLong(input, 0);
+    }
+
+    /**
+     * Same as {@link #execute(Object)} for a pipeline of doubles, see {@link #executeLong(long, long)}
+     * */
+    public double executeDouble(double input, double resultOnError){
+        final var bits = executePrimitive(PrimitiveKind.DOUBLE, Double.doubleToRawLongBits(input), Double.doubleToRawLongBits(resultOnError));
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * @return the result, or 0 when the error handler handled a failure
+     * */
+    public double executeDouble(double input){
+        return executeDouble(input, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long executePrimitive(PrimitiveKind kind, long input, long resultOnError){
+        final var primitive = current.asPrimitive();
+
+        if(isNull(primitive) || primitive.getInputKind() != kind || primitive.getOutputKind() != kind || !isNull(singleFlight)){
+            final var result = execute((I) kind.box(input));
+            return isNull(result) ? resultOnError : kind.unbox(result);
+        }
+
+        monitor.incrementExecutionCount();
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos); var trace = monitor.startTrace()) {
+            final var start = monitor.startExecutionClock();
+
+            try {
+                final var result = primitive.applyAsLong(this, input);
+                monitor.stopExecutionClock(start);
+
+                return result;
+            } catch (StepFailure failure) {
+                monitor.stopExecutionClock(start);
+                resultOf((I) kind.box(input), failure.getOutput());
+
+                return resultOnError;
+            }
+        }
+    }
+
+    /**
+     * Executes the pipeline without blocking the calling thread on steps bound to an executor
+     * or on non-blocking steps. The logging context of the calling thread follows the execution
+     * across threads, and the error handler runs on the thread that completes the failed step.
+     *
+     * @return a future completed with the result, with null when the error handler handled a failure,
+     * or completed exceptionally with a {@link StepException} when there is no error handler
+     * @see io.pipeline.step.AsyncStep
+     * */
+    public CompletableFuture<O> executeAsync(I input){
+        monitor.incrementExecutionCount();
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos)) {
+            final var context = LogContext.capture();
+            final var start = monitor.startExecutionClock();
+
+            return applyCurrentAsync(input, context).thenApply(output -> {
+                monitor.stopExecutionClock(start);
+
+                try (var restored = context.restore()) {
+                    return resultOf(input, output);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return a {@link java.util.concurrent.Flow.Processor} executing this pipeline for every element published upstream
+     * @see PipelineProcessor
+     * */
+    public PipelineProcessor<I, O> asProcessor(){
+        return new PipelineProcessor<>(this);
+    }
+
+    /**
+     * Runs every step on its own stage, with a dedicated pool of <workersPerStage> threads
+     * fed by a queue of <queueCapacity> elements, so the steps of consecutive inputs overlap.
+     *
+     * @see StagedPipeline
+     * */
+    public StagedPipeline<I, O> staged(int queueCapacity, int workersPerStage){
+        return staged(queueCapacity, stepPosition -> workersPerStage);
+    }
+
+    /**
+     * Same as {@link #staged(int, int)}, but with the number of workers of each stage given by its step position,
+     * so the bottleneck step can be scaled on its own
+     * */
+    public StagedPipeline<I, O> staged(int queueCapacity, IntUnaryOperator workersOfStep){
+        final var pipes = new ArrayList<Pipe<?, ?, ?>>();
+        current.flatten(pipes);
+
+        return new StagedPipeline<>(this, pipes, queueCapacity, workersOfStep);
+    }
+
+    /**
+     * Executes the pipeline for every element of <inputs>, letting batch capable steps
+     * process all the elements that reached them in a single call.
+     * A failed element does not fail the batch, it comes back as a failed output
+     * carrying its {@link StepException}, after being handed to the error handler if there is one.
+     *
+     * @return one output per element of <inputs>, in the same order
+     * @see io.pipeline.step.BatchStep
+     * */
+    public List<Step.StepOutput<O>> executeBatch(List<I> inputs){
+        if(isNull(inputs)) throw new AssertionError("<inputs> cannot be null");
+
+        monitor.incrementExecutionCount(inputs.size());
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos)) {
+            final var outputs = monitor.clockExecution(() -> current.applyBatch(this, inputs));
+            final var results = new ArrayList<Step.StepOutput<O>>(outputs.size());
+
+            for (int i = 0; i < outputs.size(); i++)
+                results.add(complete(inputs.get(i), outputs.get(i)));
+
+            return results;
+        }
+    }
+
+    /**
+     * Same as {@link #executeAll(Iterable, int, Executor, OutputOrder)} over the elements of <inputs>,
+     * on the common {@link ForkJoinPool}, keeping the order of the inputs
+     * */
+    public Stream<Step.StepOutput<O>> executeAll(Stream<I> inputs){
+        if(isNull(inputs)) throw new AssertionError("<inputs> cannot be null");
+
+        final var pool = ForkJoinPool.commonPool();
+        return executeAll(inputs::iterator, pool.getParallelism(), pool, OutputOrder.ORDERED);
+    }
+
+    /**
+     * Same as {@link #executeAll(Iterable, int, Executor, OutputOrder)} on the common {@link ForkJoinPool},
+     * keeping the order of the inputs
+     * */
+    public Stream<Step.StepOutput<O>> executeAll(Iterable<I> inputs, int parallelism){
+        return executeAll(inputs, parallelism, ForkJoinPool.commonPool(), OutputOrder.ORDERED);
+    }
+
+    /**
+     * Executes the pipeline for every element of <inputs> on <executor>, with at most <parallelism> executions in flight.
+     * The outputs are streamed as they are consumed, the next inputs are only pulled when there is room in the window.
+     * A failed element comes back as a failed output carrying its {@link StepException},
+     * after being handed to the error handler if there is one.
+     * */
+    public Stream<Step.StepOutput<O>> executeAll(Iterable<I> inputs, int parallelism, Executor executor, OutputOrder order){
+        if(isNull(inputs)) throw new AssertionError("<inputs> cannot be null");
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+        if(isNull(order)) throw new AssertionError("<order> cannot be null");
+
+        final var execution = new WindowedExecution<>(inputs.iterator(), this::executeStreamElement, executor, parallelism, order);
+        final var characteristics = order == OutputOrder.ORDERED ? Spliterator.ORDERED : 0;
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(execution, characteristics), false);
+    }
+
+    /**
+     * Same as {@link #replay(DeadLetterJournal, Consumer)}, discarding the outputs
+     * */
+    public long replay(DeadLetterJournal<I> journal){
+        return replay(journal, output -> {});
+    }
+
+    /**
+     * Re-drives the failures recorded in <journal>: every entry resumes from its failed step with the input that step was given,
+     * or starts over from the first step when that input couldn't be recorded. An entry recorded without either input
+     * is handed to <consumer> as a failure, without going to the error handler. The entries are executed on the common
+     * {@link ForkJoinPool}, as many at a time as its parallelism, and their outputs are handed to <consumer> as they complete.
+     * Once every entry is executed the journal moves past them. A failure of the replay goes to the error handler,
+     * so back to the journal when it is the error handler of this pipeline.
+     *
+     * @return the number of entries that succeeded
+     * */
+    public long replay(DeadLetterJournal<I> journal, Consumer<? super Step.StepOutput<O>> consumer){
+        if(isNull(journal)) throw new AssertionError("<journal> cannot be null");
+        if(isNull(consumer)) throw new AssertionError("<consumer> cannot be null");
+
+        final var pipes = new ArrayList<Pipe<?, ?, ?>>();
+        current.flatten(pipes);
+
+        try (var cursor = journal.read()) {
+            final var pool = ForkJoinPool.commonPool();
+            final var execution = new WindowedExecution<DeadLetter<I>, O>(cursor.entries().iterator(),
+                    letter -> resume(pipes, letter), pool, pool.getParallelism(), OutputOrder.UNORDERED);
+
+            var succeeded = 0L;
+
+            while(execution.hasNext()){
+                final var output = execution.next();
+
+                if(output.succeeded())
+                    succeeded++;
+
+                consumer.accept(output);
+            }
+
+            cursor.commit();
+            return succeeded;
+        }
+    }
+
+    private Step.StepOutput<O> resume(List<Pipe<?, ?, ?>> pipes, DeadLetter<I> letter){
+        monitor.incrementExecutionCount();
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos)) {
+            final var fromFirstStep = !letter.isResumable() || letter.getStepPosition() > stepCount;
+
+            if(fromFirstStep && !letter.hasInput()){
+                log.error("The entry of step {} was recorded without the input of the pipeline, it can't be replayed", letter.getStepName());
+                return Step.StepOutput.failure(new IllegalStateException("The input of the pipeline was not recorded"),
+                        letter.getStepName(), letter.getStepPosition(), null);
+            }
+
+            if(fromFirstStep)
+                return complete(letter.getInput(), applyCurrent(letter.getInput()));
+
+            return complete(letter.getInput(), applyFrom(pipes, letter.getStepPosition(), letter.getStepInput(), (position, value) -> {}));
+        }
+    }
+
+    /**
+     * Applies the steps from <stepPosition> onward, the first one to <stepInput>,
+     * handing the output of every completed step to <completed>. From position 0, <stepInput> is the input of the pipeline,
+     * handed to <completed> as the output of position 0 before the first step.
+     * When <completed> can't keep an output, the execution fails at the step that was running, on the input of that step
+     * */
+    @SuppressWarnings("unchecked")
+    private Step.StepOutput<O> applyFrom(List<Pipe<?, ?, ?>> pipes, int stepPosition, Object stepInput, StepListener completed){
+        final var start = monitor.startExecutionClock();
+        var value = stepInput;
+        var inputPending = stepPosition == 0;
+
+        for (final Pipe<?, ?, ?> pipe : pipes) {
+            if(pipe.getStepPosition() < stepPosition)
+                continue;
+
+            final var in = value;
+
+            try {
+                if(inputPending){
+                    completed.onCompleted(0, in);
+                    inputPending = false;
+                }
+
+                final var output = ((Step<Object, Object>) pipe.getStep()).apply(this, pipe.getStepPosition(), pipe.getStepMonitor(), in);
+
+                if(output.failed()){
+                    monitor.stopExecutionClock(start);
+                    return output.propagate();
+                }
+
+                value = output.getResultObj();
+                completed.onCompleted(pipe.getStepPosition(), value);
+            } catch (UncheckedIOException e) {
+                log.error("The output of step {} can't be saved", pipe.getStepMonitor().getStepName(), e);
+                monitor.stopExecutionClock(start);
+                return Step.StepOutput.failure(e, pipe.getStepMonitor(), in);
+            }
+        }
+
+        monitor.stopExecutionClock(start);
+        return Step.StepOutput.success((O) value);
+    }
+
+    @FunctionalInterface
+    private interface StepListener {
+        void onCompleted(int stepPosition, Object output);
+    }
+
+    /**
+     * Same as {@link #execute(Object)}, saving the output of every completed step in the checkpoint store under <executionId>,
+     * so the execution can be resumed with {@link #resume(String)} from its last completed step, after a failure or a restart.
+     * The checkpoints of the execution are dropped once it succeeds.
+     * A checkpoint that can't be saved fails the execution at the step that was running, like a failure of that step
+     *
+     * @see CheckpointStore
+     * */
+    public O executeCheckpointed(String executionId, I input){
+        if(isNull(executionId)) throw new AssertionError("<executionId> cannot be null");
+        if(isNull(checkpointStore)) throw new IllegalStateException("Pipeline <" + name + "> has no checkpoint store");
+
+        return executeFrom(executionId, input, 0, input);
+    }
+
+    /**
+     * Resumes the execution <executionId> from the first step it didn't complete, as saved by {@link #executeCheckpointed(String, Object)}
+     *
+     * @return the result of the execution, as {@link #execute(Object)} would return it
+     * @throws NoSuchElementException when there is no checkpoint of <executionId>, because it completed or it never started
+     * */
+    @SuppressWarnings("unchecked")
+    public O resume(String executionId){
+        if(isNull(checkpointStore)) throw new IllegalStateException("Pipeline <" + name + "> has no checkpoint store");
+
+        final var checkpoint = checkpointStore.get(executionId)
+                .orElseThrow(() -> new NoSuchElementException("No checkpoint of execution <" + executionId + ">"));
+
+        return executeFrom(executionId, (I) checkpoint.getInput(), checkpoint.getStepPosition() + 1, checkpoint.getValue());
+    }
+
+    /**
+     * @param input the input of the pipeline, handed to the error handler
+     * */
+    private O executeFrom(String executionId, I input, int stepPosition, Object stepInput){
+        monitor.incrementExecutionCount();
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos)) {
+            final var pipes = new ArrayList<Pipe<?, ?, ?>>();
+            current.flatten(pipes);
+
+            final var output = applyFrom(pipes, stepPosition, stepInput,
+                    (position, value) -> checkpointStore.save(executionId, position, value));
+
+            if(output.succeeded())
+                checkpointStore.complete(executionId);
+
+            return resultOf(input, output);
+        }
+    }
+
+    private Step.StepOutput<O> executeStreamElement(I input){
+        monitor.incrementStreamExecutionCount();
+
+        try {
+            return executeOutput(input);
+        } finally {
+            monitor.decrementStreamInFlight();
+        }
+    }
+
+    /**
+     * Same as {@link #execute(Object)}, but a failure comes back as a failed output
+     * carrying its {@link StepException}, after being handed to the error handler if there is one
+     * */
+    Step.StepOutput<O> executeOutput(I input){
+        monitor.incrementExecutionCount();
+
+        try (var scope = openLogContext(); var deadline = Deadline.start(timeoutNanos); var trace = monitor.startTrace()) {
+            return complete(input, applyCurrent(input));
+        }
+    }
+
+    /**
+     * @return the succeeded output as it is, or a failure carrying the {@link StepException}
+     * after handing it to the error handler if there is one
+     * */
+    private Step.StepOutput<O> complete(I input, Step.StepOutput<O> output){
+        if(output.succeeded())
+            return output;
 
         monitor.incrementFailureCount();
 
+        final var stepException = toStepException(output);
+        handleError(input, stepException);
+
+        return Step.StepOutput.failure(stepException, output.getStepName(), output.getStepPosition(), output.getStepInput());
+    }
+
+    /**
+     * @return the logging context scope of an execution of this pipeline, opened on the current thread
+     * */
+    LogContext.Scope openLogContext(){
+        return LogContext.open(name, loggingContext);
+    }
+
+    private Step.StepOutput<O> applyCurrent(I input){
+        if(isNull(singleFlight))
+            return monitor.clockExecution(() -> current.apply(this, input));
+
+        return singleFlight.run(singleFlightKey.apply(input),
+                () -> monitor.clockExecution(() -> current.apply(this, input)),
+                monitor::incrementCoalescedCount);
+    }
+
+    private CompletableFuture<Step.StepOutput<O>> applyCurrentAsync(I input, LogContext.Snapshot context){
+        if(isNull(singleFlight))
+            return current.applyAsync(this, input, context);
+
+        return singleFlight.runAsync(singleFlightKey.apply(input), () -> current.applyAsync(this, input, context), monitor::incrementCoalescedCount);
+    }
+
+    /**
+     * @return the result of a succeeded output, or null when the error handler handled the failure
+     * @throws StepException when the output failed and there is no error handler
+     * */
+    O resultOf(I input, Step.StepOutput<O> output){
+        if(output.succeeded())
+            return output.getResultObj();
+
+        monitor.incrementFailureCount();
+
+        final var stepException = toStepException(output);
+
+        if(handleError(input, stepException))
+            return null;
+
+        throw stepException;
+    }
+
+    private StepException toStepException(Step.StepOutput<?> output){
         final Exception e = output.getLastException();
-        final StepException stepException;
+
+        if(e instanceof DeadlineExceededException)
+            monitor.incrementDeadlineExceededCount();
 
         if(e instanceof StepException){
-            stepException = (StepException)e;
             log.warn("Step intentionally interrupted cause: {}", e.getMessage());
-        }else{
-            stepException = new StepException(name, output.getStepName(), e.getMessage(), e);
-            log.error("An unexpected error occurred on the current step", e);
+            return (StepException)e;
         }
 
-        if(nonNull(onErrorHandler)){
-            log.debug("Error handler found! Invoking it");
-            monitor.clockOnErrorExecution(() -> onErrorHandler.apply(input, stepException));
-            log.debug("Took {}ms", monitor.onErrorClockMean());
-            return null;
-        }
+        log.error("An unexpected error occurred on the current step", e);
+        return new StepException(name, output.getStepName(), output.getStepPosition(), output.getStepInput(), e.getMessage(), e);
+    }
 
-        throw stepException;
+    private boolean handleError(I input, StepException stepException){
+        if(isNull(onErrorHandler))
+            return false;
+
+        log.debug("Error handler found! Invoking it");
+        monitor.clockOnErrorExecution(() -> onErrorHandler.apply(input, stepException));
+        log.debug("Took {}ms", monitor.onErrorClockMean());
+        return true;
     }
 
     public Pipeline<I, O> copy(String name){
@@ -138,15 +778,113 @@ public class Pipeline<I, O> {
         return new Pipeline<>(name, this);
     }
 
-    public static synchronized void checkIfNameIsAvailable(String name){
+    /**
+     * Removes the meters of this pipeline and of its steps from its meter registry, and unregisters its name so it can be used again.
+     * The pipelines built from this one with {@link #next(Step)} share its name and its meters, so they are closed as well.
+     * A closed pipeline rejects its executions with an {@link IllegalStateException},
+     * and closing it again leaves alone a new pipeline registered under the same name
+     * */
+    public void close(){
+        monitor.close();
+        register.computeIfPresent(name, (key, registered) -> registered.monitor == monitor ? null : registered);
+    }
+
+    /**
+     * Closes the pipeline registered under <name>
+     *
+     * @return false when there is no pipeline registered under <name>
+     * @see #close()
+     * */
+    public static boolean unregister(String name){
+        final var pipeline = register.get(name);
+
+        if(isNull(pipeline))
+            return false;
+
+        pipeline.close();
+        return true;
+    }
+
+    /**
+     * @return the pipeline registered under <name>, which is the last one built under that name
+     * */
+    @SuppressWarnings("unchecked")
+    public static <I, O> Optional<Pipeline<I, O>> lookup(String name){
+        return Optional.ofNullable((Pipeline<I, O>) register.get(name));
+    }
+
+    public static void checkIfNameIsAvailable(String name){
         if(register.containsKey(name)) throw new IllegalArgumentException("Name: <" + name + "> is already being used");
     }
 
     public static <T> Pipeline<T, T> init(String name) {
+        return init(name, null);
+    }
+
+    /**
+     * @return a builder of a pipeline named <name>, created with all its steps, its monitor and its meters at once
+     * by {@link PipelineBuilder#build()}, instead of a new pipeline for every {@link #next(Step)}
+     * */
+    public static <T> PipelineBuilder<T, T> builder(String name) {
+        return builder(name, null);
+    }
+
+    /**
+     * @return a builder of a pipeline of ints, see {@link #ofInt(String)}
+     * */
+    public static PipelineBuilder<Integer, Integer> builderOfInt(String name) {
+        return builder(name, PrimitiveKind.INT);
+    }
+
+    /**
+     * @return a builder of a pipeline of longs, see {@link #ofLong(String)}
+     * */
+    public static PipelineBuilder<Long, Long> builderOfLong(String name) {
+        return builder(name, PrimitiveKind.LONG);
+    }
+
+    /**
+     * @return a builder of a pipeline of doubles, see {@link #ofDouble(String)}
+     * */
+    public static PipelineBuilder<Double, Double> builderOfDouble(String name) {
+        return builder(name, PrimitiveKind.DOUBLE);
+    }
+
+    private static <T> PipelineBuilder<T, T> builder(String name, PrimitiveKind kind) {
+        if(isNull(name) || name.isEmpty()) throw new AssertionError("Pipeline name cannot be null or empty");
+
+        checkIfNameIsAvailable(name);
+
+        return new PipelineBuilder<>(name, kind);
+    }
+
+    /**
+     * @return a pipeline of ints, executed unboxed by {@link #executeInt(int)} while its steps are primitive
+     * */
+    public static Pipeline<Integer, Integer> ofInt(String name) {
+        return init(name, PrimitiveKind.INT);
+    }
+
+    /**
+     * @return a pipeline of longs, executed unboxed by {@link #executeLong(long)} while its steps are primitive
+     * @see io.pipeline.step.LongStep
+     * */
+    public static Pipeline<Long, Long> ofLong(String name) {
+        return init(name, PrimitiveKind.LONG);
+    }
+
+    /**
+     * @return a pipeline of doubles, executed unboxed by {@link #executeDouble(double)} while its steps are primitive
+     * */
+    public static Pipeline<Double, Double> ofDouble(String name) {
+        return init(name, PrimitiveKind.DOUBLE);
+    }
+
+    private static <T> Pipeline<T, T> init(String name, PrimitiveKind kind) {
         if(isNull(name) || name.isEmpty()) throw new AssertionError("Pipeline name cannot be null or empty");
 
         checkIfNameIsAvailable(name);
 
-        return new Pipeline<>(name, new InitialPipe<>());
+        return new Pipeline<>(name, new InitialPipe<>(kind));
     }
 }
@@ -0,0 +1,265 @@
+package io.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pipeline.cache.CacheSpec;
+import io.pipeline.cache.CachingStep;
+import io.pipeline.checkpoint.CheckpointStore;
+import io.pipeline.concurrent.JoinPolicy;
+import io.pipeline.concurrent.ParallelStep;
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.error.ErrorHandler;
+import io.pipeline.monitor.MetricsLevel;
+import io.pipeline.retry.IRetry;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.ExecutorBoundStep;
+import io.pipeline.step.PrimitiveKind;
+import io.pipeline.step.Step;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
+import static java.util.Objects.isNull;
+
+/**
+ * Collects the steps and the settings of a pipeline, which is only created by {@link #build()}:
+ * a single monitor, the steps chained in one pass, and every meter registered once, in the final registry.
+ * With lazy meters, even the registration waits for the first execution, so a service building
+ * many pipelines at startup only pays for the ones it executes.
+ * <pre>
+ * Pipeline.&lt;Order&gt;builder("orders")
+ *     .setMeterRegistry(registry)
+ *     .next(validate)
+ *     .next(charge)
+ *     .build();
+ * </pre>
+ * Pipelines of primitive values are built by {@link Pipeline#builderOfInt(String)} and the like.
+ *
+ * @see Pipeline#builder(String)
+ * */
+public final class PipelineBuilder<I, O> {
+    private final String name;
+    private final PrimitiveKind kind;
+    private final List<Step<?, ?>> steps = new ArrayList<>();
+
+    private IRetry retry = new SimpleRetry();
+    private ErrorHandler<I> onErrorHandler;
+    private Function<? super I, ?> singleFlightKey;
+    private MeterRegistry meterRegistry = globalRegistry;
+    private MetricsLevel metricsLevel = MetricsLevel.FULL;
+    private boolean lazyMeters;
+    private boolean loggingContext = true;
+    private Duration timeout;
+    private CheckpointStore checkpointStore;
+
+    PipelineBuilder(String name, PrimitiveKind kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <O2> PipelineBuilder<I, O2> next(Step<O, O2> next) {
+        if(isNull(next)) throw new AssertionError("<next> cannot be null");
+
+        steps.add(next);
+        return (PipelineBuilder<I, O2>) this;
+    }
+
+    /**
+     * @see Pipeline#next(Step, Executor)
+     * */
+    public <O2> PipelineBuilder<I, O2> next(Step<O, O2> next, Executor executor) {
+        if(isNull(next)) throw new AssertionError("<next> cannot be null");
+
+        return next(new ExecutorBoundStep<>(next, executor));
+    }
+
+    /**
+     * @see Pipeline#nextCached(Step, CacheSpec)
+     * */
+    public <O2> PipelineBuilder<I, O2> nextCached(Step<O, O2> next, CacheSpec<? super O> cacheSpec) {
+        if(isNull(next)) throw new AssertionError("<next> cannot be null");
+
+        return next(new CachingStep<>(next, cacheSpec));
+    }
+
+    /**
+     * @see Pipeline#parallel(Step[])
+     * */
+    @SafeVarargs
+    public final Fork<I, O> parallel(Step<O, ?>... branches) {
+        if(isNull(branches) || branches.length == 0) throw new AssertionError("<branches> cannot be null or empty");
+
+        return new Fork<>(this, Arrays.asList(branches));
+    }
+
+    public PipelineBuilder<I, O> setRetry(IRetry retry) {
+        if(isNull(retry)) throw new AssertionError("<retry> cannot be null");
+
+        this.retry = retry;
+        return this;
+    }
+
+    public PipelineBuilder<I, O> onError(ErrorHandler<I> errorHandler) {
+        this.onErrorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * @see Pipeline#singleFlight(Function)
+     * */
+    public PipelineBuilder<I, O> singleFlight(Function<? super I, ?> keyFunction) {
+        this.singleFlightKey = keyFunction;
+        return this;
+    }
+
+    /**
+     * @param meterRegistry where the meters of the pipeline and of its steps are registered, the global registry by default
+     * */
+    public PipelineBuilder<I, O> setMeterRegistry(MeterRegistry meterRegistry) {
+        if(isNull(meterRegistry)) throw new AssertionError("<meterRegistry> cannot be null");
+
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    public PipelineBuilder<I, O> setMetricsLevel(MetricsLevel metricsLevel) {
+        if(isNull(metricsLevel)) throw new AssertionError("<metricsLevel> cannot be null");
+
+        this.metricsLevel = metricsLevel;
+        return this;
+    }
+
+    /**
+     * @param lazyMeters whether the meters are only registered on the first execution of the pipeline instead of by {@link #build()}, off by default
+     * */
+    public PipelineBuilder<I, O> setLazyMeters(boolean lazyMeters) {
+        this.lazyMeters = lazyMeters;
+        return this;
+    }
+
+    /**
+     * @see Pipeline#setLoggingContext(boolean)
+     * */
+    public PipelineBuilder<I, O> setLoggingContext(boolean enabled) {
+        this.loggingContext = enabled;
+        return this;
+    }
+
+    /**
+     * @see Pipeline#setTimeout(Duration)
+     * */
+    public PipelineBuilder<I, O> setTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public PipelineBuilder<I, O> setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+        return this;
+    }
+
+    /**
+     * @return the pipeline, registered under the name of this builder
+     * @throws IllegalArgumentException when the name is already used
+     * */
+    public Pipeline<I, O> build() {
+        return new Pipeline<>(this);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    PrimitiveKind getKind() {
+        return kind;
+    }
+
+    List<Step<?, ?>> getSteps() {
+        return steps;
+    }
+
+    IRetry getRetry() {
+        return retry;
+    }
+
+    ErrorHandler<I> getOnErrorHandler() {
+        return onErrorHandler;
+    }
+
+    Function<? super I, ?> getSingleFlightKey() {
+        return singleFlightKey;
+    }
+
+    MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    MetricsLevel getMetricsLevel() {
+        return metricsLevel;
+    }
+
+    boolean isLazyMeters() {
+        return lazyMeters;
+    }
+
+    boolean isLoggingContext() {
+        return loggingContext;
+    }
+
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    CheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    /**
+     * The branches of a {@link PipelineBuilder#parallel(Step[])} call, waiting for the step joining their results
+     *
+     * @see io.pipeline.concurrent.Fork
+     * */
+    public static final class Fork<I, O> {
+        private final PipelineBuilder<I, O> builder;
+        private final List<Step<O, ?>> branches;
+
+        private JoinPolicy joinPolicy = JoinPolicy.FAIL_FAST;
+        private Executor executor = VirtualThreads.sharedExecutor();
+
+        private Fork(PipelineBuilder<I, O> builder, List<Step<O, ?>> branches) {
+            this.builder = builder;
+            this.branches = branches;
+        }
+
+        public Fork<I, O> setJoinPolicy(JoinPolicy joinPolicy) {
+            if(isNull(joinPolicy)) throw new AssertionError("<joinPolicy> cannot be null");
+
+            this.joinPolicy = joinPolicy;
+            return this;
+        }
+
+        /**
+         * @see io.pipeline.concurrent.Fork#setExecutor(Executor)
+         * */
+        public Fork<I, O> setExecutor(Executor executor) {
+            if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @see io.pipeline.concurrent.Fork#join(Step)
+         * */
+        public <O2> PipelineBuilder<I, O2> join(Step<List<Object>, O2> combiner) {
+            if(isNull(combiner)) throw new AssertionError("<combiner> cannot be null");
+
+            return builder.next(new ParallelStep<>(branches, joinPolicy, executor)).next(combiner);
+        }
+    }
+}
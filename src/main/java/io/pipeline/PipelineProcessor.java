@@ -0,0 +1,172 @@
+package io.pipeline;
+
+
+import io.pipeline.error.StepException;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Exposes a pipeline as a {@link Flow.Processor}: every element published upstream is executed
+ * by the pipeline and its result is published downstream.
+ * The demand of the downstream subscriber is forwarded upstream, so no more elements are taken
+ * than the downstream asked for. A failed element is handed to the error handler of the pipeline
+ * and to the error channel, if any, and replaced by a new request upstream, it never cancels the stream.
+ * Results are published on the thread that delivered the element, so only one downstream subscriber is supported.
+ * */
+public class PipelineProcessor<I, O> implements Flow.Processor<I, O> {
+    private final Pipeline<I, O> pipeline;
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicLong pendingDemand = new AtomicLong();
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    private volatile Flow.Subscriber<? super O> downstream;
+    private volatile Throwable terminalError;
+    private volatile boolean completed;
+    private volatile boolean cancelled;
+
+    private Consumer<StepException> errorChannel;
+
+    PipelineProcessor(Pipeline<I, O> pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * @param errorChannel receives the {@link StepException} of every failed element
+     * */
+    public PipelineProcessor<I, O> onError(Consumer<StepException> errorChannel){
+        this.errorChannel = errorChannel;
+        return this;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super O> subscriber) {
+        if(isNull(subscriber)) throw new NullPointerException("<subscriber> cannot be null");
+
+        if(!subscribed.compareAndSet(false, true)){
+            subscriber.onSubscribe(new NoopSubscription());
+            subscriber.onError(new IllegalStateException("Pipeline <" + pipeline.getName() + "> processor supports a single subscriber"));
+            return;
+        }
+
+        downstream = subscriber;
+        subscriber.onSubscribe(new DownstreamSubscription());
+
+        if(completed)
+            subscriber.onComplete();
+        else if(!isNull(terminalError))
+            subscriber.onError(terminalError);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if(!upstream.compareAndSet(null, subscription)){
+            subscription.cancel();
+            return;
+        }
+
+        if(cancelled){
+            subscription.cancel();
+            return;
+        }
+
+        flushPendingDemand(subscription);
+    }
+
+    @Override
+    public void onNext(I item) {
+        final var output = pipeline.executeOutput(item);
+
+        if(output.succeeded() && !isNull(output.getResultObj())){
+            downstream.onNext(output.getResultObj());
+            return;
+        }
+
+        if(output.failed() && !isNull(errorChannel))
+            errorChannel.accept((StepException) output.getLastException());
+
+        //The element didn't reach the downstream, so its demand is still open
+        upstream.get().request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        terminalError = throwable;
+
+        final var subscriber = downstream;
+        if(!isNull(subscriber))
+            subscriber.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+
+        final var subscriber = downstream;
+        if(!isNull(subscriber))
+            subscriber.onComplete();
+    }
+
+    private void requestUpstream(long n){
+        final var subscription = upstream.get();
+
+        if(!isNull(subscription)){
+            subscription.request(n);
+            return;
+        }
+
+        pendingDemand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+
+        final var arrived = upstream.get();
+        if(!isNull(arrived))
+            flushPendingDemand(arrived);
+    }
+
+    private void flushPendingDemand(Flow.Subscription subscription){
+        final var demand = pendingDemand.getAndSet(0);
+
+        if(demand > 0)
+            subscription.request(demand);
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if(n <= 0){
+                cancel();
+                downstream.onError(new IllegalArgumentException("Requested " + n + " elements, it must be greater than zero"));
+                return;
+            }
+
+            requestUpstream(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+
+            final var subscription = upstream.get();
+            if(!isNull(subscription))
+                subscription.cancel();
+        }
+    }
+
+    private static final class NoopSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            //The subscriber was rejected
+        }
+
+        @Override
+        public void cancel() {
+            //The subscriber was rejected
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.pipeline;
+
+
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.pipe.Pipe;
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A pipeline where every step runs as its own stage (SEDA), with a dedicated pool of workers
+ * fed by a bounded queue. Step N of an input overlaps with step N+1 of the previous input,
+ * instead of every input going through the whole chain on the caller thread.
+ * When a stage is slower than the previous ones its queue fills up, the previous workers block on it,
+ * and at last {@link #submit(Object)} blocks the producer.
+ *
+ * @see StepMonitor#bindQueue(java.util.Collection)
+ * */
+public class StagedPipeline<I, O> implements AutoCloseable {
+    private final Pipeline<I, O> pipeline;
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    StagedPipeline(Pipeline<I, O> pipeline, List<Pipe<?, ?, ?>> pipes, int queueCapacity, IntUnaryOperator workersOfStep) {
+        if(queueCapacity < 1) throw new AssertionError("<queueCapacity> must be greater than zero");
+        if(pipes.isEmpty()) throw new AssertionError("A staged pipeline needs at least one step");
+
+        this.pipeline = pipeline;
+
+        for (final Pipe<?, ?, ?> pipe : pipes)
+            stages.add(new Stage(pipe, queueCapacity));
+
+        for (int i = 0; i < stages.size(); i++) {
+            final var stage = stages.get(i);
+            final var next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+            final var workerCount = workersOfStep.applyAsInt(stage.stepPosition);
+
+            if(workerCount < 1) throw new AssertionError("Step " + stage.stepPosition + " must have at least one worker");
+
+            for (int w = 0; w < workerCount; w++) {
+                final var worker = new Thread(() -> work(stage, next), "pipeline-" + pipeline.getName() + "-step-" + stage.stepPosition + "-" + w);
+                worker.setDaemon(true);
+                worker.start();
+
+                workers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Enqueues <input> on the first stage, blocking while its queue is full
+     *
+     * @return a future completed as {@link Pipeline#execute(Object)} would return,
+     * or completed exceptionally with what it would throw
+     * */
+    public CompletableFuture<O> submit(I input) throws InterruptedException {
+        //Counted before checking, so close() either sees this input in flight or the input sees the pipeline closed
+        inFlight.incrementAndGet();
+
+        if(closed){
+            inFlight.decrementAndGet();
+            throw new IllegalStateException("Staged pipeline <" + pipeline.getName() + "> is closed");
+        }
+
+        final var monitor = pipeline.getMonitor();
+        monitor.incrementExecutionCount();
+
+        final Task task;
+
+        try (var scope = pipeline.openLogContext()) {
+            task = new Task(input, LogContext.capture(), monitor.startExecutionClock());
+        }
+
+        try {
+            stages.get(0).enqueue(task);
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+
+        return task.result;
+    }
+
+    public Pipeline<I, O> getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Stops accepting inputs, waits for the submitted ones to finish, stops the workers
+     * and removes the queue depth gauges of the stages
+     * */
+    @Override
+    public void close() {
+        closed = true;
+
+        while(inFlight.get() > 0)
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+
+        workers.forEach(Thread::interrupt);
+        stages.forEach(stage -> stage.stepMonitor.unbindQueue(stage.queue));
+    }
+
+    private void work(Stage stage, Stage next){
+        while(!Thread.currentThread().isInterrupted()){
+            final Task task;
+
+            try {
+                task = stage.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            stage.stepMonitor.recordQueueWait(System.nanoTime() - task.enqueuedAt);
+
+            try (var scope = task.context.restore()) {
+                process(stage, next, task);
+            }
+        }
+    }
+
+    private void process(Stage stage, Stage next, Task task){
+        final var output = stage.step.apply(pipeline, stage.stepPosition, stage.stepMonitor, task.value);
+
+        if(output.failed() || next == null){
+            finish(task, output);
+            return;
+        }
+
+        task.value = output.getResultObj();
+
+        try {
+            next.enqueue(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(task, Step.StepOutput.failure(e, next.stepMonitor, task.value));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish(Task task, Step.StepOutput<Object> output){
+        pipeline.getMonitor().stopExecutionClock(task.startNanos);
+
+        try {
+            task.result.complete(pipeline.resultOf((I) task.input, (Step.StepOutput<O>) output));
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private final class Stage {
+        private final Step<Object, Object> step;
+        private final int stepPosition;
+        private final StepMonitor stepMonitor;
+        private final BlockingQueue<Task> queue;
+
+        @SuppressWarnings("unchecked")
+        private Stage(Pipe<?, ?, ?> pipe, int queueCapacity) {
+            this.step = (Step<Object, Object>) pipe.getStep();
+            this.stepPosition = pipe.getStepPosition();
+            this.stepMonitor = pipe.getStepMonitor();
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+            stepMonitor.bindQueue(queue);
+        }
+
+        private void enqueue(Task task) throws InterruptedException {
+            task.enqueuedAt = System.nanoTime();
+            queue.put(task);
+        }
+    }
+
+    private final class Task {
+        private final Object input;
+        private final LogContext.Snapshot context;
+        private final long startNanos;
+        private final CompletableFuture<O> result = new CompletableFuture<>();
+
+        private Object value;
+        private long enqueuedAt;
+
+        private Task(Object input, LogContext.Snapshot context, long startNanos) {
+            this.input = input;
+            this.value = input;
+            this.context = context;
+            this.startNanos = startNanos;
+        }
+    }
+}
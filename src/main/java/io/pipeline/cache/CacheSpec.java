@@ -0,0 +1,70 @@
+package io.pipeline.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Describes the cache of a {@link CachingStep}: how many entries it keeps, for how long,
+ * how the key is taken from the input and whether failures are cached too.
+ * */
+public class CacheSpec<I> {
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Duration ttl;
+    private Duration failureTtl;
+    private Function<? super I, ?> keyExtractor = Function.identity();
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @param maximumSize the number of entries kept, the least recently used one is evicted when it is exceeded
+     * */
+    public CacheSpec<I> setMaximumSize(long maximumSize) {
+        if(maximumSize < 1) throw new AssertionError("<maximumSize> must be greater than zero");
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @param ttl how long a result is kept after it is computed, null keeps it until it is evicted
+     * */
+    public CacheSpec<I> setTtl(Duration ttl) {
+        this.ttl = ttl;
+        return this;
+    }
+
+    public Duration getFailureTtl() {
+        return failureTtl;
+    }
+
+    /**
+     * @param failureTtl how long a failure is kept, so the same input fails without calling the step again.
+     *                   Null, the default, doesn't cache failures
+     * */
+    public CacheSpec<I> setFailureTtl(Duration failureTtl) {
+        this.failureTtl = failureTtl;
+        return this;
+    }
+
+    public Function<? super I, ?> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    /**
+     * @param keyExtractor takes the cache key from the input, by default the input itself is the key
+     * */
+    public CacheSpec<I> setKeyExtractor(Function<? super I, ?> keyExtractor) {
+        if(isNull(keyExtractor)) throw new AssertionError("<keyExtractor> cannot be null");
+        this.keyExtractor = keyExtractor;
+        return this;
+    }
+}
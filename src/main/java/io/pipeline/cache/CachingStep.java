@@ -0,0 +1,147 @@
+package io.pipeline.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Memoizes the results of a step, meant for expensive pure lookups called over and over with the same keys.
+ * A hit skips the step entirely, including its retries. The hits, misses and evictions are counted
+ * beside the step meters, and the number of entries is exported as {@value #CACHE_SIZE_METRIC},
+ * so the maximum size can be tuned.
+ *
+ * @see CacheSpec
+ * */
+public class CachingStep<I, O> extends ForwardingStep<I, O> {
+    public static final String CACHE_HITS_METRIC = "pipeline.step.cache.hits";
+    public static final String CACHE_MISSES_METRIC = "pipeline.step.cache.misses";
+    public static final String CACHE_EVICTIONS_METRIC = "pipeline.step.cache.evictions";
+    public static final String CACHE_SIZE_METRIC = "pipeline.step.cache.size";
+
+    private final LruCache<Object, O> cache;
+    private final Function<? super I, ?> keyExtractor;
+    private final long ttlNanos;
+    private final long failureTtlNanos;
+    private final boolean cacheFailures;
+
+    public CachingStep(Step<I, O> delegate, CacheSpec<? super I> spec) {
+        super(delegate);
+
+        if(isNull(spec)) throw new AssertionError("<spec> cannot be null");
+
+        this.cache = new LruCache<>(spec.getMaximumSize());
+        this.keyExtractor = spec.getKeyExtractor();
+        this.ttlNanos = isNull(spec.getTtl()) ? -1 : spec.getTtl().toNanos();
+        this.cacheFailures = !isNull(spec.getFailureTtl());
+        this.failureTtlNanos = cacheFailures ? spec.getFailureTtl().toNanos() : -1;
+    }
+
+    @Override
+    public void bind(StepMonitor monitor) {
+        super.bind(monitor);
+
+        monitor.bindMeters(m -> Gauge.builder(CACHE_SIZE_METRIC, cache, LruCache::size)
+                .tags(m.getTags()).register(m.getMeterRegistry()));
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        final var key = keyExtractor.apply(in);
+        final var cached = lookup(monitor, key, in);
+
+        if(!isNull(cached))
+            return cached;
+
+        return store(monitor, key, delegate.apply(pipeline, myPosition, monitor, in));
+    }
+
+    /**
+     * Only the elements missing from the cache go to the delegate, as one batch
+     * */
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        final var outputs = new ArrayList<StepOutput<O>>(in.size());
+        final var keys = new ArrayList<Object>(in.size());
+        final var missed = new ArrayList<I>();
+
+        for (final I element : in) {
+            final var key = keyExtractor.apply(element);
+            final var cached = lookup(monitor, key, element);
+
+            outputs.add(cached);
+            keys.add(key);
+
+            if(isNull(cached))
+                missed.add(element);
+        }
+
+        if(missed.isEmpty())
+            return outputs;
+
+        final var missedOutputs = delegate.applyBatch(pipeline, myPosition, monitor, missed);
+
+        var next = 0;
+        for (int i = 0; i < outputs.size(); i++) {
+            if(isNull(outputs.get(i)))
+                outputs.set(i, store(monitor, keys.get(i), missedOutputs.get(next++)));
+        }
+
+        return outputs;
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        final var key = keyExtractor.apply(in);
+        final var cached = lookup(monitor, key, in);
+
+        if(!isNull(cached))
+            return CompletableFuture.completedFuture(cached);
+
+        return delegate.applyAsync(pipeline, myPosition, monitor, in).thenApply(output -> store(monitor, key, output));
+    }
+
+    /**
+     * @return the cached output of <key>, or null on a miss
+     * */
+    private StepOutput<O> lookup(StepMonitor monitor, Object key, I in){
+        final var entry = cache.get(key);
+
+        if(isNull(entry)){
+            monitor.counter(CACHE_MISSES_METRIC).increment();
+            return null;
+        }
+
+        monitor.counter(CACHE_HITS_METRIC).increment();
+
+        if(!entry.failed())
+            return StepOutput.success(entry.getValue());
+
+        monitor.incrementFailureCount();
+        return StepOutput.failure(entry.getFailure(), monitor, in);
+    }
+
+    private StepOutput<O> store(StepMonitor monitor, Object key, StepOutput<O> output){
+        final int evicted;
+
+        if(output.succeeded())
+            evicted = cache.put(key, LruCache.Entry.success(output.getResultObj(), ttlNanos));
+        else if(cacheFailures)
+            evicted = cache.put(key, LruCache.Entry.failure(output.getLastException(), failureTtlNanos));
+        else
+            evicted = 0;
+
+        if(evicted > 0)
+            monitor.counter(CACHE_EVICTIONS_METRIC).increment(evicted);
+
+        return output;
+    }
+}
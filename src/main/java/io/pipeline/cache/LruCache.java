@@ -0,0 +1,107 @@
+package io.pipeline.cache;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded map evicting the least recently used entry, where every entry has its own expiration
+ * */
+class LruCache<K, V> {
+    private final long maximumSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    LruCache(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return the entry of <key>, or null if there is none or it has expired
+     * */
+    Entry<V> get(K key){
+        lock.lock();
+        try {
+            final var entry = entries.get(key);
+
+            if(entry == null)
+                return null;
+
+            if(entry.isExpired(System.nanoTime())){
+                entries.remove(key);
+                return null;
+            }
+
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return how many entries were evicted to make room for this one
+     * */
+    int put(K key, Entry<V> entry){
+        lock.lock();
+        try {
+            entries.put(key, entry);
+
+            var evicted = 0;
+            final var iterator = entries.entrySet().iterator();
+
+            while(entries.size() > maximumSize && iterator.hasNext()){
+                iterator.next();
+                iterator.remove();
+                evicted++;
+            }
+
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(){
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static final class Entry<V> {
+        private final V value;
+        private final Exception failure;
+        private final long expiresAt;
+
+        private Entry(V value, Exception failure, long ttlNanos) {
+            this.value = value;
+            this.failure = failure;
+            this.expiresAt = ttlNanos < 0 ? Long.MAX_VALUE : System.nanoTime() + ttlNanos;
+        }
+
+        static <V> Entry<V> success(V value, long ttlNanos){
+            return new Entry<>(value, null, ttlNanos);
+        }
+
+        static <V> Entry<V> failure(Exception failure, long ttlNanos){
+            return new Entry<>(null, failure, ttlNanos);
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        Exception getFailure() {
+            return failure;
+        }
+
+        boolean failed(){
+            return failure != null;
+        }
+
+        private boolean isExpired(long now){
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.pipeline.checkpoint;
+
+/**
+ * The last completed step of an execution, and its output
+ * */
+public final class Checkpoint {
+    private final String executionId;
+    private final Object input;
+    private final int stepPosition;
+    private final Object value;
+
+    Checkpoint(String executionId, Object input, int stepPosition, Object value) {
+        this.executionId = executionId;
+        this.input = input;
+        this.stepPosition = stepPosition;
+        this.value = value;
+    }
+
+    public String getExecutionId() {
+        return executionId;
+    }
+
+    /**
+     * @return the input of the pipeline, null when it was lost
+     * */
+    public Object getInput() {
+        return input;
+    }
+
+    /**
+     * @return the position of the last completed step, 0 when no step completed and {@link #getValue()} is the input of the pipeline
+     * */
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    /**
+     * @return the output of the last completed step, the input of the next one
+     * */
+    public Object getValue() {
+        return value;
+    }
+}
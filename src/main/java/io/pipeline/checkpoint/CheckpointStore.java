@@ -0,0 +1,501 @@
+package io.pipeline.checkpoint;
+
+import io.pipeline.journal.JournalSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Checkpoints of the executions of a pipeline, kept in an append-only file.
+ * A checkpoint is serialized and queued on the calling thread, and a single committer thread writes
+ * everything queued since its last write with one write and one sync, so the executions share the cost of the disk
+ * instead of paying it on every step. The committer parks while there is nothing to write,
+ * and only the first checkpoint queued while it is parked wakes it up. By default the executions don't wait for the sync,
+ * a crash loses the checkpoints of the last batch and the steps after the previous ones run again,
+ * {@link #setSynchronous(boolean)} makes every checkpoint wait for the batch it belongs to.
+ * <p>
+ * The last checkpoint of every unfinished execution is indexed in memory, and the file is compacted to them when it is opened,
+ * and by the committer once less than half of what it wrote is still live, see {@link #setCompactionThreshold(long)}.
+ * */
+public final class CheckpointStore implements AutoCloseable {
+    public static final Logger log = LoggerFactory.getLogger(CheckpointStore.class);
+    public static final int MAX_BATCH_SIZE = 1024;
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 64 * 1024 * 1024;
+    public static final double COMPACTION_LIVE_RATIO = 0.5;
+
+    private static final byte SAVED = 0;
+    private static final byte COMPLETED = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path file;
+    private final JournalSerializer serializer;
+    private final Map<String, Saved> lastCheckpoints = new ConcurrentHashMap<>();
+    private final Queue<Record> queue = new ConcurrentLinkedQueue<>();
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread committer;
+
+    private volatile boolean synchronous;
+    private volatile boolean closed;
+    private volatile boolean idle;
+    private volatile long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    //Only used by the committer once it started
+    private FileChannel channel;
+    private long writtenBytes;
+    private long checkedBytes;
+
+    private CheckpointStore(Path file, JournalSerializer serializer) throws IOException {
+        this.file = file;
+        this.serializer = serializer;
+
+        load();
+
+        this.writtenBytes = compact();
+        this.checkedBytes = writtenBytes;
+        this.channel = openChannel();
+        this.committer = new Thread(this::commitLoop, "checkpoint-committer-" + file.getFileName());
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public static CheckpointStore open(Path file) throws IOException {
+        return open(file, JournalSerializer.JAVA);
+    }
+
+    /**
+     * Opens the store kept in <file>, creating it when it doesn't exist
+     * */
+    public static CheckpointStore open(Path file, JournalSerializer serializer) throws IOException {
+        if(isNull(file)) throw new AssertionError("<file> cannot be null");
+        if(isNull(serializer)) throw new AssertionError("<serializer> cannot be null");
+
+        return new CheckpointStore(file, serializer);
+    }
+
+    /**
+     * @param synchronous whether saving a checkpoint waits until it is synced to the disk, off by default
+     * */
+    public CheckpointStore setSynchronous(boolean synchronous) {
+        this.synchronous = synchronous;
+        return this;
+    }
+
+    /**
+     * @param compactionThreshold the bytes the committer writes before it checks whether the file is worth compacting,
+     * it checks again every time the file doubles, {@value #DEFAULT_COMPACTION_THRESHOLD} by default
+     * */
+    public CheckpointStore setCompactionThreshold(long compactionThreshold) {
+        if(compactionThreshold <= 0) throw new AssertionError("<compactionThreshold> must be positive");
+
+        this.compactionThreshold = compactionThreshold;
+        return this;
+    }
+
+    /**
+     * Records that the step at <stepPosition> of the execution <executionId> completed with <value>
+     *
+     * @throws UncheckedIOException when <value> can't be serialized
+     * */
+    public void save(String executionId, int stepPosition, Object value){
+        final byte[] serialized;
+
+        try {
+            serialized = serializer.serialize(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        lastCheckpoints.compute(executionId, (id, previous) -> new Saved(inputOf(previous, stepPosition, serialized), stepPosition, serialized));
+        write(encode(SAVED, executionId, stepPosition, serialized));
+    }
+
+    /**
+     * Records that the execution <executionId> is over, its checkpoints are dropped
+     * */
+    public void complete(String executionId){
+        if(isNull(lastCheckpoints.remove(executionId)))
+            return;
+
+        write(encode(COMPLETED, executionId, 0, new byte[0]));
+    }
+
+    public Optional<Checkpoint> get(String executionId){
+        final var saved = lastCheckpoints.get(executionId);
+
+        if(isNull(saved))
+            return Optional.empty();
+
+        try {
+            final var input = isNull(saved.input) ? null : serializer.deserialize(saved.input);
+            return Optional.of(new Checkpoint(executionId, input, saved.stepPosition, serializer.deserialize(saved.value)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the ids of the executions that have checkpoints and didn't complete, to resume after a restart
+     * */
+    public Set<String> getExecutionIds(){
+        return Set.copyOf(lastCheckpoints.keySet());
+    }
+
+    /**
+     * Waits until every checkpoint saved so far is synced to the disk, which they already are once the store is closed
+     * */
+    public void flush(){
+        final Record record;
+
+        closeLock.readLock().lock();
+
+        try {
+            if(closed)
+                return;
+
+            record = enqueue(null, false, true);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        record.committed.join();
+    }
+
+    /**
+     * Waits until every checkpoint saved so far is synced, the checkpoints saved from then on fail
+     * */
+    @Override
+    public void close() throws IOException {
+        final Record stop;
+
+        closeLock.writeLock().lock();
+
+        try {
+            if(closed)
+                return;
+
+            closed = true;
+            stop = enqueue(null, true, true);
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        stop.committed.join();
+        channel.close();
+    }
+
+    private void write(byte[] bytes){
+        final Record record;
+
+        closeLock.readLock().lock();
+
+        try {
+            if(closed) throw new IllegalStateException("The checkpoint store is closed");
+
+            record = enqueue(bytes, false, synchronous);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        if(!isNull(record.committed))
+            record.committed.join();
+    }
+
+    /**
+     * Queues a record and wakes the committer up when it is parked, or right away when someone waits for the record.
+     * The committer is marked idle before it checks the queue a last time, so a record is never left behind a parked committer
+     * */
+    private Record enqueue(byte[] bytes, boolean stop, boolean awaited){
+        final var record = new Record(bytes, stop, awaited);
+        queue.add(record);
+
+        if(awaited || idle)
+            LockSupport.unpark(committer);
+
+        return record;
+    }
+
+    private void commitLoop(){
+        final var batch = new ArrayList<Record>(MAX_BATCH_SIZE);
+
+        while(true){
+            for (Record record; batch.size() < MAX_BATCH_SIZE && !isNull(record = queue.poll()); )
+                batch.add(record);
+
+            if(batch.isEmpty()){
+                idle = true;
+
+                if(queue.isEmpty())
+                    LockSupport.park(this);
+
+                idle = false;
+                continue;
+            }
+
+            commit(batch);
+
+            if(batch.stream().anyMatch(record -> record.stop))
+                return;
+
+            batch.clear();
+            compactIfWasteful();
+        }
+    }
+
+    private void commit(ArrayList<Record> batch){
+        try {
+            var size = 0;
+
+            for (final Record record : batch)
+                size += isNull(record.bytes) ? 0 : record.bytes.length;
+
+            final var buffer = ByteBuffer.allocate(size);
+            batch.stream().filter(record -> !isNull(record.bytes)).forEach(record -> buffer.put(record.bytes));
+            buffer.flip();
+
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+
+            channel.force(false);
+            writtenBytes += size;
+            batch.forEach(record -> record.complete(null));
+        } catch (IOException e) {
+            log.error("Writing {} checkpoints failed", batch.size(), e);
+            batch.forEach(record -> record.complete(new UncheckedIOException(e)));
+        }
+    }
+
+    /**
+     * Streams the file, so it can be read whatever its size. A truncated or corrupted record ends it
+     * */
+    private void load() throws IOException {
+        if(!Files.exists(file))
+            return;
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while(true){
+                final var length = in.readInt();
+                final var checksum = in.readInt();
+
+                if(length <= 0)
+                    break;
+
+                final var payload = new byte[length];
+                in.readFully(payload);
+
+                if(checksum != checksumOf(payload))
+                    break;
+
+                replay(ByteBuffer.wrap(payload));
+            }
+        } catch (EOFException e) {
+            //The last record was not fully written
+        }
+    }
+
+    private void replay(ByteBuffer payload){
+        final var type = payload.get();
+        final var executionId = readString(payload);
+        final var stepPosition = payload.getInt();
+        final var value = new byte[payload.getInt()];
+        payload.get(value);
+
+        if(type == COMPLETED)
+            lastCheckpoints.remove(executionId);
+        else
+            lastCheckpoints.compute(executionId, (id, previous) -> new Saved(inputOf(previous, stepPosition, value), stepPosition, value));
+    }
+
+    /**
+     * Rewrites the file with the last checkpoints of the unfinished executions. At runtime the records queued meanwhile
+     * are appended after them, and replaying a record again only brings an execution back to where it already is
+     *
+     * @return the size of the compacted file
+     * */
+    private long compact() throws IOException {
+        final var compacted = file.resolveSibling(file.getFileName() + ".compacting");
+        var size = 0L;
+
+        try (var out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (final var checkpoint : lastCheckpoints.entrySet()) {
+                final var saved = checkpoint.getValue();
+
+                if(!isNull(saved.input) && saved.stepPosition > 0)
+                    size += write(out, encode(SAVED, checkpoint.getKey(), 0, saved.input));
+
+                size += write(out, encode(SAVED, checkpoint.getKey(), saved.stepPosition, saved.value));
+            }
+
+            out.force(true);
+        }
+
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * Compacts the file once it grew past the threshold and twice its size at the last check,
+     * when less than {@value #COMPACTION_LIVE_RATIO} of it is still live
+     * */
+    private void compactIfWasteful(){
+        if(writtenBytes < Math.max(compactionThreshold, 2 * checkedBytes))
+            return;
+
+        if(liveBytes() < writtenBytes * COMPACTION_LIVE_RATIO){
+            log.debug("Compacting {} bytes of checkpoints", writtenBytes);
+
+            try {
+                channel.close();
+                writtenBytes = compact();
+            } catch (IOException e) {
+                log.error("Compacting the checkpoints failed", e);
+            }
+
+            try {
+                channel = openChannel();
+            } catch (IOException e) {
+                log.error("Reopening the checkpoints failed, the next writes will fail", e);
+            }
+        }
+
+        checkedBytes = writtenBytes;
+    }
+
+    /**
+     * @return the size the file would have once compacted
+     * */
+    private long liveBytes(){
+        var size = 0L;
+
+        for (final var checkpoint : lastCheckpoints.entrySet()) {
+            final var saved = checkpoint.getValue();
+            final var idLength = checkpoint.getKey().getBytes(StandardCharsets.UTF_8).length;
+
+            if(!isNull(saved.input) && saved.stepPosition > 0)
+                size += encodedSize(idLength, saved.input.length);
+
+            size += encodedSize(idLength, saved.value.length);
+        }
+
+        return size;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static int write(FileChannel out, byte[] bytes) throws IOException {
+        final var buffer = ByteBuffer.wrap(bytes);
+
+        while(buffer.hasRemaining())
+            out.write(buffer);
+
+        return bytes.length;
+    }
+
+    /**
+     * @return the input of the pipeline of an execution, which is the value saved at position 0
+     * */
+    private static byte[] inputOf(Saved previous, int stepPosition, byte[] value){
+        if(stepPosition == 0)
+            return value;
+
+        return isNull(previous) ? null : previous.input;
+    }
+
+    private static int encodedSize(int idLength, int valueLength){
+        return HEADER_SIZE + 1 + Integer.BYTES + idLength + Integer.BYTES + Integer.BYTES + valueLength;
+    }
+
+    private static byte[] encode(byte type, String executionId, int stepPosition, byte[] value){
+        final var id = executionId.getBytes(StandardCharsets.UTF_8);
+        final var record = new byte[encodedSize(id.length, value.length)];
+        final var payloadLength = record.length - HEADER_SIZE;
+
+        final var buffer = ByteBuffer.wrap(record).position(HEADER_SIZE);
+        buffer.put(type).putInt(id.length).put(id).putInt(stepPosition).putInt(value.length).put(value);
+
+        final var checksum = new CRC32();
+        checksum.update(record, HEADER_SIZE, payloadLength);
+
+        buffer.putInt(0, payloadLength).putInt(Integer.BYTES, (int) checksum.getValue());
+        return record;
+    }
+
+    private static int checksumOf(byte[] payload){
+        final var checksum = new CRC32();
+        checksum.update(payload);
+
+        return (int) checksum.getValue();
+    }
+
+    private static String readString(ByteBuffer buffer){
+        final var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Saved {
+        private final byte[] input;
+        private final int stepPosition;
+        private final byte[] value;
+
+        private Saved(byte[] input, int stepPosition, byte[] value) {
+            this.input = input;
+            this.stepPosition = stepPosition;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A checkpoint to write, or a marker completed once everything queued before it is written.
+     * Only the records someone waits for get a future
+     * */
+    private static final class Record {
+        private final byte[] bytes;
+        private final boolean stop;
+        private final CompletableFuture<Void> committed;
+
+        private Record(byte[] bytes, boolean stop, boolean awaited) {
+            this.bytes = bytes;
+            this.stop = stop;
+            this.committed = awaited ? new CompletableFuture<>() : null;
+        }
+
+        private void complete(Exception failure){
+            if(isNull(committed))
+                return;
+
+            if(isNull(failure))
+                committed.complete(null);
+            else
+                committed.completeExceptionally(failure);
+        }
+    }
+}
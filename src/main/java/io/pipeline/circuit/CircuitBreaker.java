@@ -0,0 +1,209 @@
+package io.pipeline.circuit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * A circuit breaker over a count based sliding window of the last calls.
+ * It opens when the failure rate or the slow call rate of the window reaches its threshold,
+ * rejects every call while open, and after the open duration lets a few probe calls through (half-open)
+ * to decide whether to close again or to open for another period.
+ * */
+public class CircuitBreaker {
+    public static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int windowSize = 100;
+    private int minimumCalls = 20;
+    private double failureRateThreshold = 50;
+    private double slowCallRateThreshold = 100;
+    private long slowCallNanos = Duration.ofSeconds(60).toNanos();
+    private long openNanos = Duration.ofSeconds(30).toNanos();
+    private int halfOpenProbes = 5;
+    private LongSupplier nanoClock = System::nanoTime;
+
+    private volatile State state = State.CLOSED;
+    private boolean[] failedCalls = new boolean[windowSize];
+    private boolean[] slowCalls = new boolean[windowSize];
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private int windowSlowCalls;
+    private long openUntil;
+    private int permittedProbes;
+    private int completedProbes;
+
+    public CircuitBreaker setWindowSize(int windowSize) {
+        if(windowSize < 1) throw new AssertionError("<windowSize> must be greater than zero");
+
+        this.windowSize = windowSize;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+        resetWindow();
+        return this;
+    }
+
+    /**
+     * @param minimumCalls the calls the window needs before the rates are evaluated
+     * */
+    public CircuitBreaker setMinimumCalls(int minimumCalls) {
+        if(minimumCalls < 1) throw new AssertionError("<minimumCalls> must be greater than zero");
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * @param failureRateThreshold percentage of failed calls in the window that opens the circuit
+     * */
+    public CircuitBreaker setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param slowCallRateThreshold percentage of slow calls in the window that opens the circuit
+     * */
+    public CircuitBreaker setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    public CircuitBreaker setSlowCallDuration(Duration slowCallDuration) {
+        if(isNull(slowCallDuration)) throw new AssertionError("<slowCallDuration> cannot be null");
+        this.slowCallNanos = slowCallDuration.toNanos();
+        return this;
+    }
+
+    public CircuitBreaker setOpenDuration(Duration openDuration) {
+        if(isNull(openDuration)) throw new AssertionError("<openDuration> cannot be null");
+        this.openNanos = openDuration.toNanos();
+        return this;
+    }
+
+    public CircuitBreaker setHalfOpenProbes(int halfOpenProbes) {
+        if(halfOpenProbes < 1) throw new AssertionError("<halfOpenProbes> must be greater than zero");
+        this.halfOpenProbes = halfOpenProbes;
+        return this;
+    }
+
+    /**
+     * @param nanoClock the time source of the open duration, replaced by the tests to move the time forward
+     * */
+    CircuitBreaker setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        return this;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the call may go through, false if it must be rejected
+     * */
+    public boolean tryAcquire(){
+        if(state == State.CLOSED)
+            return true;
+
+        lock.lock();
+        try {
+            if(state == State.OPEN){
+                if(nanoClock.getAsLong() - openUntil < 0)
+                    return false;
+
+                transitionTo(State.HALF_OPEN);
+            }
+
+            if(state == State.HALF_OPEN){
+                if(permittedProbes >= halfOpenProbes)
+                    return false;
+
+                permittedProbes++;
+            }
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void record(boolean succeeded, long durationNanos){
+        final var slow = durationNanos >= slowCallNanos;
+
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN:
+                    completedProbes++;
+
+                    if(!succeeded || slow)
+                        transitionTo(State.OPEN);
+                    else if(completedProbes >= halfOpenProbes)
+                        transitionTo(State.CLOSED);
+                    break;
+                case CLOSED:
+                    addToWindow(!succeeded, slow);
+
+                    if(windowCount >= minimumCalls && (rate(windowFailures) >= failureRateThreshold || rate(windowSlowCalls) >= slowCallRateThreshold))
+                        transitionTo(State.OPEN);
+                    break;
+                default:
+                    //A call started before the circuit opened, its outcome doesn't matter anymore
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToWindow(boolean failed, boolean slow){
+        if(windowCount == windowSize){
+            if(failedCalls[windowIndex]) windowFailures--;
+            if(slowCalls[windowIndex]) windowSlowCalls--;
+        } else {
+            windowCount++;
+        }
+
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+
+        if(failed) windowFailures++;
+        if(slow) windowSlowCalls++;
+
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private double rate(int calls){
+        return calls * 100.0 / windowCount;
+    }
+
+    private void transitionTo(State newState){
+        log.warn("CircuitBreaker: {} -> {}", state, newState);
+
+        if(newState == State.OPEN)
+            openUntil = nanoClock.getAsLong() + openNanos;
+
+        permittedProbes = 0;
+        completedProbes = 0;
+        resetWindow();
+
+        state = newState;
+    }
+
+    private void resetWindow(){
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        windowSlowCalls = 0;
+    }
+}
@@ -0,0 +1,119 @@
+package io.pipeline.circuit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Protects a step with a {@link CircuitBreaker}. While the circuit is open the step fails straight away
+ * with a {@link CircuitOpenException}, without going through the retries, so it reaches the error handler
+ * immediately instead of holding the thread for the whole retry cycle.
+ * The breaker state is exported as the gauge {@value #CIRCUIT_STATE_METRIC} (0 closed, 1 open, 2 half-open)
+ * and the rejected calls as {@value #CIRCUIT_REJECTIONS_METRIC}.
+ * */
+public class CircuitBreakerStep<I, O> extends ForwardingStep<I, O> {
+    public static final String CIRCUIT_STATE_METRIC = "pipeline.step.circuit.state";
+    public static final String CIRCUIT_REJECTIONS_METRIC = "pipeline.step.circuit.rejections";
+
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerStep(Step<I, O> delegate, CircuitBreaker circuitBreaker) {
+        super(delegate);
+
+        if(isNull(circuitBreaker)) throw new AssertionError("<circuitBreaker> cannot be null");
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Override
+    public void bind(StepMonitor monitor) {
+        super.bind(monitor);
+
+        monitor.bindMeters(m -> Gauge.builder(CIRCUIT_STATE_METRIC, circuitBreaker, breaker -> breaker.getState().ordinal())
+                .tags(m.getTags()).register(m.getMeterRegistry()));
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        if(!circuitBreaker.tryAcquire())
+            return reject(pipeline, monitor, in);
+
+        final var start = System.nanoTime();
+        final var output = delegate.apply(pipeline, myPosition, monitor, in);
+        circuitBreaker.record(output.succeeded(), System.nanoTime() - start);
+
+        return output;
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        if(!circuitBreaker.tryAcquire())
+            return CompletableFuture.completedFuture(reject(pipeline, monitor, in));
+
+        final var start = System.nanoTime();
+
+        return delegate.applyAsync(pipeline, myPosition, monitor, in).thenApply(output -> {
+            circuitBreaker.record(output.succeeded(), System.nanoTime() - start);
+            return output;
+        });
+    }
+
+    /**
+     * Asks the breaker for a permit per element. The permitted elements go to the delegate as one batch
+     * and the outcome of each one is recorded, the others are rejected
+     * */
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        final var permitted = new ArrayList<I>(in.size());
+        final var outputs = new ArrayList<StepOutput<O>>(in.size());
+
+        for (final I element : in) {
+            if(circuitBreaker.tryAcquire()){
+                permitted.add(element);
+                outputs.add(null);
+            } else {
+                outputs.add(reject(pipeline, monitor, element));
+            }
+        }
+
+        if(permitted.isEmpty())
+            return outputs;
+
+        final var start = System.nanoTime();
+        final var permittedOutputs = delegate.applyBatch(pipeline, myPosition, monitor, permitted);
+        final var elapsed = System.nanoTime() - start;
+
+        var next = 0;
+        for (int i = 0; i < outputs.size(); i++) {
+            if(outputs.get(i) != null)
+                continue;
+
+            final var output = permittedOutputs.get(next++);
+            circuitBreaker.record(output.succeeded(), elapsed);
+            outputs.set(i, output);
+        }
+
+        return outputs;
+    }
+
+    private StepOutput<O> reject(Pipeline<?, ?> pipeline, StepMonitor monitor, I in){
+        log.debug("Circuit breaker is open, rejecting the call");
+
+        monitor.incrementFailureCount();
+        monitor.counter(CIRCUIT_REJECTIONS_METRIC).increment();
+
+        return StepOutput.failure(new CircuitOpenException(pipeline.getName(), monitor.getStepName(),
+                monitor.getPosition(), in), monitor, in);
+    }
+}
@@ -0,0 +1,17 @@
+package io.pipeline.circuit;
+
+import io.pipeline.error.StepException;
+
+/**
+ * Fails a step call without executing it, because the circuit breaker of the step is open
+ * */
+public class CircuitOpenException extends StepException {
+
+    /**
+     * @param stepPosition the position of the rejected step
+     * @param stepInput the input the rejected step was given, to resume the execution from it
+     * */
+    public CircuitOpenException(String pipelineName, String stepName, int stepPosition, Object stepInput) {
+        super(pipelineName, stepName, stepPosition, stepInput, "Circuit breaker of step <" + stepName + "> is open", null);
+    }
+}
@@ -0,0 +1,54 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.Step;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.isNull;
+
+/**
+ * The branches of a {@link Pipeline#parallel(Step[])} call, waiting for the step joining their results
+ * */
+public final class Fork<I, O> {
+    private final Pipeline<I, O> pipeline;
+    private final List<Step<O, ?>> branches;
+
+    private JoinPolicy joinPolicy = JoinPolicy.FAIL_FAST;
+    private Executor executor = VirtualThreads.sharedExecutor();
+
+    public Fork(Pipeline<I, O> pipeline, List<Step<O, ?>> branches) {
+        if(isNull(pipeline)) throw new AssertionError("<pipeline> cannot be null");
+
+        this.pipeline = pipeline;
+        this.branches = branches;
+    }
+
+    public Fork<I, O> setJoinPolicy(JoinPolicy joinPolicy) {
+        if(isNull(joinPolicy)) throw new AssertionError("<joinPolicy> cannot be null");
+
+        this.joinPolicy = joinPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the executor running the branches, while the thread executing the pipeline waits for their join
+     * */
+    public Fork<I, O> setExecutor(Executor executor) {
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Appends a {@link ParallelStep} running the branches, followed by <combiner>
+     * receiving their results in the order of the branches
+     * */
+    public <O2> Pipeline<I, O2> join(Step<List<Object>, O2> combiner) {
+        if(isNull(combiner)) throw new AssertionError("<combiner> cannot be null");
+
+        return pipeline.next(new ParallelStep<>(branches, joinPolicy, executor)).next(combiner);
+    }
+}
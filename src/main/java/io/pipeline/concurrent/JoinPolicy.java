@@ -0,0 +1,15 @@
+package io.pipeline.concurrent;
+
+/**
+ * How a {@link ParallelStep} joins its branches when some of them fail
+ * */
+public enum JoinPolicy {
+    /**
+     * The first failed branch fails the step, without waiting for the other branches
+     * */
+    FAIL_FAST,
+    /**
+     * Every branch is waited for, and a failed branch is joined as null
+     * */
+    COLLECT_ALL
+}
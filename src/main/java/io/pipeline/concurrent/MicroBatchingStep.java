@@ -0,0 +1,179 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.BatchStep;
+import io.pipeline.step.ForwardingStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Gathers the concurrent single element calls of a {@link BatchStep} into batches, so callers executing
+ * one element each still get one bulk call per batch. A batch is processed as soon as it holds max size elements,
+ * or max delay after its first element arrived, by the caller that filled it or by its first caller.
+ * The batch goes through {@link BatchStep#applyBatch}, so a failed batch is processed again one element at a time
+ * and every caller only gets the output of its own element, failed or not.
+ * The batch sizes are recorded by {@link StepMonitor#STEP_BATCH_SIZE_METRIC} and the time elements wait
+ * for their batch by {@value #BATCH_QUEUE_DELAY_METRIC}.
+ * */
+public class MicroBatchingStep<I, O> extends ForwardingStep<I, O> {
+    public static final String BATCH_QUEUE_DELAY_METRIC = "pipeline.step.batch.queue.delay";
+
+    private final BatchStep<I, O> batchStep;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private Batch<I, O> open;
+
+    public MicroBatchingStep(BatchStep<I, O> delegate, int maxSize, Duration maxDelay) {
+        super(delegate);
+
+        if(maxSize < 1) throw new AssertionError("<maxSize> must be greater than zero");
+        if(isNull(maxDelay) || maxDelay.isNegative()) throw new AssertionError("<maxDelay> cannot be null or negative");
+
+        this.batchStep = delegate;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    /**
+     * @param executor runs the batches of the async calls that are processed because their max delay expired
+     * */
+    public MicroBatchingStep<I, O> setExecutor(Executor executor) {
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+        this.executor = executor;
+        return this;
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        final var slot = enqueue(in);
+        final var batch = slot.batch;
+
+        if(slot.closesBatch)
+            flush(pipeline, myPosition, monitor, batch);
+        else if(slot.index == 0)
+            awaitOrFlush(pipeline, myPosition, monitor, batch);
+
+        return batch.outputs.join().get(slot.index);
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        final var slot = enqueue(in);
+        final var batch = slot.batch;
+
+        if(slot.closesBatch)
+            flush(pipeline, myPosition, monitor, batch);
+        else if(slot.index == 0)
+            CompletableFuture.delayedExecutor(maxDelayNanos, TimeUnit.NANOSECONDS, executor).execute(() -> {
+                if(close(batch))
+                    flush(pipeline, myPosition, monitor, batch);
+            });
+
+        return batch.outputs.thenApply(outputs -> outputs.get(slot.index));
+    }
+
+    private synchronized Slot<I, O> enqueue(I in){
+        if(isNull(open))
+            open = new Batch<>(maxSize);
+
+        final var batch = open;
+        final var index = batch.add(in, System.nanoTime());
+        final var full = index == maxSize - 1;
+
+        if(full)
+            open = null;
+
+        return new Slot<>(batch, index, full);
+    }
+
+    private synchronized boolean close(Batch<I, O> batch){
+        if(open != batch)
+            return false;
+
+        open = null;
+        return true;
+    }
+
+    private void awaitOrFlush(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, Batch<I, O> batch){
+        try {
+            batch.outputs.get(maxDelayNanos - (System.nanoTime() - batch.enqueuedNanos[0]), TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException | ExecutionException e) {
+            //Not filled in time
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if(close(batch))
+            flush(pipeline, myPosition, monitor, batch);
+    }
+
+    private void flush(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, Batch<I, O> batch){
+        final var inputs = batch.inputs;
+
+        if(monitor.getMetricsLevel().isTiming()){
+            final var queueDelay = monitor.timer(BATCH_QUEUE_DELAY_METRIC);
+            final var now = System.nanoTime();
+
+            for (int i = 0; i < inputs.size(); i++)
+                queueDelay.record(now - batch.enqueuedNanos[i], TimeUnit.NANOSECONDS);
+        }
+
+        log.debug("Flushing micro batch of {} elements", inputs.size());
+
+        try {
+            batch.outputs.complete(batchStep.applyBatch(pipeline, myPosition, monitor, inputs));
+        } catch (RuntimeException e) {
+            final var outputs = new ArrayList<StepOutput<O>>(inputs.size());
+            inputs.forEach(element -> outputs.add(StepOutput.failure(e, monitor, element)));
+
+            batch.outputs.complete(outputs);
+        }
+    }
+
+    private static final class Batch<I, O> {
+        private final List<I> inputs;
+        private final long[] enqueuedNanos;
+        private final CompletableFuture<List<StepOutput<O>>> outputs = new CompletableFuture<>();
+
+        private Batch(int maxSize) {
+            this.inputs = new ArrayList<>(maxSize);
+            this.enqueuedNanos = new long[maxSize];
+        }
+
+        private int add(I in, long nanos){
+            enqueuedNanos[inputs.size()] = nanos;
+            inputs.add(in);
+
+            return inputs.size() - 1;
+        }
+    }
+
+    /**
+     * The place of an element in its batch, and whether it is the element that filled the batch
+     * */
+    private static final class Slot<I, O> {
+        private final Batch<I, O> batch;
+        private final int index;
+        private final boolean closesBatch;
+
+        private Slot(Batch<I, O> batch, int index, boolean closesBatch) {
+            this.batch = batch;
+            this.index = index;
+            this.closesBatch = closesBatch;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.pipeline.concurrent;
+
+public enum OutputOrder {
+    /**
+     * Outputs come out in the same order of the inputs
+     * */
+    ORDERED,
+    /**
+     * Outputs come out as soon as they complete
+     * */
+    UNORDERED
+}
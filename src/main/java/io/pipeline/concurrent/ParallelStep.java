@@ -0,0 +1,238 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
+import io.pipeline.timeout.Deadline;
+import io.pipeline.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * Applies independent steps to the same input concurrently, and outputs their results in the order of the steps.
+ * Every branch is applied with the retry of the pipeline and its own {@link StepMonitor}, named after the branch step
+ * and its index. Every branch runs on the executor of the step, and with {@link JoinPolicy#FAIL_FAST}
+ * the first failed branch cancels the other ones, interrupting those already running.
+ *
+ * @see io.pipeline.Pipeline#parallel(Step[])
+ * */
+public final class ParallelStep<I> implements Step<I, List<Object>> {
+    public static final String BRANCH_TEMPLATE = "%s$branch(%d)";
+
+    private final List<Step<I, ?>> branches;
+    private final JoinPolicy joinPolicy;
+    private final Executor executor;
+    private final Map<StepMonitor, StepMonitor[]> branchMonitors = new ConcurrentHashMap<>();
+
+    public ParallelStep(List<? extends Step<I, ?>> branches, JoinPolicy joinPolicy, Executor executor) {
+        if(isNull(branches) || branches.isEmpty()) throw new AssertionError("<branches> cannot be null or empty");
+        if(branches.stream().anyMatch(branch -> isNull(branch))) throw new AssertionError("<branches> cannot contain null");
+        if(isNull(joinPolicy)) throw new AssertionError("<joinPolicy> cannot be null");
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+        this.branches = new ArrayList<>(branches);
+        this.joinPolicy = joinPolicy;
+        this.executor = executor;
+    }
+
+    @Override
+    public void bind(StepMonitor monitor) {
+        branchMonitorsOf(monitor);
+    }
+
+    @Override
+    public List<Object> applyOrThrow(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+        final var start = monitor.startClock();
+        final var span = monitor.startSpan();
+
+        final var output = join(fork(pipeline, myPosition, monitor, in), monitor, in).join();
+        monitor.stopClock(start);
+        monitor.endSpan(span, output.failed());
+
+        if(output.failed()){
+            monitor.incrementFailureCount();
+            throw new StepFailure(output);
+        }
+
+        return output.getResultObj();
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<List<Object>>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+        final var start = monitor.startClock();
+
+        return join(fork(pipeline, myPosition, monitor, in), monitor, in).thenApply(output -> {
+            monitor.stopClock(start);
+
+            if(output.failed())
+                monitor.incrementFailureCount();
+
+            return output;
+        });
+    }
+
+    /**
+     * Processes the branches concurrently, without retry nor branch metrics, as the steps wrapping this one
+     * expect from {@link Step#process}. With {@link JoinPolicy#FAIL_FAST} the first failure is thrown
+     * */
+    @Override
+    public List<Object> process(I in) {
+        final var tasks = new ArrayList<BranchTask>(branches.size());
+
+        for (final Step<I, ?> branch : branches)
+            tasks.add(new BranchTask(LogContext.wrap(Deadline.wrap(() -> {
+                try {
+                    return StepOutput.success(branch.process(in));
+                } catch (RuntimeException e) {
+                    return StepOutput.failure(e, branch.getStepName(0));
+                }
+            }))));
+
+        final var output = join(start(tasks), (index, e) -> StepOutput.failure(e, branches.get(index).getStepName(0))).join();
+
+        if(!output.failed())
+            return output.getResultObj();
+
+        if(output.getLastException() instanceof RuntimeException)
+            throw (RuntimeException) output.getLastException();
+
+        throw new CompletionException(output.getLastException());
+    }
+
+    public List<Step<I, ?>> getBranches() {
+        return branches;
+    }
+
+    public JoinPolicy getJoinPolicy() {
+        return joinPolicy;
+    }
+
+    private List<BranchTask> fork(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in){
+        final var monitors = branchMonitorsOf(monitor);
+        final var tasks = new ArrayList<BranchTask>(branches.size());
+
+        for (int i = 0; i < branches.size(); i++) {
+            final var branch = branches.get(i);
+            final var branchMonitor = monitors[i];
+
+            tasks.add(new BranchTask(LogContext.wrap(Deadline.wrap(() -> branch.apply(pipeline, myPosition, branchMonitor, in)))));
+        }
+
+        return start(tasks);
+    }
+
+    private List<BranchTask> start(List<BranchTask> tasks){
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                executor.execute(tasks.get(i));
+            } catch (RuntimeException e) {
+                tasks.get(i).output.completeExceptionally(e);
+                cancel(tasks);
+                break;
+            }
+        }
+
+        return tasks;
+    }
+
+    private CompletableFuture<StepOutput<List<Object>>> join(List<BranchTask> tasks, StepMonitor monitor, I in){
+        final var monitors = branchMonitorsOf(monitor);
+        return join(tasks, (index, e) -> StepOutput.failure(e, monitors[index], in));
+    }
+
+    /**
+     * @param failureOf the output of the branch at the given index that completed with the given exception
+     * */
+    private CompletableFuture<StepOutput<List<Object>>> join(List<BranchTask> tasks, BiFunction<Integer, Exception, StepOutput<?>> failureOf){
+        final var joined = new CompletableFuture<StepOutput<List<Object>>>();
+        final var results = new Object[tasks.size()];
+        final var remaining = new AtomicInteger(tasks.size());
+
+        for (int i = 0; i < tasks.size(); i++) {
+            final var index = i;
+
+            tasks.get(i).output.whenComplete((output, t) -> {
+                if(!isNull(t)){
+                    if(joined.complete(failureOf.apply(index, Utils.unwrap(t)).propagate()))
+                        cancel(tasks);
+                    return;
+                }
+
+                if(output.failed() && joinPolicy == JoinPolicy.FAIL_FAST){
+                    if(joined.complete(output.propagate()))
+                        cancel(tasks);
+                    return;
+                }
+
+                results[index] = output.getResultObj();
+
+                if(remaining.decrementAndGet() == 0)
+                    joined.complete(StepOutput.success(Arrays.asList(results)));
+            });
+        }
+
+        return joined;
+    }
+
+    private static void cancel(List<? extends Future<?>> tasks){
+        tasks.forEach(task -> task.cancel(true));
+    }
+
+    private StepMonitor[] branchMonitorsOf(StepMonitor monitor){
+        return branchMonitors.computeIfAbsent(monitor, parent -> {
+            final var monitors = new StepMonitor[branches.size()];
+            final var position = parent.getPosition();
+
+            for (int i = 0; i < monitors.length; i++) {
+                final var branchName = format(BRANCH_TEMPLATE, branches.get(i).getStepName(position), i + 1);
+                monitors[i] = new StepMonitor(parent.getPipelineMonitor(), branchName, position);
+                branches.get(i).bind(monitors[i]);
+            }
+
+            return monitors;
+        });
+    }
+
+    /**
+     * A branch run by the executor, which can be interrupted once the join doesn't need it anymore
+     * */
+    private static final class BranchTask extends FutureTask<StepOutput<?>> {
+        private final CompletableFuture<StepOutput<?>> output = new CompletableFuture<>();
+
+        private BranchTask(Supplier<? extends StepOutput<?>> branch) {
+            super(branch::get);
+        }
+
+        @Override
+        protected void done() {
+            try {
+                output.complete(get());
+            } catch (ExecutionException e) {
+                output.completeExceptionally(e.getCause());
+            } catch (CancellationException | InterruptedException e) {
+                output.completeExceptionally(e);
+            }
+        }
+    }
+}
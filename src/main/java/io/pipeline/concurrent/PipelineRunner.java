@@ -0,0 +1,64 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Runs every execution of a pipeline on an {@link ExecutorService}, so many executions
+ * can wait on I/O at the same time without blocking the callers.
+ * With {@link #virtualThreads(Pipeline)} each execution gets its own virtual thread on Java 21+,
+ * so the concurrency is not capped by the size of a pool.
+ * */
+public class PipelineRunner<I, O> implements AutoCloseable {
+    private final Pipeline<I, O> pipeline;
+    private final ExecutorService executor;
+
+    public PipelineRunner(Pipeline<I, O> pipeline, ExecutorService executor) {
+        if(isNull(pipeline)) throw new AssertionError("<pipeline> cannot be null");
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+        this.pipeline = pipeline;
+        this.executor = executor;
+    }
+
+    public static <I, O> PipelineRunner<I, O> virtualThreads(Pipeline<I, O> pipeline){
+        if(!VirtualThreads.isSupported())
+            Pipeline.log.warn("Virtual threads require Java 21+, pipeline <{}> will run on platform threads", pipeline.getName());
+
+        return new PipelineRunner<>(pipeline, VirtualThreads.newExecutor());
+    }
+
+    public static <I, O> PipelineRunner<I, O> fixedPool(Pipeline<I, O> pipeline, int threads){
+        return new PipelineRunner<>(pipeline, Executors.newFixedThreadPool(threads));
+    }
+
+    /**
+     * @return a future completed as {@link Pipeline#execute(Object)} would return,
+     * or completed exceptionally with what it would throw
+     * */
+    public CompletableFuture<O> submit(I input){
+        return CompletableFuture.supplyAsync(LogContext.wrap(() -> pipeline.execute(input)), executor);
+    }
+
+    public Pipeline<I, O> getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Stops accepting executions and waits for the submitted ones to finish
+     * */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+
+        while(!executor.awaitTermination(1, TimeUnit.SECONDS))
+            Pipeline.log.debug("Waiting for the executions of pipeline <{}> to finish", pipeline.getName());
+    }
+}
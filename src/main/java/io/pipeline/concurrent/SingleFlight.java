@@ -0,0 +1,119 @@
+package io.pipeline.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Coalesces concurrent calls for the same key: while a call is in flight, the following calls
+ * for its key don't run again, they wait for the same result, or the same failure.
+ * A call with a null key is never coalesced, it always runs.
+ * */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param onCoalesced notified when this call joins a call already in flight instead of running
+     * @return the result of the call in flight for <key>, or of <call> when there is none
+     * */
+    public V run(K key, Supplier<V> call, Runnable onCoalesced){
+        if(isNull(key))
+            return call.get();
+
+        final var mine = new CompletableFuture<V>();
+        final var existing = inFlight.putIfAbsent(key, mine);
+
+        if(existing != null){
+            onCoalesced.run();
+            return join(existing);
+        }
+
+        try {
+            final var result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Same as {@link #run(Object, Supplier, Runnable)} for a non-blocking call
+     * */
+    public CompletableFuture<V> runAsync(K key, Supplier<CompletableFuture<V>> call, Runnable onCoalesced){
+        if(isNull(key))
+            return call.get();
+
+        final var mine = new CompletableFuture<V>();
+        final var existing = inFlight.putIfAbsent(key, mine);
+
+        if(existing != null){
+            onCoalesced.run();
+            return existing;
+        }
+
+        CompletableFuture<V> result;
+
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((value, t) -> {
+            inFlight.remove(key, mine);
+
+            if(t == null)
+                mine.complete(value);
+            else
+                mine.completeExceptionally(t);
+        });
+
+        return mine;
+    }
+
+    /**
+     * Lower level form of {@link #run(Object, Supplier, Runnable)}, for a caller running the calls of many keys at once.
+     * When it returns null the caller leads the call of <key> and must end it with {@link #complete} or {@link #fail}
+     *
+     * @return the future of the call in flight for <key>, or null when <mine> is now the call in flight
+     * */
+    public CompletableFuture<V> lead(K key, CompletableFuture<V> mine){
+        return isNull(key) ? null : inFlight.putIfAbsent(key, mine);
+    }
+
+    public void complete(K key, CompletableFuture<V> mine, V value){
+        if(!isNull(key))
+            inFlight.remove(key, mine);
+
+        mine.complete(value);
+    }
+
+    public void fail(K key, CompletableFuture<V> mine, Throwable t){
+        if(!isNull(key))
+            inFlight.remove(key, mine);
+
+        mine.completeExceptionally(t);
+    }
+
+    public int inFlightCount(){
+        return inFlight.size();
+    }
+
+    static <V> V join(CompletableFuture<V> future){
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Coalesces concurrent calls of a step with the same key into a single call, whose output, success or failure,
+ * is shared by every caller. The calls saved are counted as {@value #COALESCED_CALLS_METRIC}.
+ *
+ * @see SingleFlight
+ * */
+public class SingleFlightStep<I, O> extends ForwardingStep<I, O> {
+    public static final String COALESCED_CALLS_METRIC = "pipeline.step.coalesced.calls";
+
+    private final Function<? super I, ?> keyFunction;
+    private final SingleFlight<Object, StepOutput<O>> singleFlight = new SingleFlight<>();
+
+    public SingleFlightStep(Step<I, O> delegate, Function<? super I, ?> keyFunction) {
+        super(delegate);
+
+        if(isNull(keyFunction)) throw new AssertionError("<keyFunction> cannot be null");
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return singleFlight.run(keyFunction.apply(in),
+                () -> delegate.apply(pipeline, myPosition, monitor, in),
+                () -> monitor.counter(COALESCED_CALLS_METRIC).increment());
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return singleFlight.runAsync(keyFunction.apply(in),
+                () -> delegate.applyAsync(pipeline, myPosition, monitor, in),
+                () -> monitor.counter(COALESCED_CALLS_METRIC).increment());
+    }
+
+    /**
+     * The elements whose key is not in flight go to the delegate as one batch, the others,
+     * including the repeated keys of the batch, share the output of the call in flight
+     * */
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        final var futures = new ArrayList<CompletableFuture<StepOutput<O>>>(in.size());
+        final var ledKeys = new ArrayList<Object>();
+        final var ledFutures = new ArrayList<CompletableFuture<StepOutput<O>>>();
+        final var ledInputs = new ArrayList<I>();
+
+        for (final I element : in) {
+            final var key = keyFunction.apply(element);
+            final var mine = new CompletableFuture<StepOutput<O>>();
+            final var existing = singleFlight.lead(key, mine);
+
+            if(!isNull(existing)){
+                monitor.counter(COALESCED_CALLS_METRIC).increment();
+                futures.add(existing);
+                continue;
+            }
+
+            futures.add(mine);
+            ledKeys.add(key);
+            ledFutures.add(mine);
+            ledInputs.add(element);
+        }
+
+        if(!ledInputs.isEmpty())
+            applyLed(pipeline, myPosition, monitor, ledKeys, ledFutures, ledInputs);
+
+        final var outputs = new ArrayList<StepOutput<O>>(futures.size());
+        futures.forEach(future -> outputs.add(SingleFlight.join(future)));
+
+        return outputs;
+    }
+
+    private void applyLed(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor,
+                          List<Object> keys, List<CompletableFuture<StepOutput<O>>> futures, List<I> inputs){
+        try {
+            final var outputs = delegate.applyBatch(pipeline, myPosition, monitor, inputs);
+
+            for (int i = 0; i < outputs.size(); i++)
+                singleFlight.complete(keys.get(i), futures.get(i), outputs.get(i));
+        } catch (RuntimeException | Error e) {
+            for (int i = 0; i < futures.size(); i++)
+                singleFlight.fail(keys.get(i), futures.get(i), e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.pipeline.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, shipped as a multi-release class:
+ * on Java 21+ the version under META-INF/versions/21 replaces this one.
+ * Below Java 21, the executors fall back to a cached pool of platform threads.
+ * */
+public final class VirtualThreads {
+    private VirtualThreads(){}
+
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(daemonFactory());
+
+    public static boolean isSupported(){
+        return false;
+    }
+
+    /**
+     * @return a new executor starting one thread per task
+     * */
+    public static ExecutorService newExecutor(){
+        return Executors.newCachedThreadPool(daemonFactory());
+    }
+
+    /**
+     * @return an executor shared by the whole application, starting one thread per task,
+     * e.g. to bind I/O bound steps with {@link io.pipeline.Pipeline#next(io.pipeline.step.Step, java.util.concurrent.Executor)}
+     * */
+    public static ExecutorService sharedExecutor(){
+        return SHARED;
+    }
+
+    private static ThreadFactory daemonFactory(){
+        return runnable -> {
+            final var thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.logging.LogContext;
+import io.pipeline.step.Step;
+import io.pipeline.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Executes the inputs of an iterator on an {@link Executor}, keeping at most <parallelism>
+ * executions in flight. A new input is only pulled from the source when an output is consumed,
+ * so a slow consumer slows down the source instead of piling results up in memory.
+ * */
+public class WindowedExecution<I, O> implements Iterator<Step.StepOutput<O>> {
+    private final Iterator<I> source;
+    private final Function<I, Step.StepOutput<O>> execution;
+    private final Executor executor;
+    private final int parallelism;
+    private final OutputOrder order;
+
+    private final ArrayDeque<CompletableFuture<Step.StepOutput<O>>> inFlight = new ArrayDeque<>();
+    private final BlockingQueue<Step.StepOutput<O>> completed = new LinkedBlockingQueue<>();
+    private int inFlightCount;
+
+    public WindowedExecution(Iterator<I> source, Function<I, Step.StepOutput<O>> execution, Executor executor,
+                             int parallelism, OutputOrder order) {
+        if(parallelism < 1) throw new AssertionError("<parallelism> must be greater than zero");
+
+        this.source = source;
+        this.execution = execution;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.order = order;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fillWindow();
+        return inFlightCount > 0;
+    }
+
+    @Override
+    public Step.StepOutput<O> next() {
+        if(!hasNext()) throw new NoSuchElementException();
+
+        inFlightCount--;
+
+        if(order == OutputOrder.ORDERED)
+            return inFlight.poll().join();
+
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an output", e);
+        }
+    }
+
+    private void fillWindow(){
+        while(inFlightCount < parallelism && source.hasNext()){
+            final var input = source.next();
+            final var future = CompletableFuture.supplyAsync(LogContext.wrap(() -> execution.apply(input)), executor)
+                    .handle((output, t) -> t == null ? output : Step.StepOutput.<O>failure(Utils.unwrap(t), null));
+
+            if(order == OutputOrder.ORDERED)
+                inFlight.add(future);
+            else
+                future.thenAccept(completed::add);
+
+            inFlightCount++;
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package io.pipeline.error;
 
-import io.pipeline.logging.LoggingUtils;
+import io.pipeline.logging.LogContext;
 import io.pipeline.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
 import java.util.function.BiConsumer;
 
@@ -13,7 +12,7 @@ public interface ErrorHandler<T> extends BiConsumer<T, StepException> {
     String ON_ERROR_NAME = "onError";
 
     default void apply(T t, StepException e){
-        MDC.put(LoggingUtils.MDC_STEP_NAME, getErrorHandlerName());
+        LogContext.step(getErrorHandlerName());
         accept(t, e);
     }
 
@@ -3,17 +3,31 @@ package io.pipeline.error;
 public class StepException extends RuntimeException {
     private final String pipelineName;
     private final String stepName;
+    private final int stepPosition;
+    private final transient Object stepInput;
 
     public StepException(String pipelineName, String stepName, String msg){
         super(msg);
         this.pipelineName = pipelineName;
         this.stepName = stepName;
+        this.stepPosition = 0;
+        this.stepInput = null;
     }
 
     public StepException(String pipelineName, String stepName, String msg, Throwable t){
+        this(pipelineName, stepName, 0, null, msg, t);
+    }
+
+    /**
+     * @param stepPosition the position of the failed step, 0 when it is not known
+     * @param stepInput the input the failed step was given, to resume the execution from it
+     * */
+    public StepException(String pipelineName, String stepName, int stepPosition, Object stepInput, String msg, Throwable t){
         super(msg, t);
         this.pipelineName = pipelineName;
         this.stepName = stepName;
+        this.stepPosition = stepPosition;
+        this.stepInput = stepInput;
     }
 
     public String getPipelineName() {
@@ -23,4 +37,18 @@ public class StepException extends RuntimeException {
     public String getStepName() {
         return stepName;
     }
+
+    /**
+     * @return the position of the failed step, or 0 when it is not known
+     * */
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    /**
+     * @return the input the failed step was given, or null when it is not known
+     * */
+    public Object getStepInput() {
+        return stepInput;
+    }
 }
@@ -0,0 +1,89 @@
+package io.pipeline.journal;
+
+/**
+ * A failed execution recorded by a {@link DeadLetterJournal}
+ * */
+public final class DeadLetter<I> {
+    private final long timestampMillis;
+    private final String pipelineName;
+    private final String stepName;
+    private final int stepPosition;
+    private final I input;
+    private final boolean hasInput;
+    private final boolean hasStepInput;
+    private final Object stepInput;
+    private final String causeClass;
+    private final String causeMessage;
+
+    DeadLetter(long timestampMillis, String pipelineName, String stepName, int stepPosition, I input, boolean hasInput,
+               boolean hasStepInput, Object stepInput, String causeClass, String causeMessage) {
+        this.timestampMillis = timestampMillis;
+        this.pipelineName = pipelineName;
+        this.stepName = stepName;
+        this.stepPosition = stepPosition;
+        this.input = input;
+        this.hasInput = hasInput;
+        this.hasStepInput = hasStepInput;
+        this.stepInput = stepInput;
+        this.causeClass = causeClass;
+        this.causeMessage = causeMessage;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    /**
+     * @return the position of the failed step, or 0 when it is not known
+     * */
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    /**
+     * @return the input of the pipeline, when {@link #hasInput()}
+     * */
+    public I getInput() {
+        return input;
+    }
+
+    /**
+     * @return whether the input of the pipeline was recorded, it isn't when it couldn't be serialized
+     * */
+    public boolean hasInput() {
+        return hasInput;
+    }
+
+    /**
+     * @return the input of the failed step, when {@link #isResumable()}
+     * */
+    public Object getStepInput() {
+        return stepInput;
+    }
+
+    /**
+     * @return whether the execution can resume from the failed step, otherwise it has to start over from the input of the pipeline
+     * */
+    public boolean isResumable() {
+        return stepPosition > 0 && hasStepInput;
+    }
+
+    /**
+     * @return the class name of the exception that failed the step, the cause of the {@link io.pipeline.error.StepException}
+     * */
+    public String getCauseClass() {
+        return causeClass;
+    }
+
+    public String getCauseMessage() {
+        return causeMessage;
+    }
+}
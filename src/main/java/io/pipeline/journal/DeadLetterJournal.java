@@ -0,0 +1,466 @@
+package io.pipeline.journal;
+
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.error.ErrorHandler;
+import io.pipeline.error.StepException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * An append-only journal of failed executions, to use as the error handler of a pipeline.
+ * Every failure is recorded with the input of the pipeline, the failed step and the input it was given,
+ * and its cause, so {@link io.pipeline.Pipeline#replay(DeadLetterJournal)} can resume the execution from the failed step.
+ * <p>
+ * The journal is a directory of segments of a fixed size, mapped in memory: recording a failure serializes it
+ * and copies it to the page cache, it doesn't wait for the disk, which gets the entries when the system writes
+ * the pages back, or on {@link #flush()} and {@link #close()}. The next segment is created and mapped in the background
+ * while the current one fills, so the failure that fills a segment doesn't wait for the file system either.
+ * The inputs are serialized by a {@link JournalSerializer}, when the input of the failed step can't be serialized
+ * the entry is recorded without it, and it is replayed from the first step. When the input of the pipeline can't be
+ * serialized the entry is recorded without it too, and it can only be replayed from the failed step.
+ * A failure to record an entry never replaces the failure of the execution, it is logged and added to it as suppressed.
+ * A journal records the failures of a single pipeline.
+ * */
+public final class DeadLetterJournal<I> implements ErrorHandler<I>, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final String HEAD_FILE = "head";
+
+    private final Path directory;
+    private final JournalSerializer serializer;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private CompletableFuture<Segment> next;
+    private long unforcedSegment;
+    private long headSegment;
+    private int headPosition;
+
+    private DeadLetterJournal(Path directory, JournalSerializer serializer, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.serializer = serializer;
+        this.segmentSize = segmentSize;
+
+        load();
+        unforcedSegment = last().getIndex();
+
+        //The next segment created by the previous run is reused instead of leaving it empty behind the new one
+        if(segments.size() > 1 && last().getWritePosition() == 0 && last().getIndex() > headSegment)
+            next = CompletableFuture.completedFuture(segments.remove(segments.size() - 1));
+        else
+            prepareNext();
+    }
+
+    public static <I> DeadLetterJournal<I> open(Path directory) throws IOException {
+        return open(directory, JournalSerializer.JAVA, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal stored in <directory>, creating it when it doesn't exist
+     *
+     * @param segmentSize the size of every file of the journal, an entry must fit in a segment
+     * */
+    public static <I> DeadLetterJournal<I> open(Path directory, JournalSerializer serializer, int segmentSize) throws IOException {
+        if(isNull(directory)) throw new AssertionError("<directory> cannot be null");
+        if(isNull(serializer)) throw new AssertionError("<serializer> cannot be null");
+        if(segmentSize <= Segment.HEADER_SIZE) throw new AssertionError("<segmentSize> is too small");
+
+        return new DeadLetterJournal<>(directory, serializer, segmentSize);
+    }
+
+    @Override
+    public void accept(I input, StepException e) {
+        try {
+            append(input, e);
+        } catch (RuntimeException failure) {
+            log.error("The failure of step {} can't be recorded in the journal", e.getStepName(), failure);
+            e.addSuppressed(failure);
+        }
+    }
+
+    /**
+     * Records the failure of the execution of <input>
+     *
+     * @throws UncheckedIOException when the entry can't be written
+     * @throws IllegalArgumentException when the entry doesn't fit in a segment
+     * */
+    public void append(I input, StepException e){
+        final var payload = encode(input, e);
+
+        lock.lock();
+
+        try {
+            if(last().append(payload))
+                return;
+
+            roll();
+
+            if(!last().append(payload))
+                throw new IllegalArgumentException(format("An entry of %d bytes doesn't fit in segments of %d bytes", payload.length, segmentSize));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the entries recorded so far and not yet replayed, new entries can be appended while they are read
+     * */
+    public Cursor read(){
+        lock.lock();
+
+        try {
+            final var ranges = new ArrayList<Range>();
+
+            for (final Segment segment : segments) {
+                if(segment.getIndex() < headSegment)
+                    continue;
+
+                final var start = segment.getIndex() == headSegment ? headPosition : 0;
+                ranges.add(new Range(segment, start, segment.getWritePosition()));
+                segment.retain();
+            }
+
+            final var last = last();
+            return new Cursor(ranges, last.getIndex(), last.getWritePosition());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the entries recorded so far to the disk
+     * */
+    public void flush(){
+        lock.lock();
+
+        try {
+            for (final Segment segment : segments)
+                if(segment.getIndex() >= unforcedSegment)
+                    segment.force();
+
+            unforcedSegment = last().getIndex();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the entries recorded so far to the disk, once the next segment is created
+     * */
+    @Override
+    public void close() {
+        try {
+            next.join();
+        } catch (CompletionException e) {
+            //Created again on the next roll
+        }
+
+        flush();
+    }
+
+    private void moveHead(long segmentIndex, int position){
+        lock.lock();
+
+        try {
+            if(segmentIndex < headSegment || (segmentIndex == headSegment && position <= headPosition))
+                return;
+
+            headSegment = segmentIndex;
+            headPosition = position;
+
+            final var head = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(segmentIndex).putInt(position).array();
+            final var temporary = directory.resolve(HEAD_FILE + ".tmp");
+
+            Files.write(temporary, head);
+            Files.move(temporary, directory.resolve(HEAD_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            while(segments.size() > 1 && segments.get(0).getIndex() < headSegment)
+                segments.remove(0).retire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(List<Range> ranges){
+        lock.lock();
+
+        try {
+            for (final Range range : ranges)
+                range.segment.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+
+        final var indexes = new ArrayList<Long>();
+
+        try (var files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(Segment.SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - Segment.SUFFIX.length())))
+                    .sorted()
+                    .forEach(indexes::add);
+        }
+
+        for (final Long index : indexes)
+            segments.add(Segment.open(directory, index, segmentSize));
+
+        if(segments.isEmpty())
+            segments.add(Segment.open(directory, 0, segmentSize));
+
+        final var headFile = directory.resolve(HEAD_FILE);
+
+        if(Files.exists(headFile)){
+            final var head = ByteBuffer.wrap(Files.readAllBytes(headFile));
+            headSegment = head.getLong();
+            headPosition = head.getInt();
+        }
+
+        if(headSegment < segments.get(0).getIndex()){
+            headSegment = segments.get(0).getIndex();
+            headPosition = 0;
+        }
+    }
+
+    private Segment last(){
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Moves to the next segment, which is usually already created. The full segment is written
+     * to the disk by {@link #flush()}, or when the system writes the pages back
+     * */
+    private void roll(){
+        Segment segment;
+
+        try {
+            segment = next.join();
+        } catch (CompletionException e) {
+            segment = openSegment(last().getIndex() + 1);
+        }
+
+        segments.add(segment);
+        prepareNext();
+    }
+
+    private void prepareNext(){
+        final var index = last().getIndex() + 1;
+        next = CompletableFuture.supplyAsync(() -> openSegment(index), VirtualThreads.sharedExecutor());
+    }
+
+    private Segment openSegment(long index){
+        try {
+            return Segment.open(directory, index, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] encode(I input, StepException e){
+        final var bytes = new ByteArrayOutputStream();
+        final var cause = isNull(e.getCause()) ? e : e.getCause();
+
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeLong(System.currentTimeMillis());
+            writeString(out, e.getPipelineName());
+            writeString(out, e.getStepName());
+            out.writeInt(e.getStepPosition());
+            writeBytes(out, serializeInput(input, e));
+            writeBytes(out, serializeStepInput(e));
+            writeString(out, cause.getClass().getName());
+            writeString(out, cause.getMessage());
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private byte[] serializeInput(I input, StepException e){
+        try {
+            return serializer.serialize(input);
+        } catch (IOException | RuntimeException exception) {
+            log.warn("The input of pipeline {} can't be serialized, the entry can only be replayed from the failed step", e.getPipelineName(), exception);
+            return null;
+        }
+    }
+
+    private byte[] serializeStepInput(StepException e){
+        if(e.getStepPosition() <= 0)
+            return null;
+
+        try {
+            return serializer.serialize(e.getStepInput());
+        } catch (IOException | RuntimeException exception) {
+            log.warn("The input of step {} can't be serialized, the entry will be replayed from the first step", e.getStepName(), exception);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private DeadLetter<I> decode(byte[] payload){
+        try (var in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            final var timestamp = in.readLong();
+            final var pipelineName = readString(in);
+            final var stepName = readString(in);
+            final var stepPosition = in.readInt();
+            final var input = readBytes(in);
+            final var stepInput = readBytes(in);
+
+            return new DeadLetter<>(timestamp, pipelineName, stepName, stepPosition, isNull(input) ? null : (I) serializer.deserialize(input), !isNull(input),
+                    !isNull(stepInput), isNull(stepInput) ? null : serializer.deserialize(stepInput), readString(in), readString(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if(isNull(bytes)){
+            out.writeInt(-1);
+            return;
+        }
+
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final var length = in.readInt();
+
+        if(length < 0)
+            return null;
+
+        final var bytes = new byte[length];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, isNull(value) ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final var bytes = readBytes(in);
+        return isNull(bytes) ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Range {
+        private final Segment segment;
+        private final int start;
+        private final int end;
+
+        private Range(Segment segment, int start, int end) {
+            this.segment = segment;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * The entries of the journal at the time it was read. Their segments stay mapped until the cursor
+     * is committed or closed, even when another cursor moves the journal past them
+     * */
+    public final class Cursor implements AutoCloseable {
+        private final List<Range> ranges;
+        private final long endSegment;
+        private final int endPosition;
+        private boolean closed;
+
+        private Cursor(List<Range> ranges, long endSegment, int endPosition) {
+            this.ranges = ranges;
+            this.endSegment = endSegment;
+            this.endPosition = endPosition;
+        }
+
+        /**
+         * @return the entries, decoded as they are consumed
+         * */
+        public Stream<DeadLetter<I>> entries(){
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new EntryIterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        }
+
+        /**
+         * Moves the journal past these entries, so they are not read again and their segments can be deleted
+         * */
+        public void commit(){
+            moveHead(endSegment, endPosition);
+            close();
+        }
+
+        /**
+         * Releases the segments of these entries without moving the journal past them, they can't be read anymore
+         * */
+        @Override
+        public void close() {
+            lock.lock();
+
+            try {
+                if(closed)
+                    return;
+
+                closed = true;
+                release(ranges);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private final class EntryIterator implements Iterator<DeadLetter<I>> {
+            private int range;
+            private int position = ranges.isEmpty() ? 0 : ranges.get(0).start;
+
+            @Override
+            public boolean hasNext() {
+                while(range < ranges.size() && position >= ranges.get(range).end){
+                    range++;
+                    position = range < ranges.size() ? ranges.get(range).start : 0;
+                }
+
+                return range < ranges.size();
+            }
+
+            @Override
+            public DeadLetter<I> next() {
+                if(!hasNext()) throw new NoSuchElementException();
+
+                final var segment = ranges.get(range).segment;
+                final var payload = segment.read(position);
+                position = segment.next(position);
+
+                return decode(payload);
+            }
+        }
+    }
+}
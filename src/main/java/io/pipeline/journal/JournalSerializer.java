@@ -0,0 +1,15 @@
+package io.pipeline.journal;
+
+import java.io.IOException;
+
+/**
+ * Turns the inputs recorded by a {@link DeadLetterJournal} into bytes and back.
+ * {@link #JAVA} relies on {@link java.io.Serializable}, applications with their own wire format should plug it here.
+ * */
+public interface JournalSerializer {
+    JournalSerializer JAVA = new JavaSerializer();
+
+    byte[] serialize(Object value) throws IOException;
+
+    Object deserialize(byte[] bytes) throws IOException;
+}
@@ -0,0 +1,147 @@
+package io.pipeline.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+
+/**
+ * A file of a {@link DeadLetterJournal}, mapped in memory with a fixed size.
+ * Every entry is written as its length, the CRC32 of its payload and the payload, the length last,
+ * so the first entry with a zero length or a wrong checksum marks the end of the written entries.
+ * A segment the journal moved past is retired, and it is unmapped and deleted once no cursor reads it anymore,
+ * the journal guarding the reader count.
+ * */
+final class Segment {
+    static final String SUFFIX = ".journal";
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final long index;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int readers;
+    private boolean retired;
+
+    private Segment(long index, Path file, MappedByteBuffer buffer) {
+        this.index = index;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static Segment open(Path directory, long index, int size) throws IOException {
+        final var file = directory.resolve(fileName(index));
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final var segment = new Segment(index, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size())));
+            segment.writePosition = segment.scanEnd();
+
+            return segment;
+        }
+    }
+
+    static String fileName(long index){
+        return format("%020d%s", index, SUFFIX);
+    }
+
+    /**
+     * @return false when <payload> doesn't fit in what is left of the segment
+     * */
+    boolean append(byte[] payload){
+        if(writePosition + HEADER_SIZE + payload.length > buffer.capacity())
+            return false;
+
+        final var checksum = new CRC32();
+        checksum.update(payload);
+
+        buffer.duplicate().position(writePosition + HEADER_SIZE).put(payload);
+        buffer.putInt(writePosition + Integer.BYTES, (int) checksum.getValue());
+        buffer.putInt(writePosition, payload.length);
+
+        writePosition += HEADER_SIZE + payload.length;
+        return true;
+    }
+
+    /**
+     * @return the payload of the entry at <position>, which must be a position returned by {@link #next(int)}
+     * */
+    byte[] read(int position){
+        final var payload = new byte[buffer.getInt(position)];
+        buffer.duplicate().position(position + HEADER_SIZE).get(payload);
+
+        return payload;
+    }
+
+    /**
+     * @return the position of the entry following the one at <position>
+     * */
+    int next(int position){
+        return position + HEADER_SIZE + buffer.getInt(position);
+    }
+
+    long getIndex() {
+        return index;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    void force(){
+        buffer.force();
+    }
+
+    void retain(){
+        readers++;
+    }
+
+    void release() throws IOException {
+        if(--readers == 0 && retired)
+            delete();
+    }
+
+    /**
+     * Deletes the segment as soon as no cursor reads it
+     * */
+    void retire() throws IOException {
+        retired = true;
+
+        if(readers == 0)
+            delete();
+    }
+
+    private void delete() throws IOException {
+        Unmapper.unmap(buffer);
+        Files.deleteIfExists(file);
+    }
+
+    private int scanEnd(){
+        var position = 0;
+
+        while(position + HEADER_SIZE <= buffer.capacity()){
+            final var length = buffer.getInt(position);
+
+            if(length <= 0 || position + HEADER_SIZE + length > buffer.capacity())
+                break;
+
+            final var checksum = new CRC32();
+            checksum.update(read(position));
+
+            if((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES))
+                break;
+
+            position += HEADER_SIZE + length;
+        }
+
+        return position;
+    }
+}
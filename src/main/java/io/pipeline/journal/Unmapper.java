@@ -0,0 +1,51 @@
+package io.pipeline.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Releases the mapping of a file right away, instead of waiting for the garbage collector to collect its buffer,
+ * so the file can be deleted on every platform and its pages don't stay mapped.
+ * It goes through sun.misc.Unsafe#invokeCleaner, when it isn't available the mapping is left to the garbage collector.
+ * A buffer must not be read once unmapped.
+ * */
+final class Unmapper {
+    private static final Logger log = LoggerFactory.getLogger(Unmapper.class);
+    private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+    private Unmapper(){}
+
+    static void unmap(MappedByteBuffer buffer){
+        if(isNull(INVOKE_CLEANER))
+            return;
+
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable t) {
+            log.warn("The buffer can't be unmapped, it is left to the garbage collector", t);
+        }
+    }
+
+    private static MethodHandle invokeCleaner(){
+        try {
+            final var unsafeClass = Class.forName("sun.misc.Unsafe");
+            final var theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Mapped buffers can't be unmapped, they are left to the garbage collector", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.pipeline.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+
+/**
+ * An adaptive limit of the calls in flight, following AIMD: the limit grows by one after every good call
+ * made while at least half of it was in use, and is multiplied by the backoff ratio after every dropped call.
+ * A call is dropped when it fails or when its latency exceeds the latency tolerance times the no-load latency,
+ * the lowest latency of the last {@value #BASELINE_WINDOW} calls, so the limit shrinks as soon as the downstream
+ * slows down and grows back while it keeps up.
+ * Calls over the limit wait up to the max wait for a call to complete, none by default.
+ * */
+public class AdaptiveLimit {
+    public static final Logger log = LoggerFactory.getLogger(AdaptiveLimit.class);
+    public static final int BASELINE_WINDOW = 1000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;
+    private double latencyTolerance = 2.0;
+    private long maxWaitNanos;
+
+    private volatile int limit = 20;
+    private volatile int inFlight;
+    private int waiters;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowCount;
+
+    public AdaptiveLimit setInitialLimit(int initialLimit) {
+        if(initialLimit < 1) throw new AssertionError("<initialLimit> must be greater than zero");
+        this.limit = initialLimit;
+        return this;
+    }
+
+    public AdaptiveLimit setMinLimit(int minLimit) {
+        if(minLimit < 1) throw new AssertionError("<minLimit> must be greater than zero");
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public AdaptiveLimit setMaxLimit(int maxLimit) {
+        if(maxLimit < 1) throw new AssertionError("<maxLimit> must be greater than zero");
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * @param backoffRatio what is kept of the limit after a dropped call, between 0 and 1
+     * */
+    public AdaptiveLimit setBackoffRatio(double backoffRatio) {
+        if(backoffRatio <= 0 || backoffRatio >= 1) throw new AssertionError("<backoffRatio> must be between 0 and 1");
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    /**
+     * @param latencyTolerance how many times the no-load latency a call may take before it counts as dropped
+     * */
+    public AdaptiveLimit setLatencyTolerance(double latencyTolerance) {
+        if(latencyTolerance < 1) throw new AssertionError("<latencyTolerance> cannot be less than 1");
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * @param maxWait how long a call over the limit waits for a call to complete before it is rejected
+     * */
+    public AdaptiveLimit setMaxWait(Duration maxWait) {
+        if(isNull(maxWait) || maxWait.isNegative()) throw new AssertionError("<maxWait> cannot be null or negative");
+        this.maxWaitNanos = maxWait.toNanos();
+        return this;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return true if the call may go through, and must then be released, false if it must be rejected
+     * */
+    public boolean tryAcquire(){
+        lock.lock();
+        try {
+            if(inFlight < limit){
+                inFlight++;
+                return true;
+            }
+
+            return maxWaitNanos > 0 && awaitRelease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call acquired by {@link #tryAcquire()}, adjusting the limit to its outcome
+     * */
+    public void release(boolean succeeded, long latencyNanos){
+        lock.lock();
+        try {
+            end(isDropped(succeeded, latencyNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call acquired by {@link #tryAcquire()} without sampling its latency, for a call whose latency
+     * isn't comparable to the other ones, like a batch: only its failure drops it
+     * */
+    public void release(boolean succeeded){
+        lock.lock();
+        try {
+            end(!succeeded);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void end(boolean dropped){
+        final var utilized = inFlight * 2 >= limit;
+        inFlight--;
+
+        if(dropped)
+            setLimit(Math.max(minLimit, (int) (limit * backoffRatio)));
+        else if(utilized)
+            setLimit(Math.min(maxLimit, limit + 1));
+
+        if(waiters > 0)
+            released.signal();
+    }
+
+    private boolean awaitRelease(){
+        var remainingNanos = maxWaitNanos;
+        waiters++;
+
+        try {
+            while(inFlight >= limit){
+                if(remainingNanos <= 0)
+                    return false;
+
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiters--;
+        }
+    }
+
+    private boolean isDropped(boolean succeeded, long latencyNanos){
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+
+        if(++windowCount >= BASELINE_WINDOW || baselineNanos == Long.MAX_VALUE){
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowCount = 0;
+        }
+
+        return !succeeded || latencyNanos > baselineNanos * latencyTolerance;
+    }
+
+    private void setLimit(int newLimit){
+        if(newLimit == limit)
+            return;
+
+        if(log.isDebugEnabled())
+            log.debug("AdaptiveLimit: {} -> {}, no-load latency {}ms", limit, newLimit, TimeUnit.NANOSECONDS.toMillis(baselineNanos));
+
+        limit = newLimit;
+    }
+}
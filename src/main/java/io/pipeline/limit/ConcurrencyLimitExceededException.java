@@ -0,0 +1,17 @@
+package io.pipeline.limit;
+
+import io.pipeline.error.StepException;
+
+/**
+ * Fails a step call without executing it, because the concurrency limit of the step is reached
+ * */
+public class ConcurrencyLimitExceededException extends StepException {
+
+    /**
+     * @param stepPosition the position of the rejected step
+     * @param stepInput the input the rejected step was given, to resume the execution from it
+     * */
+    public ConcurrencyLimitExceededException(String pipelineName, String stepName, int stepPosition, Object stepInput, int limit) {
+        super(pipelineName, stepName, stepPosition, stepInput, "Concurrency limit of step <" + stepName + "> is reached: " + limit + " calls in flight", null);
+    }
+}
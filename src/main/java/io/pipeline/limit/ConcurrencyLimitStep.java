@@ -0,0 +1,122 @@
+package io.pipeline.limit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Bounds the calls in flight of a step with an {@link AdaptiveLimit}. A call over the limit waits up to the max wait
+ * of the limit, then fails straight away with a {@link ConcurrencyLimitExceededException}, without going through the retries,
+ * so it reaches the error handler instead of piling up on a slow downstream.
+ * A batch takes a single call, going through or rejected as a whole.
+ * The limit and the calls in flight are exported as the gauges {@value #CONCURRENCY_LIMIT_METRIC}
+ * and {@value #CONCURRENCY_IN_FLIGHT_METRIC}, and the rejected calls as {@value #CONCURRENCY_REJECTIONS_METRIC}.
+ * */
+public class ConcurrencyLimitStep<I, O> extends ForwardingStep<I, O> {
+    public static final String CONCURRENCY_LIMIT_METRIC = "pipeline.step.concurrency.limit";
+    public static final String CONCURRENCY_IN_FLIGHT_METRIC = "pipeline.step.concurrency.in.flight";
+    public static final String CONCURRENCY_REJECTIONS_METRIC = "pipeline.step.concurrency.rejections";
+
+    private final AdaptiveLimit limit;
+
+    public ConcurrencyLimitStep(Step<I, O> delegate, AdaptiveLimit limit) {
+        super(delegate);
+
+        if(isNull(limit)) throw new AssertionError("<limit> cannot be null");
+        this.limit = limit;
+    }
+
+    public AdaptiveLimit getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void bind(StepMonitor monitor) {
+        super.bind(monitor);
+
+        monitor.bindMeters(m -> {
+            Gauge.builder(CONCURRENCY_LIMIT_METRIC, limit, AdaptiveLimit::getLimit).tags(m.getTags()).register(m.getMeterRegistry());
+            Gauge.builder(CONCURRENCY_IN_FLIGHT_METRIC, limit, AdaptiveLimit::getInFlight).tags(m.getTags()).register(m.getMeterRegistry());
+        });
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        if(!limit.tryAcquire())
+            return reject(pipeline, monitor, in);
+
+        final var start = System.nanoTime();
+        var succeeded = false;
+
+        try {
+            final var output = delegate.apply(pipeline, myPosition, monitor, in);
+            succeeded = output.succeeded();
+
+            return output;
+        } finally {
+            limit.release(succeeded, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        if(!limit.tryAcquire())
+            return CompletableFuture.completedFuture(reject(pipeline, monitor, in));
+
+        final var start = System.nanoTime();
+        final CompletableFuture<StepOutput<O>> output;
+
+        try {
+            output = delegate.applyAsync(pipeline, myPosition, monitor, in);
+        } catch (RuntimeException e) {
+            limit.release(false, System.nanoTime() - start);
+            throw e;
+        }
+
+        return output.whenComplete((result, t) ->
+                limit.release(isNull(t) && result.succeeded(), System.nanoTime() - start));
+    }
+
+    /**
+     * A batch is a single call of the limit, released without a latency sample since
+     * the latency of a batch isn't comparable to the one of a single element
+     * */
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        if(!limit.tryAcquire()){
+            final var outputs = new ArrayList<StepOutput<O>>(in.size());
+            in.forEach(element -> outputs.add(reject(pipeline, monitor, element)));
+
+            return outputs;
+        }
+
+        var succeeded = false;
+
+        try {
+            final var outputs = delegate.applyBatch(pipeline, myPosition, monitor, in);
+            succeeded = outputs.stream().allMatch(StepOutput::succeeded);
+
+            return outputs;
+        } finally {
+            limit.release(succeeded);
+        }
+    }
+
+    private StepOutput<O> reject(Pipeline<?, ?> pipeline, StepMonitor monitor, I in){
+        log.debug("Concurrency limit is reached, rejecting the call");
+
+        monitor.incrementFailureCount();
+        monitor.counter(CONCURRENCY_REJECTIONS_METRIC).increment();
+
+        return StepOutput.failure(new ConcurrencyLimitExceededException(pipeline.getName(), monitor.getStepName(),
+                monitor.getPosition(), in, limit.getLimit()), monitor, in);
+    }
+}
@@ -0,0 +1,264 @@
+package io.pipeline.logging;
+
+import org.slf4j.MDC;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.pipeline.logging.LoggingUtils.MDC_PIPELINE_NAME;
+import static io.pipeline.logging.LoggingUtils.MDC_STEP_NAME;
+import static io.pipeline.logging.LoggingUtils.MDC_STEP_POSITION;
+import static java.util.Objects.isNull;
+
+/**
+ * Scoped logging context of the executions running on the current thread.
+ * An execution opens a scope that sets the pipeline name once, its steps only update the step keys,
+ * and closing the scope puts back the context of the enclosing execution, or removes the keys
+ * when there is none, so a pooled thread doesn't keep the names of an execution that is over.
+ * A disabled scope leaves the context untouched, and so do the steps executed inside it.
+ * <pre>
+ * try (var scope = LogContext.open(pipelineName, true)) {
+ *     ...
+ * }
+ * </pre>
+ * */
+public final class LogContext {
+    private static final ThreadLocal<Scope> scopes = ThreadLocal.withInitial(Scope::new);
+
+    private LogContext(){}
+
+    /**
+     * Opens the scope of an execution of <pipelineName> on the current thread
+     *
+     * @return the scope of the current thread, to close when the execution ends
+     * */
+    public static Scope open(String pipelineName, boolean enabled){
+        return scopes.get().open(pipelineName, enabled);
+    }
+
+    /**
+     * Sets the step being executed, when a scope is open and enabled on the current thread
+     * */
+    public static void step(String stepName, String stepPosition){
+        scopes.get().step(stepName, stepPosition);
+    }
+
+    /**
+     * Same as {@link #step(String, String)}, keeping the current step position
+     * */
+    public static void step(String stepName){
+        scopes.get().step(stepName, null);
+    }
+
+    /**
+     * @return the context of the current thread, to restore on the thread an execution hops to.
+     * Nothing is copied when the scope of the current thread is disabled
+     * */
+    public static Snapshot capture(){
+        return scopes.get().capture();
+    }
+
+    /**
+     * @return <supplier> running with the context of the current thread, on whatever thread it runs
+     * */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier){
+        final var snapshot = capture();
+
+        return () -> {
+            try (var ignored = snapshot.restore()) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * @return <function> running with the context of the current thread, on whatever thread it runs
+     * */
+    public static <T, R> Function<T, R> wrap(Function<T, R> function){
+        return capture().wrap(function);
+    }
+
+    /**
+     * The logging context of a thread at the time it was captured
+     * */
+    public static final class Snapshot {
+        private static final Snapshot DISABLED = new Snapshot(false, null, null, null, null);
+
+        private final boolean enabled;
+        private final String pipelineName;
+        private final String stepName;
+        private final String stepPosition;
+        private final Map<String, String> context;
+
+        private Snapshot(boolean enabled, String pipelineName, String stepName, String stepPosition, Map<String, String> context) {
+            this.enabled = enabled;
+            this.pipelineName = pipelineName;
+            this.stepName = stepName;
+            this.stepPosition = stepPosition;
+            this.context = context;
+        }
+
+        /**
+         * Opens a scope with this context on the current thread, closing it puts back the previous context of the thread
+         * */
+        public Scope restore(){
+            return scopes.get().restore(this);
+        }
+
+        /**
+         * @return <function> running with this context, on whatever thread it runs
+         * */
+        public <T, R> Function<T, R> wrap(Function<T, R> function){
+            if(!enabled)
+                return function;
+
+            return in -> {
+                try (var ignored = restore()) {
+                    return function.apply(in);
+                }
+            };
+        }
+    }
+
+    /**
+     * The stack of the scopes opened on a thread, a single instance per thread so opening a scope allocates nothing
+     * */
+    public static final class Scope implements AutoCloseable {
+        private static final int INITIAL_DEPTH = 4;
+
+        private boolean[] enabled = new boolean[INITIAL_DEPTH];
+        private boolean[] restoresContext = new boolean[INITIAL_DEPTH];
+        private String[] savedPipelineNames = new String[INITIAL_DEPTH];
+        private String[] savedStepNames = new String[INITIAL_DEPTH];
+        private String[] savedStepPositions = new String[INITIAL_DEPTH];
+        private Object[] savedContexts = new Object[INITIAL_DEPTH];
+        private int depth;
+
+        private String pipelineName;
+        private String stepName;
+        private String stepPosition;
+
+        private Scope(){}
+
+        private Scope open(String name, boolean isEnabled){
+            push(isEnabled);
+
+            if(isEnabled){
+                pipelineName = name;
+                MDC.put(MDC_PIPELINE_NAME, name);
+            }
+
+            return this;
+        }
+
+        private Scope restore(Snapshot snapshot){
+            push(snapshot.enabled);
+
+            if(!snapshot.enabled)
+                return this;
+
+            restoresContext[depth - 1] = true;
+            savedContexts[depth - 1] = MDC.getCopyOfContextMap();
+            setContext(snapshot.context);
+
+            pipelineName = snapshot.pipelineName;
+            stepName = snapshot.stepName;
+            stepPosition = snapshot.stepPosition;
+
+            return this;
+        }
+
+        private void step(String name, String position){
+            if(depth == 0 || !enabled[depth - 1])
+                return;
+
+            stepName = name;
+            MDC.put(MDC_STEP_NAME, name);
+
+            if(isNull(position))
+                return;
+
+            stepPosition = position;
+            MDC.put(MDC_STEP_POSITION, position);
+        }
+
+        private Snapshot capture(){
+            if(depth > 0 && !enabled[depth - 1])
+                return Snapshot.DISABLED;
+
+            return new Snapshot(true, pipelineName, stepName, stepPosition, MDC.getCopyOfContextMap());
+        }
+
+        private void push(boolean isEnabled){
+            if(depth == enabled.length)
+                grow();
+
+            enabled[depth] = isEnabled;
+            restoresContext[depth] = false;
+            savedPipelineNames[depth] = pipelineName;
+            savedStepNames[depth] = stepName;
+            savedStepPositions[depth] = stepPosition;
+            depth++;
+        }
+
+        private void grow(){
+            final var length = enabled.length * 2;
+
+            enabled = Arrays.copyOf(enabled, length);
+            restoresContext = Arrays.copyOf(restoresContext, length);
+            savedPipelineNames = Arrays.copyOf(savedPipelineNames, length);
+            savedStepNames = Arrays.copyOf(savedStepNames, length);
+            savedStepPositions = Arrays.copyOf(savedStepPositions, length);
+            savedContexts = Arrays.copyOf(savedContexts, length);
+        }
+
+        /**
+         * Closes the innermost scope of the thread
+         * */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void close() {
+            if(depth == 0)
+                return;
+
+            depth--;
+
+            pipelineName = savedPipelineNames[depth];
+            stepName = savedStepNames[depth];
+            stepPosition = savedStepPositions[depth];
+
+            if(!enabled[depth])
+                return;
+
+            if(restoresContext[depth]){
+                setContext((Map<String, String>) savedContexts[depth]);
+                savedContexts[depth] = null;
+                return;
+            }
+
+            putOrRemove(MDC_PIPELINE_NAME, pipelineName);
+            putOrRemove(MDC_STEP_NAME, stepName);
+            putOrRemove(MDC_STEP_POSITION, stepPosition);
+        }
+
+        private static void setContext(Map<String, String> context){
+            if(isNull(context)){
+                MDC.clear();
+                return;
+            }
+
+            MDC.setContextMap(context);
+        }
+
+        private static void putOrRemove(String key, String value){
+            if(isNull(value)){
+                MDC.remove(key);
+                return;
+            }
+
+            MDC.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.pipeline.monitor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How much of the executions of a pipeline is measured.
+ * The counters always count every call when they are on, and the timers either time
+ * every call, a random sample of the calls, or none of them, so the cheaper levels
+ * save the clock reads and the timer work on the hot path.
+ * */
+public final class MetricsLevel {
+    /**
+     * Returned instead of a start time by the clocks of a call that is not timed
+     * */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    public static final MetricsLevel OFF = new MetricsLevel("OFF", false, 0);
+    public static final MetricsLevel COUNTERS_ONLY = new MetricsLevel("COUNTERS_ONLY", true, 0);
+    public static final MetricsLevel FULL = new MetricsLevel("FULL", true, 1);
+
+    private final String name;
+    private final boolean counting;
+    private final int samplingRate;
+
+    private MetricsLevel(String name, boolean counting, int samplingRate) {
+        this.name = name;
+        this.counting = counting;
+        this.samplingRate = samplingRate;
+    }
+
+    /**
+     * Counts every call and times one call out of <samplingRate> on average,
+     * the timers then keep the latency distribution but their counts are sampled
+     * */
+    public static MetricsLevel sampled(int samplingRate){
+        if(samplingRate < 1) throw new AssertionError("<samplingRate> must be greater than zero");
+
+        return samplingRate == 1 ? FULL : new MetricsLevel("SAMPLED(1/" + samplingRate + ")", true, samplingRate);
+    }
+
+    public boolean isCounting() {
+        return counting;
+    }
+
+    /**
+     * @return whether the current call is timed
+     * */
+    public boolean isTiming() {
+        if(samplingRate <= 1)
+            return samplingRate == 1;
+
+        return ThreadLocalRandom.current().nextInt(samplingRate) == 0;
+    }
+
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,80 +1,316 @@
 package io.pipeline.monitor;
 
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.pipeline.trace.ProfileReport;
+import io.pipeline.trace.Span;
+import io.pipeline.trace.Tracer;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import static io.micrometer.core.instrument.Metrics.globalRegistry;
 import static java.util.Objects.isNull;
 
+/**
+ * Meters of a pipeline. The counters are striped {@link LongAdder}s read by the registry when it publishes,
+ * so counting an execution doesn't touch the registry, and the {@link MetricsLevel} tells
+ * how much of the executions is measured.
+ * */
 public class PipelineMonitor {
     public static final String PIPELINE_NAME_TAG = "pipeline.name";
     public static final String PIPELINE_EXECUTION_TIME_METRIC = "pipeline.execution.time";
     public static final String PIPELINE_EXECUTIONS_COUNT_METRIC = "pipeline.executions";
     public static final String PIPELINE_FAILURES_COUNT_METRIC = "pipeline.executions.with.error";
+    public static final String PIPELINE_COALESCED_COUNT_METRIC = "pipeline.coalesced.calls";
+    public static final String PIPELINE_STREAM_EXECUTIONS_COUNT_METRIC = "pipeline.stream.executions";
+    public static final String PIPELINE_DEADLINE_EXCEEDED_COUNT_METRIC = "pipeline.deadline.exceeded";
+    public static final String PIPELINE_STREAM_IN_FLIGHT_METRIC = "pipeline.stream.in.flight";
 
     public static final String PIPELINE_ON_ERROR_EXECUTION_TIME_METRIC = "pipeline.onError.execution.time";
+    public static final String ON_ERROR_SPAN_NAME = "onError";
+    public static final int DEFAULT_PROFILE_SLOWEST = 10;
 
-    private final List<StepMonitor> stepMonitors = new ArrayList<>();
+    private final List<StepMonitor> stepMonitors = new CopyOnWriteArrayList<>();
     private final String pipelineName;
     private MeterRegistry meterRegistry = globalRegistry;
-    private LongTaskTimer executionsTimer;
+    private volatile MetricsLevel metricsLevel = MetricsLevel.FULL;
+    private Timer executionsTimer;
     private Timer onErrorExecutionsTimer;
-    private Counter executionsCount;
-    private Counter failuresCount;
+    private final LongAdder executionsCount = new LongAdder();
+    private final LongAdder failuresCount = new LongAdder();
+    private final LongAdder streamExecutionsCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder deadlineExceededCount = new LongAdder();
+    private final AtomicInteger streamInFlight = new AtomicInteger();
+    private volatile Tracer tracer;
+    private volatile State state = State.ACTIVE;
+
+    /**
+     * Whether the meters are registered, checked by every execution with a single read
+     * */
+    private enum State {
+        PENDING, ACTIVE, CLOSED
+    }
 
     public PipelineMonitor(String pipelineName) {
         this.pipelineName = pipelineName;
         initMeters();
     }
 
+    /**
+     * @param lazyMeters whether the meters of the pipeline and of its steps are only registered on its first execution
+     * */
+    public PipelineMonitor(String pipelineName, MeterRegistry meterRegistry, boolean lazyMeters) {
+        if(isNull(meterRegistry)) throw new AssertionError("<meterRegistry> cannot be null");
+
+        this.pipelineName = pipelineName;
+        this.meterRegistry = meterRegistry;
+
+        if(lazyMeters)
+            this.state = State.PENDING;
+        else
+            initMeters();
+    }
+
     public void initMeters(){
         this.onErrorExecutionsTimer = Timer.builder(PIPELINE_ON_ERROR_EXECUTION_TIME_METRIC).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
-        this.executionsTimer = LongTaskTimer.builder(PIPELINE_EXECUTION_TIME_METRIC).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
-        this.executionsCount = Counter.builder(PIPELINE_EXECUTIONS_COUNT_METRIC).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
-        this.failuresCount = Counter.builder(PIPELINE_FAILURES_COUNT_METRIC).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        this.executionsTimer = Timer.builder(PIPELINE_EXECUTION_TIME_METRIC).tag(PIPELINE_NAME_TAG, pipelineName)
+                .publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(meterRegistry);
+        FunctionCounter.builder(PIPELINE_EXECUTIONS_COUNT_METRIC, executionsCount, LongAdder::sum).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        FunctionCounter.builder(PIPELINE_FAILURES_COUNT_METRIC, failuresCount, LongAdder::sum).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        FunctionCounter.builder(PIPELINE_COALESCED_COUNT_METRIC, coalescedCount, LongAdder::sum).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        FunctionCounter.builder(PIPELINE_DEADLINE_EXCEEDED_COUNT_METRIC, deadlineExceededCount, LongAdder::sum).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        FunctionCounter.builder(PIPELINE_STREAM_EXECUTIONS_COUNT_METRIC, streamExecutionsCount, LongAdder::sum).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
+        Gauge.builder(PIPELINE_STREAM_IN_FLIGHT_METRIC, streamInFlight, AtomicInteger::get).tag(PIPELINE_NAME_TAG, pipelineName).register(meterRegistry);
     }
 
     public MeterRegistry getMeterRegistry() {
         return meterRegistry;
     }
 
-    public void setMeterRegistry(MeterRegistry meterRegistry){
+    /**
+     * Moves the meters of the pipeline and of its steps to <meterRegistry>, removing them from the previous one
+     * */
+    public synchronized void setMeterRegistry(MeterRegistry meterRegistry){
         if(isNull(meterRegistry)) throw new AssertionError("<meterRegistry> cannot be null");
 
+        final var previous = this.meterRegistry;
         this.meterRegistry = meterRegistry;
+
+        if(state != State.ACTIVE)
+            return;
+
+        if(previous != meterRegistry)
+            removeMeters(previous);
+
         initMeters();
 
         stepMonitors.forEach(StepMonitor::updateMeterRegistry);
     }
 
+    /**
+     * @return false while the meters are not registered yet, see {@link #PipelineMonitor(String, MeterRegistry, boolean)},
+     * and once the monitor is closed
+     * */
+    public boolean hasMeters(){
+        return state == State.ACTIVE;
+    }
+
+    public boolean isClosed(){
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Registers the pending meters, or rejects the execution of a closed pipeline
+     * */
+    private synchronized void activate(){
+        if(state == State.CLOSED) throw new IllegalStateException("Pipeline <" + pipelineName + "> is closed");
+
+        if(state == State.PENDING){
+            initMeters();
+            stepMonitors.forEach(StepMonitor::updateMeterRegistry);
 
+            state = State.ACTIVE;
+        }
+    }
+
+    public MetricsLevel getMetricsLevel() {
+        return metricsLevel;
+    }
+
+    public void setMetricsLevel(MetricsLevel metricsLevel) {
+        if(isNull(metricsLevel)) throw new AssertionError("<metricsLevel> cannot be null");
+
+        this.metricsLevel = metricsLevel;
+    }
+
+
+    /**
+     * Counts an execution starting, which registers the meters first when they are still pending
+     *
+     * @throws IllegalStateException when the monitor is closed
+     * */
     public void incrementExecutionCount(){
-        executionsCount.increment();
+        if(state != State.ACTIVE)
+            activate();
+
+        if(metricsLevel.isCounting())
+            executionsCount.increment();
+    }
+
+    public void incrementExecutionCount(int amount){
+        if(state != State.ACTIVE)
+            activate();
+
+        if(metricsLevel.isCounting())
+            executionsCount.add(amount);
     }
 
     public void incrementFailureCount(){
-        failuresCount.increment();
+        if(metricsLevel.isCounting())
+            failuresCount.increment();
+    }
+
+    /**
+     * Counts an execution that joined an identical execution in flight instead of running
+     * */
+    public void incrementCoalescedCount(){
+        if(metricsLevel.isCounting())
+            coalescedCount.increment();
+    }
+
+    /**
+     * Counts a failed execution whose deadline was spent before its steps completed
+     * */
+    public void incrementDeadlineExceededCount(){
+        if(metricsLevel.isCounting())
+            deadlineExceededCount.increment();
+    }
+
+    /**
+     * Counts an execution started by {@link io.pipeline.Pipeline#executeAll(Iterable, int)},
+     * the rate of this counter gives the throughput of the stream ingestion
+     * */
+    public void incrementStreamExecutionCount(){
+        if(metricsLevel.isCounting())
+            streamExecutionsCount.increment();
+
+        streamInFlight.incrementAndGet();
+    }
+
+    public void decrementStreamInFlight(){
+        streamInFlight.decrementAndGet();
     }
 
     public <T> T clockExecution(Supplier<T> f){
+        if(!metricsLevel.isTiming())
+            return f.get();
+
         return executionsTimer.record(f);
     }
 
+    /**
+     * @return the start of an execution to hand to {@link #stopExecutionClock(long)},
+     * or {@link MetricsLevel#NOT_TIMED} when the metrics level doesn't time this execution
+     * */
+    public long startExecutionClock(){
+        return metricsLevel.isTiming() ? System.nanoTime() : MetricsLevel.NOT_TIMED;
+    }
+
+    public void stopExecutionClock(long startNanos){
+        if(startNanos != MetricsLevel.NOT_TIMED)
+            executionsTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
     public void clockOnErrorExecution(Runnable r){
-        onErrorExecutionsTimer.record(r);
+        final var span = isTracing() ? Tracer.startSpan(Span.Kind.ERROR_HANDLER, ON_ERROR_SPAN_NAME, 0) : null;
+
+        try {
+            if(metricsLevel.isTiming())
+                onErrorExecutionsTimer.record(r);
+            else
+                r.run();
+        } finally {
+            Tracer.endSpan(span, false);
+        }
     }
 
     public double onErrorClockMean(){
         return onErrorExecutionsTimer.mean(TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Traces one execution out of <sampleEvery>, with a span per step, per attempt and for the error handler,
+     * keeping the last <capacity> traces. While tracing is disabled, the default, an execution only reads a field
+     *
+     * @see #profile()
+     * */
+    public void enableTracing(int sampleEvery, int capacity){
+        this.tracer = new Tracer(sampleEvery, capacity);
+    }
+
+    public void disableTracing(){
+        this.tracer = null;
+    }
+
+    public boolean isTracing(){
+        return tracer != null;
+    }
+
+    /**
+     * @return the tracer of the executions, null while tracing is disabled
+     * */
+    public Tracer getTracer(){
+        return tracer;
+    }
+
+    /**
+     * @return the trace scope of an execution starting on the current thread, to close when it ends
+     * */
+    public Tracer.Scope startTrace(){
+        final var current = tracer;
+
+        return isNull(current) ? Tracer.Scope.NOT_SAMPLED : current.start(pipelineName);
+    }
+
+    /**
+     * @return the share of the wall time of every step in the traced executions, with the {@value #DEFAULT_PROFILE_SLOWEST} slowest ones
+     * @throws IllegalStateException when tracing is not enabled
+     * */
+    public ProfileReport profile(){
+        return profile(DEFAULT_PROFILE_SLOWEST);
+    }
+
+    public ProfileReport profile(int slowest){
+        final var current = tracer;
+
+        if(isNull(current)) throw new IllegalStateException("Tracing of pipeline <" + pipelineName + "> is not enabled");
+
+        return ProfileReport.of(pipelineName, current, slowest);
+    }
+
+    /**
+     * Removes every meter tagged with the name of this pipeline from the meter registry, the ones of its steps included.
+     * The executions started afterwards are rejected, so they don't register the meters again
+     * */
+    public synchronized void close(){
+        state = State.CLOSED;
+        removeMeters(meterRegistry);
+    }
+
+    private void removeMeters(MeterRegistry registry){
+        registry.getMeters().stream()
+                .filter(meter -> pipelineName.equals(meter.getId().getTag(PIPELINE_NAME_TAG)))
+                .forEach(registry::remove);
+    }
+
     public void subscribe(StepMonitor stepMonitor){
         this.stepMonitors.add(stepMonitor);
     }
@@ -1,9 +1,24 @@
 package io.pipeline.monitor;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.pipeline.retry.IRetry;
+import io.pipeline.trace.Span;
+import io.pipeline.trace.Tracer;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 
@@ -15,21 +30,42 @@ public class StepMonitor {
 
     public static final String STEP_EXECUTION_TIME_METRIC = "pipeline.step.execution.time";
     public static final String STEP_FAILURES_COUNT_METRIC = "pipeline.step.failures";
+    public static final String STEP_BATCH_SIZE_METRIC = "pipeline.step.batch.size";
+    public static final String STEP_BATCH_EXECUTION_TIME_METRIC = "pipeline.step.batch.execution.time";
+    public static final String STEP_ATTEMPTS_COUNT_METRIC = "pipeline.step.attempts";
+    public static final String STEP_RETRIES_COUNT_METRIC = "pipeline.step.retries";
+    public static final String STEP_QUEUE_DEPTH_METRIC = "pipeline.step.queue.depth";
+    public static final String STEP_QUEUE_WAIT_TIME_METRIC = "pipeline.step.queue.wait.time";
 
     private final PipelineMonitor pipelineMonitor;
     private final String stepName;
     private final String stepPosition;
+    private final int position;
 
-    private Counter failuresCount;
+    private final LongAdder failuresCount = new LongAdder();
+    private final LongAdder attemptsCount = new LongAdder();
+    private final LongAdder retriesCount = new LongAdder();
+    private final IRetry.AttemptListener attemptListener = this::recordAttempt;
     private Timer executionsTimer;
+    private DistributionSummary batchSizes;
+    private Timer batchExecutionsTimer;
+    private Collection<?> queue;
+    private Gauge queueDepthGauge;
+    private Timer queueWaitTimer;
+    private final Map<String, Counter> extraCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> extraTimers = new ConcurrentHashMap<>();
+    private final List<Consumer<StepMonitor>> meterBinders = new CopyOnWriteArrayList<>();
 
     public StepMonitor(PipelineMonitor pipelineMonitor, String stepName, int stepPosition) {
         this.pipelineMonitor = pipelineMonitor;
         this.stepPosition = String.valueOf(stepPosition);
+        this.position = stepPosition;
         this.stepName = stepName;
 
         pipelineMonitor.subscribe(this);
-        initMeters();
+
+        if(pipelineMonitor.hasMeters())
+            initMeters();
     }
 
     public void initMeters(){
@@ -39,23 +75,203 @@ public class StepMonitor {
         executionsTimer = Timer.builder(STEP_EXECUTION_TIME_METRIC)
                 .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
 
-        failuresCount = Counter.builder(STEP_FAILURES_COUNT_METRIC)
+        FunctionCounter.builder(STEP_FAILURES_COUNT_METRIC, failuresCount, LongAdder::sum)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        FunctionCounter.builder(STEP_ATTEMPTS_COUNT_METRIC, attemptsCount, LongAdder::sum)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        FunctionCounter.builder(STEP_RETRIES_COUNT_METRIC, retriesCount, LongAdder::sum)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        batchSizes = DistributionSummary.builder(STEP_BATCH_SIZE_METRIC)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        batchExecutionsTimer = Timer.builder(STEP_BATCH_EXECUTION_TIME_METRIC)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        if(queue != null)
+            initQueueMeters();
+
+        extraCounters.clear();
+        extraTimers.clear();
+        meterBinders.forEach(binder -> binder.accept(this));
+    }
+
+    public MeterRegistry getMeterRegistry(){
+        return pipelineMonitor.getMeterRegistry();
+    }
+
+    public PipelineMonitor getPipelineMonitor() {
+        return pipelineMonitor;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public String getStepPosition() {
+        return stepPosition;
+    }
+
+    /**
+     * @return the position of the step as a number, {@link #getStepPosition()} being its tag value
+     * */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the tags identifying this step, to register additional meters beside the step ones
+     * */
+    public Tags getTags(){
+        return Tags.of(PIPELINE_NAME_TAG, pipelineMonitor.getPipelineName(), STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition);
+    }
+
+    /**
+     * @return a counter of this step registered under <metricName>, created on the first call
+     * */
+    public Counter counter(String metricName){
+        return extraCounters.computeIfAbsent(metricName, name -> Counter.builder(name).tags(getTags()).register(getMeterRegistry()));
+    }
+
+    /**
+     * @return a timer of this step registered under <metricName>, created on the first call
+     * */
+    public Timer timer(String metricName){
+        return extraTimers.computeIfAbsent(metricName, name -> Timer.builder(name).tags(getTags()).register(getMeterRegistry()));
+    }
+
+    /**
+     * Registers additional meters of this step with <binder>, now or once the meters of the pipeline are registered, and again every time the meter registry changes
+     * */
+    public void bindMeters(Consumer<StepMonitor> binder){
+        meterBinders.add(binder);
+
+        if(pipelineMonitor.hasMeters())
+            binder.accept(this);
+    }
+
+    private void initQueueMeters(){
+        final var register = pipelineMonitor.getMeterRegistry();
+        final var pipelineName = pipelineMonitor.getPipelineName();
+
+        queueDepthGauge = Gauge.builder(STEP_QUEUE_DEPTH_METRIC, queue, Collection::size)
+                .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
+
+        queueWaitTimer = Timer.builder(STEP_QUEUE_WAIT_TIME_METRIC)
                 .tags(PIPELINE_NAME_TAG, pipelineName, STEP_NAME_TAG, stepName, STEP_POSITION_TAG, stepPosition).register(register);
     }
 
+    /**
+     * Exposes the depth of the queue feeding this step and the time elements wait on it,
+     * used when the step runs as a stage of a {@link io.pipeline.StagedPipeline}
+     * */
+    public void bindQueue(Collection<?> queue){
+        this.queue = queue;
+        initQueueMeters();
+    }
+
+    /**
+     * Removes the depth gauge of <queue> once its stage is stopped, so a later {@link #bindQueue(Collection)}
+     * registers the gauge of the new queue instead of getting back the one of the dead queue
+     * */
+    public void unbindQueue(Collection<?> queue){
+        if(this.queue != queue)
+            return;
+
+        getMeterRegistry().remove(queueDepthGauge);
+
+        this.queue = null;
+        this.queueDepthGauge = null;
+    }
+
+    public void recordQueueWait(long nanos){
+        queueWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
     public void updateMeterRegistry(){
         initMeters();
     }
 
     public void incrementFailureCount(){
-        failuresCount.increment();
+        if(getMetricsLevel().isCounting())
+            failuresCount.increment();
+    }
+
+    public void recordAttempt(int attempt){
+        if(pipelineMonitor.isTracing())
+            Tracer.attempt(attempt);
+
+        if(!getMetricsLevel().isCounting())
+            return;
+
+        attemptsCount.increment();
+
+        if(attempt > 1)
+            retriesCount.increment();
+    }
+
+    /**
+     * @return a listener to hand to {@link IRetry} so the attempts and retries of this step are counted
+     * */
+    public IRetry.AttemptListener getAttemptListener() {
+        return attemptListener;
+    }
+
+    public MetricsLevel getMetricsLevel(){
+        return pipelineMonitor.getMetricsLevel();
     }
 
     public <T> T clock(Supplier<T> f){
+        if(!getMetricsLevel().isTiming())
+            return f.get();
+
         return executionsTimer.record(f);
     }
 
+    /**
+     * @return the start of a call to hand to {@link #stopClock(long)},
+     * or {@link MetricsLevel#NOT_TIMED} when the metrics level doesn't time this call
+     * */
+    public long startClock(){
+        return getMetricsLevel().isTiming() ? System.nanoTime() : MetricsLevel.NOT_TIMED;
+    }
+
+    public void stopClock(long startNanos){
+        if(startNanos != MetricsLevel.NOT_TIMED)
+            executionsTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the span of a call of this step, to hand to {@link #endSpan(Span, boolean)},
+     * or null when the execution running on the current thread isn't traced
+     * */
+    public Span startSpan(){
+        return pipelineMonitor.isTracing() ? Tracer.startSpan(Span.Kind.STEP, stepName, position) : null;
+    }
+
+    public void endSpan(Span span, boolean failed){
+        Tracer.endSpan(span, failed);
+    }
+
     public double clockMean(){
         return executionsTimer.mean(TimeUnit.MILLISECONDS);
     }
+
+    public <T> T clockBatch(int batchSize, Supplier<T> f){
+        final var metricsLevel = getMetricsLevel();
+
+        if(metricsLevel.isCounting())
+            batchSizes.record(batchSize);
+
+        if(!metricsLevel.isTiming())
+            return f.get();
+
+        return batchExecutionsTimer.record(f);
+    }
+
+    public double batchClockMean(){
+        return batchExecutionsTimer.mean(TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,36 @@
+package io.pipeline.pipe;
+
+import io.pipeline.step.Step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+final class Batches {
+    private Batches(){}
+
+    /**
+     * Applies <f> to the results of the succeeded outputs only, keeping the failed ones in their positions
+     * */
+    static <O, O2> List<Step.StepOutput<O2>> applyToSucceeded(List<Step.StepOutput<O>> outputs,
+                                                             Function<List<O>, List<Step.StepOutput<O2>>> f){
+        final var succeeded = new ArrayList<O>(outputs.size());
+
+        for (final var output : outputs)
+            if(output.succeeded())
+                succeeded.add(output.getResultObj());
+
+        final var applied = succeeded.isEmpty() ? List.<Step.StepOutput<O2>>of() : f.apply(succeeded);
+        final var merged = new ArrayList<Step.StepOutput<O2>>(outputs.size());
+        var appliedIndex = 0;
+
+        for (final var output : outputs) {
+            if(output.succeeded())
+                merged.add(applied.get(appliedIndex++));
+            else
+                merged.add(output.propagate());
+        }
+
+        return merged;
+    }
+}
@@ -0,0 +1,228 @@
+package io.pipeline.pipe;
+
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
+import io.pipeline.timeout.Deadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A flat execution plan of a pipe chain.
+ * Instead of recursing through every previous pipe, the steps are kept in an array
+ * and executed by a single loop, and adjacent pure steps are fused into one stage
+ * executed without retry and without per-step timing.
+ *
+ * @see Step#isPure()
+ * */
+public class CompiledPipe<I, O> implements IPipe<I, O> {
+    private final IPipe<I, O> source;
+    private final Stage[] stages;
+
+    public CompiledPipe(IPipe<I, O> source) {
+        this.source = source;
+
+        final var pipes = new ArrayList<Pipe<?, ?, ?>>();
+        source.flatten(pipes);
+
+        this.stages = compile(pipes);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public O applyOrThrow(Pipeline<?, ?> pipeline, final I in) {
+        Object current = in;
+
+        for (final Stage stage : stages)
+            current = stage.applyOrThrow(pipeline, current);
+
+        return (O) current;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public List<Step.StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, final List<I> in) {
+        final var initial = new ArrayList<Step.StepOutput<Object>>(in.size());
+        in.forEach(element -> initial.add(Step.StepOutput.success(element)));
+
+        List<Step.StepOutput<Object>> current = initial;
+
+        for (final Stage stage : stages)
+            current = Batches.applyToSucceeded(current, succeeded -> stage.applyBatch(pipeline, succeeded));
+
+        return (List<Step.StepOutput<O>>) (List<?>) current;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CompletableFuture<Step.StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, final I in, LogContext.Snapshot context) {
+        return (CompletableFuture<Step.StepOutput<O>>) (CompletableFuture<?>) applyAsync(pipeline, 0, in, context);
+    }
+
+    private CompletableFuture<Step.StepOutput<Object>> applyAsync(Pipeline<?, ?> pipeline, int stageIndex, Object in, LogContext.Snapshot context) {
+        if(stageIndex == stages.length)
+            return CompletableFuture.completedFuture(Step.StepOutput.success(in));
+
+        return stages[stageIndex].applyAsync(pipeline, in).thenCompose(context.wrap(Deadline.wrap(output -> {
+            if(output.failed())
+                return CompletableFuture.completedFuture(output);
+
+            return applyAsync(pipeline, stageIndex + 1, output.getResultObj(), context);
+        })));
+    }
+
+    /**
+     * The chain of primitive steps of the source, which is already unboxed and has nothing to fuse
+     * */
+    @Override
+    public PrimitivePipe asPrimitive() {
+        return source.asPrimitive();
+    }
+
+    @Override
+    public IPipe<I, O> copyFor(Pipeline<?, ?> pipeline) {
+        return new CompiledPipe<>(source.copyFor(pipeline));
+    }
+
+    @Override
+    public void flatten(List<Pipe<?, ?, ?>> pipes) {
+        source.flatten(pipes);
+    }
+
+    public int getStageCount(){
+        return stages.length;
+    }
+
+    private static Stage[] compile(List<Pipe<?, ?, ?>> pipes){
+        final var stages = new ArrayList<Stage>();
+        final var pureRun = new ArrayList<Pipe<?, ?, ?>>();
+
+        for (final Pipe<?, ?, ?> pipe : pipes) {
+            if(pipe.getStep().isPure()){
+                pureRun.add(pipe);
+                continue;
+            }
+
+            flushPureRun(pureRun, stages);
+            stages.add(new SingleStage(pipe));
+        }
+
+        flushPureRun(pureRun, stages);
+
+        return stages.toArray(new Stage[0]);
+    }
+
+    private static void flushPureRun(List<Pipe<?, ?, ?>> pureRun, List<Stage> stages){
+        if(pureRun.isEmpty())
+            return;
+
+        stages.add(new FusedStage(pureRun));
+        pureRun.clear();
+    }
+
+    private interface Stage {
+        Object applyOrThrow(Pipeline<?, ?> pipeline, Object in);
+
+        default Step.StepOutput<Object> apply(Pipeline<?, ?> pipeline, Object in) {
+            try {
+                return Step.StepOutput.success(applyOrThrow(pipeline, in));
+            } catch (StepFailure failure) {
+                return failure.getOutput();
+            }
+        }
+
+        List<Step.StepOutput<Object>> applyBatch(Pipeline<?, ?> pipeline, List<Object> in);
+
+        default CompletableFuture<Step.StepOutput<Object>> applyAsync(Pipeline<?, ?> pipeline, Object in) {
+            return CompletableFuture.completedFuture(apply(pipeline, in));
+        }
+    }
+
+    private static final class SingleStage implements Stage {
+        private final Step<Object, Object> step;
+        private final int stepPosition;
+        private final StepMonitor stepMonitor;
+
+        @SuppressWarnings("unchecked")
+        private SingleStage(Pipe<?, ?, ?> pipe) {
+            this.step = (Step<Object, Object>) pipe.getStep();
+            this.stepPosition = pipe.getStepPosition();
+            this.stepMonitor = pipe.getStepMonitor();
+        }
+
+        @Override
+        public Object applyOrThrow(Pipeline<?, ?> pipeline, Object in) {
+            return step.applyOrThrow(pipeline, stepPosition, stepMonitor, in);
+        }
+
+        @Override
+        public Step.StepOutput<Object> apply(Pipeline<?, ?> pipeline, Object in) {
+            return step.apply(pipeline, stepPosition, stepMonitor, in);
+        }
+
+        @Override
+        public List<Step.StepOutput<Object>> applyBatch(Pipeline<?, ?> pipeline, List<Object> in) {
+            return step.applyBatch(pipeline, stepPosition, stepMonitor, in);
+        }
+
+        @Override
+        public CompletableFuture<Step.StepOutput<Object>> applyAsync(Pipeline<?, ?> pipeline, Object in) {
+            return step.applyAsync(pipeline, stepPosition, stepMonitor, in);
+        }
+    }
+
+    private static final class FusedStage implements Stage {
+        private final Step<Object, Object>[] steps;
+        private final StepMonitor[] stepMonitors;
+
+        @SuppressWarnings("unchecked")
+        private FusedStage(List<Pipe<?, ?, ?>> pipes) {
+            final var size = pipes.size();
+
+            this.steps = new Step[size];
+            this.stepMonitors = new StepMonitor[size];
+
+            for (int i = 0; i < size; i++) {
+                final var pipe = pipes.get(i);
+
+                steps[i] = (Step<Object, Object>) pipe.getStep();
+                stepMonitors[i] = pipe.getStepMonitor();
+            }
+        }
+
+        @Override
+        public Object applyOrThrow(Pipeline<?, ?> pipeline, Object in) {
+            Object current = in;
+            int i = 0;
+
+            try {
+                for (; i < steps.length; i++)
+                    current = steps[i].process(current);
+            } catch (Exception e) {
+                final var stepMonitor = stepMonitors[i];
+
+                LogContext.step(stepMonitor.getStepName(), stepMonitor.getStepPosition());
+                stepMonitor.incrementFailureCount();
+
+                throw new StepFailure(Step.StepOutput.failure(e, stepMonitor, current));
+            }
+
+            return current;
+        }
+
+        @Override
+        public List<Step.StepOutput<Object>> applyBatch(Pipeline<?, ?> pipeline, List<Object> in) {
+            final var outputs = new ArrayList<Step.StepOutput<Object>>(in.size());
+
+            for (final Object element : in)
+                outputs.add(apply(pipeline, element));
+
+            return outputs;
+        }
+    }
+}
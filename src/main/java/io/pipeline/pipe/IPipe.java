@@ -1,10 +1,51 @@
 package io.pipeline.pipe;
 
+import io.pipeline.logging.LogContext;
 import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
 import io.pipeline.Pipeline;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface IPipe<I, O> {
-    Step.StepOutput<O> apply(Pipeline<?,?> pipeline, I in);
+    default Step.StepOutput<O> apply(Pipeline<?,?> pipeline, I in){
+        try {
+            return Step.StepOutput.success(applyOrThrow(pipeline, in));
+        } catch (StepFailure failure) {
+            return failure.getOutput();
+        }
+    }
+
+    /**
+     * Same as {@link #apply(Pipeline, Object)}, without wrapping the result of every step
+     *
+     * @throws StepFailure carrying the output of the failed step
+     * */
+    O applyOrThrow(Pipeline<?,?> pipeline, I in);
+
+    /**
+     * @return this chain applied to primitive values when it is made only of primitive steps, null otherwise
+     * */
+    default PrimitivePipe asPrimitive(){
+        return null;
+    }
+
+    /**
+     * @return one output per element of <in>, in the same order
+     * */
+    List<Step.StepOutput<O>> applyBatch(Pipeline<?,?> pipeline, List<I> in);
+
+    /**
+     * @param context the logging context of the execution, captured once when it starts
+     *                and restored by every step continuing on the thread that completed the previous one
+     * */
+    CompletableFuture<Step.StepOutput<O>> applyAsync(Pipeline<?,?> pipeline, I in, LogContext.Snapshot context);
 
     IPipe<I, O> copyFor(Pipeline<?, ?> pipeline);
+
+    /**
+     * Appends every {@link Pipe} of this chain to <pipes>, from the first step to the last one
+     * */
+    void flatten(List<Pipe<?, ?, ?>> pipes);
 }
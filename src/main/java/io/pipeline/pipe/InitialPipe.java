@@ -1,17 +1,76 @@
 package io.pipeline.pipe;
 
 
+import io.pipeline.logging.LogContext;
+import io.pipeline.step.PrimitiveKind;
 import io.pipeline.step.Step;
 import io.pipeline.Pipeline;
 
-public class InitialPipe<T> implements IPipe<T, T> {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+
+public class InitialPipe<T> implements IPipe<T, T>, PrimitivePipe {
+    private final PrimitiveKind kind;
+
+    public InitialPipe() {
+        this(null);
+    }
+
+    /**
+     * @param kind the type of the inputs of a primitive pipeline, or null
+     * */
+    public InitialPipe(PrimitiveKind kind) {
+        this.kind = kind;
+    }
+
     @Override
-    public Step.StepOutput<T> apply(Pipeline<?, ?> pipeline, final T in){
-        return Step.StepOutput.success(in);
+    public T applyOrThrow(Pipeline<?, ?> pipeline, final T in){
+        return in;
+    }
+
+    @Override
+    public PrimitivePipe asPrimitive() {
+        return isNull(kind) ? null : this;
+    }
+
+    @Override
+    public long applyAsLong(Pipeline<?, ?> pipeline, long in) {
+        return in;
+    }
+
+    @Override
+    public PrimitiveKind getInputKind() {
+        return kind;
+    }
+
+    @Override
+    public PrimitiveKind getOutputKind() {
+        return kind;
+    }
+
+    @Override
+    public List<Step.StepOutput<T>> applyBatch(Pipeline<?, ?> pipeline, List<T> in) {
+        final var outputs = new ArrayList<Step.StepOutput<T>>(in.size());
+        in.forEach(element -> outputs.add(Step.StepOutput.success(element)));
+
+        return outputs;
+    }
+
+    @Override
+    public CompletableFuture<Step.StepOutput<T>> applyAsync(Pipeline<?, ?> pipeline, T in, LogContext.Snapshot context) {
+        return CompletableFuture.completedFuture(Step.StepOutput.success(in));
     }
 
     @Override
     public IPipe<T, T> copyFor(Pipeline<?, ?> pipeline) {
-        return new InitialPipe<>();
+        return new InitialPipe<>(kind);
+    }
+
+    @Override
+    public void flatten(List<Pipe<?, ?, ?>> pipes) {
+        //The initial pipe has no step
     }
 }
@@ -1,15 +1,25 @@
 package io.pipeline.pipe;
 
 
+import io.pipeline.logging.LogContext;
 import io.pipeline.monitor.PipelineMonitor;
 import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.PrimitiveKind;
+import io.pipeline.step.PrimitiveStep;
 import io.pipeline.step.Step;
+import io.pipeline.timeout.Deadline;
 import io.pipeline.Pipeline;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+
 public class Pipe<I, O, O2> implements IPipe<I, O2> {
     private final IPipe<I, O> previousPipe;
 
     private final Step<O, O2> step;
+    private final PrimitivePipe primitivePipe;
     private final int stepPosition;
     private final StepMonitor stepMonitor;
 
@@ -20,20 +30,88 @@ public class Pipe<I, O, O2> implements IPipe<I, O2> {
         this.step = step;
         this.stepPosition = stepCount;
         this.stepMonitor = new StepMonitor(pipelineMonitor, step.getStepName(stepPosition), stepPosition);
+        this.primitivePipe = primitiveOf(previousPipe.asPrimitive(), step, stepPosition, stepMonitor);
+
+        step.bind(stepMonitor);
+    }
+
+    @Override
+    public O2 applyOrThrow(Pipeline<?, ?> pipeline, final I in){
+        return step.applyOrThrow(pipeline, stepPosition, stepMonitor, previousPipe.applyOrThrow(pipeline, in));
+    }
+
+    @Override
+    public PrimitivePipe asPrimitive() {
+        return primitivePipe;
+    }
+
+    /**
+     * @return the chain of <previous> followed by <step>, when both are primitive and the types match, null otherwise
+     * */
+    private static PrimitivePipe primitiveOf(PrimitivePipe previous, Step<?, ?> step, int stepPosition, StepMonitor stepMonitor){
+        if(isNull(previous) || !(step instanceof PrimitiveStep))
+            return null;
+
+        final var primitiveStep = (PrimitiveStep<?, ?>) step;
+
+        if(primitiveStep.getInputKind() != previous.getOutputKind())
+            return null;
+
+        return new PrimitivePipe() {
+            @Override
+            public long applyAsLong(Pipeline<?, ?> pipeline, long in) {
+                return primitiveStep.applyBits(pipeline, stepPosition, stepMonitor, previous.applyAsLong(pipeline, in));
+            }
+
+            @Override
+            public PrimitiveKind getInputKind() {
+                return previous.getInputKind();
+            }
+
+            @Override
+            public PrimitiveKind getOutputKind() {
+                return primitiveStep.getOutputKind();
+            }
+        };
     }
 
     @Override
-    public Step.StepOutput<O2> apply(Pipeline<?, ?> pipeline, final I in){
-        final var currentOutput = previousPipe.apply(pipeline, in);
+    public List<Step.StepOutput<O2>> applyBatch(Pipeline<?, ?> pipeline, final List<I> in){
+        final var currentOutputs = previousPipe.applyBatch(pipeline, in);
 
-        if(currentOutput.failed())
-            return Step.StepOutput.failure(currentOutput.getLastException(), currentOutput.getStepName());
+        return Batches.applyToSucceeded(currentOutputs, succeeded -> step.applyBatch(pipeline, stepPosition, stepMonitor, succeeded));
+    }
 
-        return step.apply(pipeline, stepPosition, stepMonitor, currentOutput.getResultObj());
+    @Override
+    public CompletableFuture<Step.StepOutput<O2>> applyAsync(Pipeline<?, ?> pipeline, final I in, LogContext.Snapshot context){
+        return previousPipe.applyAsync(pipeline, in, context).thenCompose(context.wrap(Deadline.wrap(currentOutput -> {
+            if(currentOutput.failed())
+                return CompletableFuture.completedFuture(currentOutput.<O2>propagate());
+
+            return step.applyAsync(pipeline, stepPosition, stepMonitor, currentOutput.getResultObj());
+        })));
     }
 
     @Override
     public IPipe<I, O2> copyFor(Pipeline<?, ?> pipeline){
         return new Pipe<>(previousPipe.copyFor(pipeline), step, pipeline.getMonitor(), stepPosition);
     }
+
+    @Override
+    public void flatten(List<Pipe<?, ?, ?>> pipes) {
+        previousPipe.flatten(pipes);
+        pipes.add(this);
+    }
+
+    public Step<O, O2> getStep() {
+        return step;
+    }
+
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    public StepMonitor getStepMonitor() {
+        return stepMonitor;
+    }
 }
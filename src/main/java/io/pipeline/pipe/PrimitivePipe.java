@@ -0,0 +1,25 @@
+package io.pipeline.pipe;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.PrimitiveKind;
+import io.pipeline.step.StepFailure;
+
+/**
+ * A chain made only of primitive steps, applied to the bits of its input without boxing.
+ * It only exists for such a chain, see {@link IPipe#asPrimitive()}
+ *
+ * @see io.pipeline.step.PrimitiveStep
+ * */
+public interface PrimitivePipe {
+
+    /**
+     * Same as {@link IPipe#applyOrThrow(Pipeline, Object)}, with the input and the result as the bits of a long
+     *
+     * @throws StepFailure carrying the output of the failed step
+     * */
+    long applyAsLong(Pipeline<?,?> pipeline, long in);
+
+    PrimitiveKind getInputKind();
+
+    PrimitiveKind getOutputKind();
+}
@@ -0,0 +1,10 @@
+package io.pipeline.retry;
+
+/**
+ * One attempt of a retried call, taking its target and argument as parameters
+ * so the same non-capturing instance serves every call
+ * */
+@FunctionalInterface
+interface Attempt<A, B, T> {
+    T run(A target, B argument) throws Exception;
+}
@@ -0,0 +1,274 @@
+package io.pipeline.retry;
+
+import io.pipeline.error.StepException;
+import io.pipeline.step.PrimitiveStep;
+import io.pipeline.step.Step;
+import io.pipeline.timeout.Deadline;
+import io.pipeline.timeout.DeadlineExceededException;
+import io.pipeline.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static java.util.Objects.isNull;
+
+
+/**
+* This class is a provided implementation of a retry strategy with exponential backoff and jitter.
+* Only the exceptions accepted by the retry predicate are retried, and when a {@link RetryBudget} is set
+* the retries of the whole pipeline are capped to a percentage of its traffic.
+* When the execution has a {@link Deadline}, no attempt is started once it is spent,
+* and the retries give up straight away when the next delay would end past it.
+* */
+public final class BackoffRetry implements IRetry{
+    public static final Logger log = LoggerFactory.getLogger(BackoffRetry.class);
+
+    public static final int DEFAULT_ATTEMPTS = 5;
+    public static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(100);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final double DEFAULT_JITTER = 0.5;
+
+    /**
+     * Intentional interruptions and errors that a retry can't fix are not retried
+     * */
+    public static final Predicate<Exception> TRANSIENT_ERRORS = e -> !(e instanceof StepException
+            || e instanceof IllegalArgumentException
+            || e instanceof NullPointerException
+            || e instanceof UnsupportedOperationException);
+
+    private int attempts = DEFAULT_ATTEMPTS;
+    private long initialDelayMillis = DEFAULT_INITIAL_DELAY.toMillis();
+    private long maxDelayMillis = DEFAULT_MAX_DELAY.toMillis();
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+    private Predicate<Exception> retryOn = TRANSIENT_ERRORS;
+    private RetryBudget budget;
+
+    public BackoffRetry setAttempts(int attempts) {
+        if(attempts < 1) throw new AssertionError("<attempts> must be greater than zero");
+        this.attempts = attempts;
+        return this;
+    }
+
+    public BackoffRetry setInitialDelay(Duration initialDelay) {
+        if(isNull(initialDelay)) throw new AssertionError("<initialDelay> cannot be null");
+        this.initialDelayMillis = initialDelay.toMillis();
+        return this;
+    }
+
+    public BackoffRetry setMaxDelay(Duration maxDelay) {
+        if(isNull(maxDelay)) throw new AssertionError("<maxDelay> cannot be null");
+        this.maxDelayMillis = maxDelay.toMillis();
+        return this;
+    }
+
+    public BackoffRetry setMultiplier(double multiplier) {
+        if(multiplier < 1) throw new AssertionError("<multiplier> cannot be less than 1");
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * @param jitter the fraction of each delay that is randomized, 0 disables it and 1 is the full jitter
+     * */
+    public BackoffRetry setJitter(double jitter) {
+        if(jitter < 0 || jitter > 1) throw new AssertionError("<jitter> must be between 0 and 1");
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * @param retryOn tells which exceptions are worth a retry, the others fail at the first attempt
+     * */
+    public BackoffRetry retryOn(Predicate<Exception> retryOn) {
+        if(isNull(retryOn)) throw new AssertionError("<retryOn> cannot be null");
+        this.retryOn = retryOn;
+        return this;
+    }
+
+    public BackoffRetry setBudget(RetryBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    @Override
+    public <T> T doTry(Retryable<T> retryable) throws Exception {
+        return doTry(retryable, AttemptListener.NONE);
+    }
+
+    @Override
+    public <T> T doTry(Retryable<T> retryable, AttemptListener listener) throws Exception {
+        return doTry((target, ignored) -> target.doTry(), retryable, null, listener);
+    }
+
+    @Override
+    public <I, O> O doTry(Step<I, O> step, I in, AttemptListener listener) throws Exception {
+        return doTry(Step::process, step, in, listener);
+    }
+
+    @Override
+    public long doTryPrimitive(PrimitiveStep<?, ?> step, long in, AttemptListener listener) throws Exception {
+        return doTryBits(PrimitiveStep::processBits, step, in, listener);
+    }
+
+    private <A, B, T> T doTry(Attempt<A, B, T> attempt, A target, B argument, AttemptListener listener) throws Exception {
+        final var deadline = start();
+
+        for(var currentAttempt = 1; ; currentAttempt++){
+            try {
+                onAttempt(currentAttempt, listener);
+                return attempt.run(target, argument);
+            }catch (Exception e){
+                awaitRetry(e, currentAttempt, deadline);
+            }
+        }
+    }
+
+    /**
+     * Same loop as {@link #doTry(Attempt, Object, Object, AttemptListener)}, returning the bits of the result without boxing them
+     * */
+    private <A> long doTryBits(LongAttempt<A> attempt, A target, long argument, AttemptListener listener) throws Exception {
+        final var deadline = start();
+
+        for(var currentAttempt = 1; ; currentAttempt++){
+            try {
+                onAttempt(currentAttempt, listener);
+                return attempt.run(target, argument);
+            }catch (Exception e){
+                awaitRetry(e, currentAttempt, deadline);
+            }
+        }
+    }
+
+    /**
+     * @return the deadline of the execution, once checked that an attempt can start
+     * */
+    private long start(){
+        depositToBudget();
+        final var deadline = Deadline.get();
+        Deadline.check(deadline, null);
+
+        return deadline;
+    }
+
+    private static void onAttempt(int currentAttempt, AttemptListener listener){
+        log.debug("BackoffRetry: Executing attempt: {}", currentAttempt);
+        listener.onAttempt(currentAttempt);
+    }
+
+    /**
+     * Waits for the attempt after the failed <currentAttempt>, or throws when it must not be retried
+     * */
+    private void awaitRetry(Exception e, int currentAttempt, long deadline) throws Exception {
+        log.warn("BackoffRetry: Attempt {} failed - exception class: {} - msg: {}", currentAttempt, e.getClass().getName(), e.getMessage());
+
+        if(!shouldRetry(e, currentAttempt))
+            throw e;
+
+        final var delayMillis = delayMillis(currentAttempt);
+        checkDeadline(deadline, delayMillis, e);
+
+        sleep(delayMillis, e);
+    }
+
+    /**
+    * Same strategy of {@link #doTry(Retryable, AttemptListener)}, but the delays are scheduled
+    * instead of sleeping, so no thread is parked between the attempts
+    * */
+    @Override
+    public <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable, AttemptListener listener) {
+        depositToBudget();
+        return doTryAsync(retryable, listener, 1, Deadline.get());
+    }
+
+    private <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable, AttemptListener listener, int currentAttempt, long deadline) {
+        onAttempt(currentAttempt, listener);
+
+        return IRetry.attempt(retryable).handle((result, t) -> {
+            if(t == null)
+                return CompletableFuture.completedFuture(result);
+
+            final var e = Utils.unwrap(t);
+            log.warn("BackoffRetry: Attempt {} failed - exception class: {} - msg: {}", currentAttempt, e.getClass().getName(), e.getMessage());
+
+            if(!shouldRetry(e, currentAttempt))
+                return CompletableFuture.<T>failedFuture(e);
+
+            final var delayMillis = delayMillis(currentAttempt);
+
+            try {
+                checkDeadline(deadline, delayMillis, e);
+            } catch (DeadlineExceededException exceeded) {
+                return CompletableFuture.<T>failedFuture(exceeded);
+            }
+
+            final var delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> {}, delayed).thenCompose(ignored -> doTryAsync(retryable, listener, currentAttempt + 1, deadline));
+        }).thenCompose(future -> future);
+    }
+
+    private boolean shouldRetry(Exception e, int currentAttempt){
+        if(!retryOn.test(e)){
+            log.debug("BackoffRetry: {} is not retryable", e.getClass().getName());
+            return false;
+        }
+
+        if(currentAttempt >= attempts){
+            log.error("All {} attempts failed", attempts);
+            return false;
+        }
+
+        if(!isNull(budget) && !budget.tryWithdraw()){
+            log.warn("BackoffRetry: Retry budget exhausted, giving up after attempt {}", currentAttempt);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits for the next attempt. An interruption stops the retries: the flag is restored
+     * and <lastException> is thrown with the interruption suppressed
+     * */
+    private static void sleep(long delayMillis, Exception lastException) throws Exception {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            log.warn("BackoffRetry: Interrupted while waiting for the next attempt, giving up");
+
+            lastException.addSuppressed(interrupted);
+            throw lastException;
+        }
+    }
+
+    private static void checkDeadline(long deadline, long delayMillis, Exception lastException){
+        if(Deadline.remainingNanos(deadline) <= TimeUnit.MILLISECONDS.toNanos(delayMillis)){
+            log.warn("BackoffRetry: The deadline of the execution ends before the next attempt, giving up");
+            throw new DeadlineExceededException(lastException);
+        }
+    }
+
+    private void depositToBudget(){
+        if(!isNull(budget))
+            budget.deposit();
+    }
+
+    long delayMillis(int failedAttempt){
+        final var exponential = initialDelayMillis * Math.pow(multiplier, failedAttempt - 1);
+        final var capped = Math.min(maxDelayMillis, exponential);
+        final var randomized = capped * jitter * ThreadLocalRandom.current().nextDouble();
+
+        return (long) (capped - randomized);
+    }
+}
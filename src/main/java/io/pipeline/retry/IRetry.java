@@ -1,10 +1,100 @@
 package io.pipeline.retry;
 
+import io.pipeline.step.PrimitiveStep;
+import io.pipeline.step.Step;
+import io.pipeline.timeout.Deadline;
+import io.pipeline.utils.Utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public interface IRetry {
     @FunctionalInterface
     interface Retryable<T>{
         T doTry() throws Exception;
     }
 
+    @FunctionalInterface
+    interface AsyncRetryable<T>{
+        CompletableFuture<T> doTry() throws Exception;
+    }
+
+    /**
+     * Notified before every attempt, with the attempt number starting at 1
+     * */
+    @FunctionalInterface
+    interface AttemptListener{
+        AttemptListener NONE = attempt -> {};
+
+        void onAttempt(int attempt);
+    }
+
     <T> T doTry(Retryable<T> retryable) throws Exception;
+
+    /**
+     * Same as {@link #doTry(Retryable)}, notifying <listener> of every attempt.
+     * No attempt is started once the {@link Deadline} of the execution is spent
+     * */
+    default <T> T doTry(Retryable<T> retryable, AttemptListener listener) throws Exception {
+        final var attempt = new AtomicInteger();
+        final var deadline = Deadline.get();
+
+        return doTry(() -> {
+            Deadline.check(deadline, null);
+            listener.onAttempt(attempt.incrementAndGet());
+            return retryable.doTry();
+        });
+    }
+
+    /**
+     * Same as {@link #doTry(Retryable, AttemptListener)} over {@link Step#process} of <step>.
+     * Implementations should override it to retry the step without allocating a {@link Retryable} per call
+     * */
+    default <I, O> O doTry(Step<I, O> step, I in, AttemptListener listener) throws Exception {
+        return doTry(() -> step.process(in), listener);
+    }
+
+    /**
+     * Same as {@link #doTry(Step, Object, AttemptListener)} over {@link PrimitiveStep#processBits} of <step>.
+     * This default implementation boxes the result, implementations should override it to retry the step without boxing
+     * */
+    default long doTryPrimitive(PrimitiveStep<?, ?> step, long in, AttemptListener listener) throws Exception {
+        return doTry(() -> step.processBits(in), listener);
+    }
+
+    default <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable){
+        return doTryAsync(retryable, AttemptListener.NONE);
+    }
+
+    /**
+     * Retries a non-blocking operation. This default implementation waits for every attempt
+     * on the calling thread, implementations should override it to retry without blocking
+     * */
+    default <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable, AttemptListener listener){
+        try {
+            return CompletableFuture.completedFuture(doTry(() -> join(retryable.doTry()), listener));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Starts an attempt, turning an exception thrown before the future is created into a failed future
+     * */
+    static <T> CompletableFuture<T> attempt(AsyncRetryable<T> retryable){
+        try {
+            return retryable.doTry();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw Utils.unwrap(e);
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package io.pipeline.retry;
+
+/**
+ * Same as {@link Attempt}, for an argument and a result that are the bits of a primitive value,
+ * so retrying a primitive step doesn't box them
+ * */
+@FunctionalInterface
+interface LongAttempt<A> {
+    long run(A target, long argument) throws Exception;
+}
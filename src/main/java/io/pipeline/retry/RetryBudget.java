@@ -0,0 +1,54 @@
+package io.pipeline.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the retries to a percentage of the traffic, so during an outage the retries don't
+ * multiply the load of the failing dependency.
+ * Every first attempt deposits <ratio> of a token, up to <maxTokens>, and every retry withdraws a whole token.
+ * When there is no whole token left the retry is not made.
+ * */
+public final class RetryBudget {
+    private static final long SCALE = 1000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio the retries allowed per call, e.g. 0.1 allows retrying 10% of the calls
+     * @param maxTokens the retries that can be saved up while there are no failures
+     * */
+    public RetryBudget(double ratio, int maxTokens) {
+        if(ratio <= 0) throw new AssertionError("<ratio> must be greater than zero");
+        if(maxTokens < 1) throw new AssertionError("<maxTokens> must be greater than zero");
+
+        this.depositPerCall = Math.max(1, (long) (ratio * SCALE));
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit(){
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * @return true if there was a token for the retry
+     * */
+    public boolean tryWithdraw(){
+        var current = balance.get();
+
+        while(current >= SCALE){
+            if(balance.compareAndSet(current, current - SCALE))
+                return true;
+
+            current = balance.get();
+        }
+
+        return false;
+    }
+
+    public double getAvailableTokens(){
+        return (double) balance.get() / SCALE;
+    }
+}
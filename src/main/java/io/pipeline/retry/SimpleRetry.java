@@ -1,11 +1,19 @@
 package io.pipeline.retry;
 
+import io.pipeline.step.PrimitiveStep;
+import io.pipeline.step.Step;
+import io.pipeline.timeout.Deadline;
+import io.pipeline.timeout.DeadlineExceededException;
+import io.pipeline.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 
 /**
-* This class is a provided implementation of a SimpleRetry strategy
+* This class is a provided implementation of a SimpleRetry strategy.
+* No attempt is started once the deadline of the execution is spent, see {@link Deadline}
 * */
 public final class SimpleRetry implements IRetry{
     public static final Logger log = LoggerFactory.getLogger(SimpleRetry.class);
@@ -35,25 +43,105 @@ public final class SimpleRetry implements IRetry{
     * */
     @Override
     public <T> T doTry(Retryable<T> retryable) throws Exception {
-        var remainingAttempts =  attempts;
-        Exception lastException;
+        return doTry(retryable, AttemptListener.NONE);
+    }
+
+    @Override
+    public <T> T doTry(Retryable<T> retryable, AttemptListener listener) throws Exception {
+        return doTry((target, ignored) -> target.doTry(), retryable, null, listener);
+    }
+
+    @Override
+    public <I, O> O doTry(Step<I, O> step, I in, AttemptListener listener) throws Exception {
+        return doTry(Step::process, step, in, listener);
+    }
+
+    @Override
+    public long doTryPrimitive(PrimitiveStep<?, ?> step, long in, AttemptListener listener) throws Exception {
+        return doTryBits(PrimitiveStep::processBits, step, in, listener);
+    }
+
+    private <A, B, T> T doTry(Attempt<A, B, T> attempt, A target, B argument, AttemptListener listener) throws Exception {
+        final var deadline = Deadline.get();
+        Deadline.check(deadline, null);
 
-        do{
-            final var currentAttempt = (attempts + 1) - remainingAttempts;
+        for(var currentAttempt = 1; ; currentAttempt++){
+            try {
+                onAttempt(currentAttempt, listener);
+                return attempt.run(target, argument);
+            }catch (Exception e){
+                checkRetry(e, currentAttempt, deadline);
+            }
+        }
+    }
+
+    /**
+     * Same loop as {@link #doTry(Attempt, Object, Object, AttemptListener)}, returning the bits of the result without boxing them
+     * */
+    private <A> long doTryBits(LongAttempt<A> attempt, A target, long argument, AttemptListener listener) throws Exception {
+        final var deadline = Deadline.get();
+        Deadline.check(deadline, null);
 
+        for(var currentAttempt = 1; ; currentAttempt++){
             try {
-                log.debug("SimpleRetry: Executing attempt: {}", currentAttempt);
-                return retryable.doTry();
+                onAttempt(currentAttempt, listener);
+                return attempt.run(target, argument);
             }catch (Exception e){
-                log.warn("SimpleRetry: Attempt {} failed - exception class: {} - msg: {}", currentAttempt, e.getClass().getName(), e.getMessage());
+                checkRetry(e, currentAttempt, deadline);
+            }
+        }
+    }
+
+    private static void onAttempt(int currentAttempt, AttemptListener listener){
+        log.debug("SimpleRetry: Executing attempt: {}", currentAttempt);
+        listener.onAttempt(currentAttempt);
+    }
+
+    /**
+     * Throws when the failed <currentAttempt> was the last one or the deadline of the execution is spent
+     * */
+    private void checkRetry(Exception e, int currentAttempt, long deadline) throws Exception {
+        log.warn("SimpleRetry: Attempt {} failed - exception class: {} - msg: {}", currentAttempt, e.getClass().getName(), e.getMessage());
+
+        if(currentAttempt >= attempts){
+            log.error("All {} attempts failed", attempts);
+            throw e;
+        }
+
+        Deadline.check(deadline, e);
+    }
+
+    /**
+    * Same strategy of {@link #doTry(Retryable)}, but the next attempt is only started
+    * when the previous one completes, so no thread is blocked waiting for it
+    *
+    * @param retryable {@link AsyncRetryable<T>}
+    * @return a future completed with the result of the first successful attempt
+    * */
+    @Override
+    public <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable, AttemptListener listener) {
+        return doTryAsync(retryable, listener, 1, Deadline.get());
+    }
+
+    private <T> CompletableFuture<T> doTryAsync(AsyncRetryable<T> retryable, AttemptListener listener, int currentAttempt, long deadline) {
+        onAttempt(currentAttempt, listener);
+
+        return IRetry.attempt(retryable).handle((result, t) -> {
+            if(t == null)
+                return CompletableFuture.completedFuture(result);
+
+            final var e = Utils.unwrap(t);
+            log.warn("SimpleRetry: Attempt {} failed - exception class: {} - msg: {}", currentAttempt, e.getClass().getName(), e.getMessage());
 
-                lastException = e;
-                remainingAttempts--;
+            if(currentAttempt >= attempts){
+                log.error("All {} attempts failed", attempts);
+                return CompletableFuture.<T>failedFuture(e);
             }
 
-        }while(remainingAttempts > 0);
+            if(Deadline.isExpired(deadline))
+                return CompletableFuture.<T>failedFuture(new DeadlineExceededException(e));
 
-        log.error("All {} attempts failed", attempts);
-        throw lastException;
+            return doTryAsync(retryable, listener, currentAttempt + 1, deadline);
+        }).thenCompose(future -> future);
     }
 }
@@ -0,0 +1,54 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.utils.Utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A non-blocking step, e.g. a call to an asynchronous client.
+ * When the pipeline is executed with {@link Pipeline#executeAsync(Object)} no thread waits for it,
+ * when executed with {@link Pipeline#execute(Object)} the calling thread waits for the returned future.
+ * */
+public interface AsyncStep<I, O> extends Step<I, O> {
+
+    CompletableFuture<O> processAsync(I in);
+
+    @Override
+    default O process(I in) {
+        try {
+            return processAsync(in).join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    @Override
+    default CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+
+        log.debug("executing");
+        final var context = LogContext.capture();
+        final var start = monitor.startClock();
+
+        return pipeline.getRetry().doTryAsync(() -> processAsync(in), monitor.getAttemptListener()).handle((result, t) -> {
+            monitor.stopClock(start);
+
+            try (var restored = context.restore()) {
+                if(log.isDebugEnabled())
+                    log.debug("Took {}ms", monitor.clockMean());
+
+                if(t == null)
+                    return StepOutput.success(result);
+
+                monitor.incrementFailureCount();
+                return StepOutput.failure(Utils.unwrap(t), monitor, in);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A step able to process a whole batch of elements in a single call,
+ * e.g. one database round trip per batch instead of one per element.
+ * When a batch fails even after the retries, its elements are processed one by one
+ * so that only the bad elements fail.
+ *
+ * @see Pipeline#executeBatch(List)
+ * */
+public interface BatchStep<I, O> extends Step<I, O> {
+
+    /**
+     * @return the results in the same order of <in>, with exactly one result per element
+     * */
+    List<O> processBatch(List<I> in);
+
+    @Override
+    default O process(I in) {
+        return processBatch(Collections.singletonList(in)).get(0);
+    }
+
+    @Override
+    default List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final List<I> in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+
+        log.debug("executing batch of {} elements", in.size());
+        final List<StepOutput<O>> result = monitor.clockBatch(in.size(), () -> {
+            final List<O> batchResult;
+
+            try {
+                batchResult = pipeline.getRetry().doTry(() -> processBatch(in), monitor.getAttemptListener());
+
+                if(batchResult.size() != in.size())
+                    throw new IllegalStateException("Batch of " + in.size() + " elements returned " + batchResult.size() + " results");
+            } catch (Exception e) {
+                log.warn("Batch failed, processing its elements one by one - msg: {}", e.getMessage());
+                return Step.super.applyBatch(pipeline, myPosition, monitor, in);
+            }
+
+            final var outputs = new ArrayList<StepOutput<O>>(batchResult.size());
+            batchResult.forEach(o -> outputs.add(StepOutput.success(o)));
+
+            return outputs;
+        });
+        log.debug("Took {}ms", monitor.batchClockMean());
+
+        return result;
+    }
+}
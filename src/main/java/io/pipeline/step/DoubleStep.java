@@ -0,0 +1,32 @@
+package io.pipeline.step;
+
+/**
+ * A step from double to double, executed without boxing by a pipeline made only of primitive steps
+ *
+ * @see PrimitiveStep
+ * */
+@FunctionalInterface
+public interface DoubleStep extends PrimitiveStep<Double, Double> {
+
+    double processDouble(double in);
+
+    @Override
+    default Double process(Double in) {
+        return processDouble(in);
+    }
+
+    @Override
+    default long processBits(long in) {
+        return Double.doubleToRawLongBits(processDouble(Double.longBitsToDouble(in)));
+    }
+
+    @Override
+    default PrimitiveKind getInputKind() {
+        return PrimitiveKind.DOUBLE;
+    }
+
+    @Override
+    default PrimitiveKind getOutputKind() {
+        return PrimitiveKind.DOUBLE;
+    }
+}
@@ -0,0 +1,42 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.timeout.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Binds a step to its own {@link Executor}, e.g. an I/O pool for blocking calls and a CPU pool for computations.
+ * The binding only takes effect on {@link Pipeline#executeAsync(Object)},
+ * {@link Pipeline#execute(Object)} keeps running the step on the calling thread.
+ * */
+public final class ExecutorBoundStep<I, O> extends ForwardingStep<I, O> {
+    private final Executor executor;
+
+    public ExecutorBoundStep(Step<I, O> delegate, Executor executor) {
+        super(delegate);
+
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public O applyOrThrow(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return delegate.applyOrThrow(pipeline, myPosition, monitor, in);
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return CompletableFuture.supplyAsync(LogContext.wrap(Deadline.wrap(() -> delegate.applyAsync(pipeline, myPosition, monitor, in))), executor)
+                .thenCompose(output -> output);
+    }
+}
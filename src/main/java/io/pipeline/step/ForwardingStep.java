@@ -0,0 +1,79 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Base class for steps that decorate another {@link Step}.
+ * The decorated step keeps its name, so logs and metrics remain the same
+ * whether the step is decorated or not.
+ * */
+public abstract class ForwardingStep<I, O> implements Step<I, O> {
+    protected final Step<I, O> delegate;
+
+    protected ForwardingStep(Step<I, O> delegate) {
+        if(isNull(delegate)) throw new AssertionError("<delegate> cannot be null");
+        this.delegate = delegate;
+    }
+
+    public Step<I, O> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * A decorator is never fused by a compiled pipeline, even when its delegate is pure, so it is never skipped.
+     * Only {@link PureStep} marks a step as pure
+     * */
+    @Override
+    public boolean isPure() {
+        return false;
+    }
+
+    @Override
+    public void bind(StepMonitor monitor) {
+        delegate.bind(monitor);
+    }
+
+    @Override
+    public String getStepName(int stepPosition) {
+        return delegate.getStepName(stepPosition);
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return delegate.apply(pipeline, myPosition, monitor, in);
+    }
+
+    /**
+     * Goes through {@link #apply}, so a decorator overriding it is never bypassed
+     * */
+    @Override
+    public O applyOrThrow(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        final var output = apply(pipeline, myPosition, monitor, in);
+
+        if(output.failed())
+            throw new StepFailure(output);
+
+        return output.getResultObj();
+    }
+
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        return delegate.applyBatch(pipeline, myPosition, monitor, in);
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return delegate.applyAsync(pipeline, myPosition, monitor, in);
+    }
+
+    @Override
+    public O process(I in) {
+        return delegate.process(in);
+    }
+}
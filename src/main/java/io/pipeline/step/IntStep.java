@@ -0,0 +1,32 @@
+package io.pipeline.step;
+
+/**
+ * A step from int to int, executed without boxing by a pipeline made only of primitive steps
+ *
+ * @see PrimitiveStep
+ * */
+@FunctionalInterface
+public interface IntStep extends PrimitiveStep<Integer, Integer> {
+
+    int processInt(int in);
+
+    @Override
+    default Integer process(Integer in) {
+        return processInt(in);
+    }
+
+    @Override
+    default long processBits(long in) {
+        return processInt((int) in);
+    }
+
+    @Override
+    default PrimitiveKind getInputKind() {
+        return PrimitiveKind.INT;
+    }
+
+    @Override
+    default PrimitiveKind getOutputKind() {
+        return PrimitiveKind.INT;
+    }
+}
@@ -0,0 +1,32 @@
+package io.pipeline.step;
+
+/**
+ * A step from long to long, executed without boxing by a pipeline made only of primitive steps
+ *
+ * @see PrimitiveStep
+ * */
+@FunctionalInterface
+public interface LongStep extends PrimitiveStep<Long, Long> {
+
+    long processLong(long in);
+
+    @Override
+    default Long process(Long in) {
+        return processLong(in);
+    }
+
+    @Override
+    default long processBits(long in) {
+        return processLong(in);
+    }
+
+    @Override
+    default PrimitiveKind getInputKind() {
+        return PrimitiveKind.LONG;
+    }
+
+    @Override
+    default PrimitiveKind getOutputKind() {
+        return PrimitiveKind.LONG;
+    }
+}
@@ -0,0 +1,51 @@
+package io.pipeline.step;
+
+/**
+ * The primitive types a {@link PrimitiveStep} works on. Between primitive steps a value travels as the bits of a long:
+ * an int widened, a long as it is, a double as its raw bits, so a single unboxed path serves every type
+ * */
+public enum PrimitiveKind {
+    INT {
+        @Override
+        public Object box(long bits) {
+            return (int) bits;
+        }
+
+        @Override
+        public long unbox(Object value) {
+            return (Integer) value;
+        }
+    },
+    LONG {
+        @Override
+        public Object box(long bits) {
+            return bits;
+        }
+
+        @Override
+        public long unbox(Object value) {
+            return (Long) value;
+        }
+    },
+    DOUBLE {
+        @Override
+        public Object box(long bits) {
+            return Double.longBitsToDouble(bits);
+        }
+
+        @Override
+        public long unbox(Object value) {
+            return Double.doubleToRawLongBits((Double) value);
+        }
+    };
+
+    /**
+     * @return the boxed value of <bits>
+     * */
+    public abstract Object box(long bits);
+
+    /**
+     * @return the bits of the boxed <value>
+     * */
+    public abstract long unbox(Object value);
+}
@@ -0,0 +1,54 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+
+/**
+ * A step over primitive values, see {@link IntStep}, {@link LongStep}, {@link DoubleStep} and the conversions of {@link PrimitiveSteps}.
+ * A pipeline made only of primitive steps carries its values unboxed from the input to the result,
+ * retries and metrics included, when it is executed with {@link Pipeline#executeLong(long)} and the like.
+ * In any other pipeline a primitive step is a regular step over boxed values.
+ * */
+public interface PrimitiveStep<I, O> extends Step<I, O> {
+
+    PrimitiveKind getInputKind();
+
+    PrimitiveKind getOutputKind();
+
+    /**
+     * @return the bits of the output of this step, for the input of bits <in>, see {@link PrimitiveKind}
+     * */
+    long processBits(long in);
+
+    @SuppressWarnings("unchecked")
+    @Override
+    default O process(I in) {
+        return (O) getOutputKind().box(processBits(getInputKind().unbox(in)));
+    }
+
+    /**
+     * Same as {@link #applyOrThrow}, with the input and the result as bits.
+     * Only a failure boxes the input, to hand it to the {@link StepFailure}
+     * */
+    default long applyBits(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, long in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+
+        log.debug("executing");
+        final var start = monitor.startClock();
+        final var span = monitor.startSpan();
+
+        try {
+            final var result = pipeline.getRetry().doTryPrimitive(this, in, monitor.getAttemptListener());
+            monitor.endSpan(span, false);
+
+            return result;
+        } catch (Exception e) {
+            monitor.endSpan(span, true);
+            monitor.incrementFailureCount();
+            throw new StepFailure(StepOutput.failure(e, monitor, getInputKind().box(in)));
+        } finally {
+            monitor.stopClock(start);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.pipeline.step;
+
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Conversion steps between primitive types, which keep a pipeline on its unboxed path,
+ * and between primitive and object stages, where the value is boxed or unboxed once
+ *
+ * @see PrimitiveStep
+ * */
+public final class PrimitiveSteps {
+
+    private PrimitiveSteps(){}
+
+    public static PrimitiveStep<Integer, Long> intToLong(IntToLongFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.INT, PrimitiveKind.LONG, in -> function.applyAsLong((int) in));
+    }
+
+    public static PrimitiveStep<Integer, Double> intToDouble(IntToDoubleFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.INT, PrimitiveKind.DOUBLE, in -> Double.doubleToRawLongBits(function.applyAsDouble((int) in)));
+    }
+
+    public static PrimitiveStep<Long, Integer> longToInt(LongToIntFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.LONG, PrimitiveKind.INT, function::applyAsInt);
+    }
+
+    public static PrimitiveStep<Long, Double> longToDouble(LongToDoubleFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.LONG, PrimitiveKind.DOUBLE, in -> Double.doubleToRawLongBits(function.applyAsDouble(in)));
+    }
+
+    public static PrimitiveStep<Double, Integer> doubleToInt(DoubleToIntFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.DOUBLE, PrimitiveKind.INT, in -> function.applyAsInt(Double.longBitsToDouble(in)));
+    }
+
+    public static PrimitiveStep<Double, Long> doubleToLong(DoubleToLongFunction function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return new Conversion<>(PrimitiveKind.DOUBLE, PrimitiveKind.LONG, in -> function.applyAsLong(Double.longBitsToDouble(in)));
+    }
+
+    /**
+     * @return a step leaving the primitive stages, its output is an object
+     * */
+    public static <O> Step<Integer, O> intToObj(IntFunction<O> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return in -> function.apply(in);
+    }
+
+    public static <O> Step<Long, O> longToObj(LongFunction<O> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return in -> function.apply(in);
+    }
+
+    public static <O> Step<Double, O> doubleToObj(DoubleFunction<O> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return in -> function.apply(in);
+    }
+
+    /**
+     * @return a step entering the primitive stages, its input is an object
+     * */
+    public static <I> Step<I, Integer> toInt(ToIntFunction<I> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return function::applyAsInt;
+    }
+
+    public static <I> Step<I, Long> toLong(ToLongFunction<I> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return function::applyAsLong;
+    }
+
+    public static <I> Step<I, Double> toDouble(ToDoubleFunction<I> function){
+        if(isNull(function)) throw new AssertionError("<function> cannot be null");
+        return function::applyAsDouble;
+    }
+
+    private static final class Conversion<I, O> implements PrimitiveStep<I, O> {
+        private final PrimitiveKind inputKind;
+        private final PrimitiveKind outputKind;
+        private final LongUnaryOperator function;
+
+        private Conversion(PrimitiveKind inputKind, PrimitiveKind outputKind, LongUnaryOperator function) {
+            this.inputKind = inputKind;
+            this.outputKind = outputKind;
+            this.function = function;
+        }
+
+        @Override
+        public PrimitiveKind getInputKind() {
+            return inputKind;
+        }
+
+        @Override
+        public PrimitiveKind getOutputKind() {
+            return outputKind;
+        }
+
+        @Override
+        public long processBits(long in) {
+            return function.applyAsLong(in);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+
+/**
+ * Marks a step as pure: no retry and no per-step timing are needed.
+ * Adjacent pure steps are fused into a single call by a compiled pipeline.
+ *
+ * @see io.pipeline.Pipeline#compile()
+ * */
+public final class PureStep<I, O> extends ForwardingStep<I, O> {
+
+    public PureStep(Step<I, O> delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public O applyOrThrow(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return delegate.applyOrThrow(pipeline, myPosition, monitor, in);
+    }
+}
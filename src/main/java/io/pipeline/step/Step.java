@@ -1,14 +1,17 @@
 package io.pipeline.step;
 
 
-import io.pipeline.logging.LoggingUtils;
+import io.pipeline.logging.LogContext;
 import io.pipeline.monitor.StepMonitor;
 import io.pipeline.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import io.pipeline.Pipeline;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static java.lang.String.format;
 
 public interface Step<I, O> {
@@ -26,13 +29,17 @@ public interface Step<I, O> {
          private final Exception lastException;
 
          private final String stepName;
+         private final int stepPosition;
+         private final Object stepInput;
 
 
-         private StepOutput(O resultObj, StepStatus status, Exception lastException, String stepName) {
+         private StepOutput(O resultObj, StepStatus status, Exception lastException, String stepName, int stepPosition, Object stepInput) {
              this.resultObj = resultObj;
              this.status = status;
              this.lastException = lastException;
              this.stepName = stepName;
+             this.stepPosition = stepPosition;
+             this.stepInput = stepInput;
          }
 
          public O getResultObj() {
@@ -47,6 +54,20 @@ public interface Step<I, O> {
              return stepName;
          }
 
+         /**
+          * @return the position of the failed step, or 0 when it is not known
+          * */
+         public int getStepPosition() {
+             return stepPosition;
+         }
+
+         /**
+          * @return the input of the failed step, to resume the execution from it
+          * */
+         public Object getStepInput() {
+             return stepInput;
+         }
+
          public boolean failed(){
              return StepStatus.FAILURE.equals(status);
          }
@@ -55,35 +76,106 @@ public interface Step<I, O> {
              return StepStatus.SUCCESS.equals(status);
          }
 
+         /**
+          * @return this failed output as the output of the steps following the failed one, keeping where it failed
+          * */
+         @SuppressWarnings("unchecked")
+         public <T> StepOutput<T> propagate(){
+             if(!failed()) throw new AssertionError("Only a failed output can be propagated");
+
+             return (StepOutput<T>) this;
+         }
+
          public static <O> StepOutput<O> success(O resultObj){
-             return new StepOutput<>(resultObj, StepStatus.SUCCESS, null, null);
+             return new StepOutput<>(resultObj, StepStatus.SUCCESS, null, null, 0, null);
          }
 
          public static <O> StepOutput<O> failure(Exception lastException, String stepName){
-             return new StepOutput<>(null, StepStatus.FAILURE, lastException, stepName);
+             return new StepOutput<>(null, StepStatus.FAILURE, lastException, stepName, 0, null);
+         }
+
+         public static <O> StepOutput<O> failure(Exception lastException, String stepName, int stepPosition, Object stepInput){
+             return new StepOutput<>(null, StepStatus.FAILURE, lastException, stepName, stepPosition, stepInput);
+         }
+
+         /**
+          * @return a failure of the step of <monitor>, which failed on <stepInput>
+          * */
+         public static <O> StepOutput<O> failure(Exception lastException, StepMonitor monitor, Object stepInput){
+             return failure(lastException, monitor.getStepName(), monitor.getPosition(), stepInput);
          }
      }
 
     default StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final I in) {
-        final var myName = getStepName(myPosition);
+        try {
+            return StepOutput.success(applyOrThrow(pipeline, myPosition, monitor, in));
+        } catch (StepFailure failure) {
+            return failure.getOutput();
+        }
+    }
 
-        MDC.put(LoggingUtils.MDC_STEP_NAME, myName);
-        MDC.put(LoggingUtils.MDC_STEP_POSITION, String.valueOf(myPosition));
+    /**
+     * Same as {@link #apply}, but the result is returned as it is and a failure is thrown as a {@link StepFailure}.
+     * The names and tags come precomputed from <monitor>, so a succeeded call allocates nothing of its own
+     * */
+    default O applyOrThrow(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
 
         log.debug("executing");
-        final StepOutput<O> result =  monitor.clock(()  -> {
+        final var start = monitor.startClock();
+        final var span = monitor.startSpan();
+
+        try {
+            final var result = pipeline.getRetry().doTry(this, in, monitor.getAttemptListener());
+            monitor.endSpan(span, false);
+
+            return result;
+        } catch (Exception e) {
+            monitor.endSpan(span, true);
+            monitor.incrementFailureCount();
+            throw new StepFailure(StepOutput.failure(e, monitor, in));
+        } finally {
+            monitor.stopClock(start);
+
+            if(log.isDebugEnabled())
+                log.debug("Took {}ms", monitor.clockMean());
+        }
+    }
 
-            try {
-                return StepOutput.success(pipeline.getRetry().doTry(() -> process(in)));
-            } catch (Exception e) {
-                monitor.incrementFailureCount();
-                return StepOutput.failure(e, myName);
-            }
+    /**
+     * Applies this step to every element of a batch, each one with its own retry and timing.
+     * Steps able to process many elements in a single call should implement {@link BatchStep}
+     * */
+    default List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final List<I> in) {
+        final var outputs = new ArrayList<StepOutput<O>>(in.size());
 
-        });
-        log.debug("Took {}ms", monitor.clockMean());
+        for (final I element : in)
+            outputs.add(apply(pipeline, myPosition, monitor, element));
 
-        return result;
+        return outputs;
+    }
+
+    /**
+     * Applies this step without blocking on it when the step is able to.
+     * By default the step is applied on the calling thread, see {@link AsyncStep}
+     * and {@link ExecutorBoundStep} for steps that are not
+     * */
+    default CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, final I in) {
+        return CompletableFuture.completedFuture(apply(pipeline, myPosition, monitor, in));
+    }
+
+    /**
+     * Called when the step is placed in a pipeline, so it can register its own meters on the monitor of its position
+     * */
+    default void bind(StepMonitor monitor){
+    }
+
+    /**
+     * A pure step runs without retry and without per-step timing,
+     * which allows a compiled pipeline to fuse it with its pure neighbours
+     * */
+    default boolean isPure(){
+        return false;
     }
 
     default String getStepName(int stepPosition){
@@ -96,4 +188,8 @@ public interface Step<I, O> {
     }
 
     O process(I in);
+
+    static <I, O> Step<I, O> pure(Step<I, O> step){
+        return new PureStep<>(step);
+    }
 }
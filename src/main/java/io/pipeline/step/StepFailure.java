@@ -0,0 +1,20 @@
+package io.pipeline.step;
+
+/**
+ * Carries the failed output of a step through {@link Step#applyOrThrow}, so the succeeded
+ * path doesn't need to wrap every result in a {@link Step.StepOutput}.
+ * It is a control flow signal, so no stack trace is filled in.
+ * */
+public final class StepFailure extends RuntimeException {
+    private final transient Step.StepOutput<?> output;
+
+    public StepFailure(Step.StepOutput<?> output) {
+        super(output.getStepName(), output.getLastException(), false, false);
+        this.output = output;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <O> Step.StepOutput<O> getOutput() {
+        return (Step.StepOutput<O>) output;
+    }
+}
@@ -0,0 +1,137 @@
+package io.pipeline.timeout;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Deadline of the executions running on the current thread, as a {@link System#nanoTime()} instant.
+ * An execution with a timeout opens a scope that sets the deadline, a nested execution can only bring it closer,
+ * and the retries stop attempting a step once it is spent, see {@link #check(long, Exception)}.
+ * <pre>
+ * try (var scope = Deadline.start(timeoutNanos)) {
+ *     ...
+ * }
+ * </pre>
+ * */
+public final class Deadline {
+    /**
+     * The deadline of a thread where no execution has a timeout
+     * */
+    public static final long NONE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Scope> scopes = ThreadLocal.withInitial(Scope::new);
+
+    private Deadline(){}
+
+    /**
+     * Opens a scope on the current thread ending <timeoutNanos> from now, or leaves the deadline as it is
+     * when <timeoutNanos> is not positive, in which case the thread local is not even read
+     *
+     * @return the scope to close when the execution ends
+     * */
+    public static Scope start(long timeoutNanos){
+        if(timeoutNanos <= 0)
+            return Scope.UNCHANGED;
+
+        return scopes.get().push(System.nanoTime() + timeoutNanos);
+    }
+
+    /**
+     * @return the deadline of the current thread, or {@link #NONE}
+     * */
+    public static long get(){
+        return scopes.get().deadline;
+    }
+
+    /**
+     * @return the nanos left before <deadline>, {@link #NONE} when there is no deadline
+     * */
+    public static long remainingNanos(long deadline){
+        if(deadline == NONE)
+            return NONE;
+
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    public static boolean isExpired(long deadline){
+        return deadline != NONE && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException when <deadline> is spent, caused by <lastException> if there is one
+     * */
+    public static void check(long deadline, Exception lastException){
+        if(isExpired(deadline))
+            throw new DeadlineExceededException(lastException);
+    }
+
+    /**
+     * @return <supplier> running with the deadline of the current thread, on whatever thread it runs
+     * */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier){
+        final var deadline = get();
+
+        if(deadline == NONE)
+            return supplier;
+
+        return () -> {
+            try (var scope = scopes.get().push(deadline)) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * @return <function> running with the deadline of the current thread, on whatever thread it runs
+     * */
+    public static <T, R> Function<T, R> wrap(Function<T, R> function){
+        final var deadline = get();
+
+        if(deadline == NONE)
+            return function;
+
+        return in -> {
+            try (var scope = scopes.get().push(deadline)) {
+                return function.apply(in);
+            }
+        };
+    }
+
+    /**
+     * The stack of the deadlines set on a thread, a single instance per thread so opening a scope allocates nothing
+     * */
+    public static final class Scope implements AutoCloseable {
+        private static final Scope UNCHANGED = new Scope();
+        private static final int INITIAL_DEPTH = 4;
+
+        private long[] savedDeadlines = new long[INITIAL_DEPTH];
+        private int depth;
+        private long deadline = NONE;
+
+        private Scope(){}
+
+        private Scope push(long newDeadline){
+            if(depth == savedDeadlines.length)
+                savedDeadlines = Arrays.copyOf(savedDeadlines, depth * 2);
+
+            savedDeadlines[depth++] = deadline;
+
+            if(deadline == NONE || newDeadline - deadline < 0)
+                deadline = newDeadline;
+
+            return this;
+        }
+
+        /**
+         * Puts back the deadline the thread had before this scope was opened
+         * */
+        @Override
+        public void close() {
+            if(this == UNCHANGED || depth == 0)
+                return;
+
+            deadline = savedDeadlines[--depth];
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package io.pipeline.timeout;
+
+/**
+ * Thrown by a retry when the deadline of the execution is spent, instead of attempting the step again.
+ * The cause is the exception of the last attempt, when there was one
+ * */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(Exception lastException) {
+        super("The deadline of the execution is exceeded", lastException);
+    }
+}
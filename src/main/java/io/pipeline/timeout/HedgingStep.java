@@ -0,0 +1,187 @@
+package io.pipeline.timeout;
+
+import io.pipeline.Pipeline;
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
+import io.pipeline.utils.Utils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Cuts the tail latency of a step: when a call takes longer than a percentile of the recent calls of the step,
+ * p95 by default, a duplicate call is started and the first one to succeed wins.
+ * Both calls go through the decorated step with its retries, on the executor of the step.
+ * The latencies are tracked by the step itself over its last {@value LatencyWindow#SIZE} calls,
+ * and nothing is hedged until {@value LatencyWindow#RECOMPUTE_EVERY} calls are recorded.
+ * The losing call is not interrupted, so the hedged step should be idempotent.
+ * The duplicate calls are counted as {@value #STEP_HEDGES_METRIC}. Both calls are also counted by the step
+ * as executions with their own latencies, so its executions exceed its inputs by the hedges.
+ * A batch goes to the decorated step as it is, since its latency doesn't compare to the one of a single call,
+ * and an asynchronous call is waited for on a virtual thread instead of the calling one.
+ * */
+public class HedgingStep<I, O> extends ForwardingStep<I, O> {
+    public static final String STEP_HEDGES_METRIC = "pipeline.step.hedges";
+    public static final double DEFAULT_PERCENTILE = 0.95;
+
+    private LatencyWindow latencies = new LatencyWindow(DEFAULT_PERCENTILE);
+    private long minDelayNanos;
+    private Executor executor = VirtualThreads.sharedExecutor();
+
+    public HedgingStep(Step<I, O> delegate) {
+        super(delegate);
+    }
+
+    /**
+     * @param percentile the percentile of the latencies after which a call is hedged, between 0 and 1
+     * */
+    public HedgingStep<I, O> setPercentile(double percentile) {
+        if(percentile <= 0 || percentile > 1) throw new AssertionError("<percentile> must be between 0 and 1");
+
+        this.latencies = new LatencyWindow(percentile);
+        return this;
+    }
+
+    /**
+     * @param minDelay the least a call waits before it is hedged, so fast steps are not hedged on noise
+     * */
+    public HedgingStep<I, O> setMinDelay(Duration minDelay) {
+        if(isNull(minDelay) || minDelay.isNegative()) throw new AssertionError("<minDelay> cannot be null or negative");
+
+        this.minDelayNanos = minDelay.toNanos();
+        return this;
+    }
+
+    public HedgingStep<I, O> setExecutor(Executor executor) {
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @return how long a call waits before it is hedged, or {@link Deadline#NONE} while there are not enough latencies
+     * */
+    public long getHedgeDelayNanos() {
+        final var percentileNanos = latencies.getPercentileNanos();
+
+        return percentileNanos == Deadline.NONE ? Deadline.NONE : Math.max(minDelayNanos, percentileNanos);
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+
+        try {
+            return StepOutput.success(hedged(monitor, () -> delegate.applyOrThrow(pipeline, myPosition, monitor, in)));
+        } catch (StepFailure failure) {
+            return failure.getOutput();
+        } catch (Exception e) {
+            monitor.incrementFailureCount();
+            return StepOutput.failure(e, monitor, in);
+        }
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return CompletableFuture.supplyAsync(LogContext.wrap(Deadline.wrap(() -> apply(pipeline, myPosition, monitor, in))),
+                VirtualThreads.sharedExecutor());
+    }
+
+    /**
+     * Runs {@link Step#process} of the decorated step outside of a pipeline, nothing is counted
+     * */
+    @Override
+    public O process(I in) {
+        try {
+            return hedged(null, () -> delegate.process(in));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param monitor the monitor of the step, or null when the call runs outside of a pipeline
+     * */
+    private O hedged(StepMonitor monitor, Supplier<O> delegateCall) throws Exception {
+        final var deadline = Deadline.get();
+        final var hedgeDelayNanos = getHedgeDelayNanos();
+        final var primary = submit(delegateCall);
+
+        if(hedgeDelayNanos == Deadline.NONE)
+            return await(primary, deadline);
+
+        try {
+            return primary.get(Math.min(hedgeDelayNanos, Deadline.remainingNanos(deadline)), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw Utils.unwrap(e);
+        } catch (TimeoutException e) {
+            Deadline.check(deadline, null);
+
+            if(!isNull(monitor))
+                monitor.counter(STEP_HEDGES_METRIC).increment();
+
+            return await(firstSucceeded(primary, submit(delegateCall)), deadline);
+        }
+    }
+
+    private CompletableFuture<O> submit(Supplier<O> delegateCall){
+        final var start = System.nanoTime();
+
+        return CompletableFuture.supplyAsync(LogContext.wrap(Deadline.wrap(delegateCall)), executor)
+                .whenComplete((result, t) -> {
+                    if(isNull(t))
+                        latencies.record(System.nanoTime() - start);
+                });
+    }
+
+    private static <O> O await(CompletableFuture<O> future, long deadline) throws Exception {
+        try {
+            if(deadline == Deadline.NONE)
+                return future.get();
+
+            return future.get(Deadline.remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw Utils.unwrap(e);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(null);
+        }
+    }
+
+    /**
+     * @return a future completed with the first call that succeeds, or with the failure of the last one when both fail
+     * */
+    private static <O> CompletableFuture<O> firstSucceeded(CompletableFuture<O> primary, CompletableFuture<O> hedge){
+        final var first = new CompletableFuture<O>();
+        final var failures = new AtomicInteger();
+
+        primary.whenComplete((result, t) -> complete(first, failures, result, t));
+        hedge.whenComplete((result, t) -> complete(first, failures, result, t));
+
+        return first;
+    }
+
+    private static <O> void complete(CompletableFuture<O> first, AtomicInteger failures, O result, Throwable t){
+        if(isNull(t)){
+            first.complete(result);
+            return;
+        }
+
+        if(failures.incrementAndGet() == 2)
+            first.completeExceptionally(t);
+    }
+}
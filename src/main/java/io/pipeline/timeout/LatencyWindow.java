@@ -0,0 +1,44 @@
+package io.pipeline.timeout;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latencies of the last calls of a step, and a percentile of them recomputed every few records,
+ * so reading the percentile costs a volatile read
+ * */
+final class LatencyWindow {
+    static final int SIZE = 256;
+    static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[SIZE];
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private volatile long percentileNanos = Deadline.NONE;
+
+    LatencyWindow(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long nanos){
+        final var count = recorded.getAndIncrement() + 1;
+        samples[(int) ((count - 1) % SIZE)] = nanos;
+
+        if(count % RECOMPUTE_EVERY == 0)
+            recompute((int) Math.min(count, SIZE));
+    }
+
+    /**
+     * @return the percentile of the window, or {@link Deadline#NONE} until {@value #RECOMPUTE_EVERY} calls are recorded
+     * */
+    long getPercentileNanos(){
+        return percentileNanos;
+    }
+
+    private void recompute(int count){
+        final var sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+
+        percentileNanos = sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+    }
+}
@@ -0,0 +1,10 @@
+package io.pipeline.timeout;
+
+/**
+ * Thrown by a {@link TimeoutStep} when a call of its step doesn't complete in time
+ * */
+public class StepTimeoutException extends RuntimeException {
+    public StepTimeoutException(String msg) {
+        super(msg);
+    }
+}
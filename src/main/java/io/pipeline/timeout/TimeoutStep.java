@@ -0,0 +1,143 @@
+package io.pipeline.timeout;
+
+import io.pipeline.Pipeline;
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.logging.LogContext;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.ForwardingStep;
+import io.pipeline.step.Step;
+import io.pipeline.step.StepFailure;
+import io.pipeline.utils.Utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * Bounds every call of a step, its retries included, to <timeout>, and to what is left of the deadline of the execution.
+ * The call runs on the executor of the step with <timeout> as its deadline, so no retry starts once it is spent,
+ * while the thread executing the pipeline waits for it. A call that doesn't complete in time is interrupted
+ * and fails with a {@link StepTimeoutException}, or a {@link DeadlineExceededException} when the deadline is what cut it short.
+ * A batch is bounded as a single call, and an asynchronous call is waited for on a virtual thread instead of the calling one.
+ * The calls that timed out are counted as {@value #STEP_TIMEOUTS_METRIC}.
+ * */
+public class TimeoutStep<I, O> extends ForwardingStep<I, O> {
+    public static final String STEP_TIMEOUTS_METRIC = "pipeline.step.timeouts";
+
+    private final long timeoutNanos;
+    private Executor executor = VirtualThreads.sharedExecutor();
+
+    public TimeoutStep(Step<I, O> delegate, Duration timeout) {
+        super(delegate);
+
+        if(isNull(timeout) || timeout.isNegative() || timeout.isZero()) throw new AssertionError("<timeout> must be positive");
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    public TimeoutStep<I, O> setExecutor(Executor executor) {
+        if(isNull(executor)) throw new AssertionError("<executor> cannot be null");
+
+        this.executor = executor;
+        return this;
+    }
+
+    public Duration getTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    @Override
+    public StepOutput<O> apply(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        LogContext.step(monitor.getStepName(), monitor.getStepPosition());
+
+        try {
+            return StepOutput.success(bounded(monitor, () -> delegate.applyOrThrow(pipeline, myPosition, monitor, in)));
+        } catch (StepFailure failure) {
+            return failure.getOutput();
+        } catch (Exception e) {
+            monitor.incrementFailureCount();
+            return StepOutput.failure(e, monitor, in);
+        }
+    }
+
+    /**
+     * Every element of the batch fails when the batch doesn't complete in time
+     * */
+    @Override
+    public List<StepOutput<O>> applyBatch(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, List<I> in) {
+        try {
+            return bounded(monitor, () -> delegate.applyBatch(pipeline, myPosition, monitor, in));
+        } catch (Exception e) {
+            final var outputs = new ArrayList<StepOutput<O>>(in.size());
+
+            for (final I element : in) {
+                monitor.incrementFailureCount();
+                outputs.add(StepOutput.failure(e, monitor, element));
+            }
+
+            return outputs;
+        }
+    }
+
+    @Override
+    public CompletableFuture<StepOutput<O>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, I in) {
+        return CompletableFuture.supplyAsync(LogContext.wrap(Deadline.wrap(() -> apply(pipeline, myPosition, monitor, in))),
+                VirtualThreads.sharedExecutor());
+    }
+
+    /**
+     * Runs a single call of {@link Step#process} of the decorated step outside of a pipeline, nothing is counted
+     * */
+    @Override
+    public O process(I in) {
+        try {
+            return bounded(null, () -> delegate.process(in));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param monitor the monitor of the step, or null when the call runs outside of a pipeline
+     * */
+    private <T> T bounded(StepMonitor monitor, Supplier<T> delegateCall) throws Exception {
+        final var remainingNanos = Deadline.remainingNanos(Deadline.get());
+        final var waitNanos = Math.min(timeoutNanos, remainingNanos);
+        final var callDeadline = System.nanoTime() + timeoutNanos;
+        final Supplier<T> call = LogContext.wrap(Deadline.wrap(() -> {
+            try (var scope = Deadline.start(Math.max(1, callDeadline - System.nanoTime()))) {
+                return delegateCall.get();
+            }
+        }));
+        final var task = new FutureTask<>(call::get);
+
+        executor.execute(task);
+
+        try {
+            return task.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw Utils.unwrap(e);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+
+            if(waitNanos < timeoutNanos)
+                throw new DeadlineExceededException(null);
+
+            if(!isNull(monitor))
+                monitor.counter(STEP_TIMEOUTS_METRIC).increment();
+
+            throw new StepTimeoutException(format("The call did not complete in %dms", TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.pipeline.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The spans of a sampled execution, recorded by the thread running it
+ * */
+public final class ExecutionTrace {
+    private final String pipelineName;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final long startEpochMillis;
+    private final List<Span> spans = new ArrayList<>();
+    private long endNanos;
+    private Span current;
+
+    ExecutionTrace(String pipelineName, LongSupplier nanoClock) {
+        this.pipelineName = pipelineName;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.startEpochMillis = System.currentTimeMillis();
+    }
+
+    public String getPipelineName() {
+        return pipelineName;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * @return the top level spans, the step spans holding their attempts
+     * */
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    /**
+     * @return true if the error handler was called
+     * */
+    public boolean isFailed() {
+        return spans.stream().anyMatch(span -> span.getKind() == Span.Kind.ERROR_HANDLER);
+    }
+
+    Span start(Span.Kind kind, String name, int stepPosition){
+        final var span = new Span(kind, name, stepPosition, 0, current, nanoClock.getAsLong());
+
+        if(current == null)
+            spans.add(span);
+        else
+            current.addChild(span);
+
+        current = span;
+        return span;
+    }
+
+    void end(Span span, boolean failed){
+        span.end(nanoClock.getAsLong(), failed);
+        current = span.getParent();
+    }
+
+    void attempt(int attempt){
+        if(current == null || current.getKind() != Span.Kind.STEP)
+            return;
+
+        current.startAttempt(new Span(Span.Kind.ATTEMPT, current.getName(), current.getStepPosition(), attempt, current, nanoClock.getAsLong()));
+    }
+
+    void end(){
+        endNanos = nanoClock.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder()
+                .append(pipelineName).append(' ').append(TimeUnit.NANOSECONDS.toMicros(getDurationNanos())).append("us\n");
+
+        spans.forEach(span -> span.appendTo(builder, startNanos, 1));
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package io.pipeline.trace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Where the wall time of the traced executions of a pipeline went: the share of every step and of the error handler,
+ * the retries of every step, and the slowest executions with all their spans
+ * */
+public final class ProfileReport {
+    private final String pipelineName;
+    private final int executions;
+    private final long wallNanos;
+    private final List<Entry> entries;
+    private final List<ExecutionTrace> slowest;
+
+    ProfileReport(String pipelineName, List<ExecutionTrace> traces, int slowestCount) {
+        this.pipelineName = pipelineName;
+        this.executions = traces.size();
+        this.wallNanos = traces.stream().mapToLong(ExecutionTrace::getDurationNanos).sum();
+
+        final var byName = new LinkedHashMap<String, Entry>();
+
+        for (final ExecutionTrace trace : traces)
+            for (final Span span : trace.getSpans())
+                byName.computeIfAbsent(span.getKind() == Span.Kind.ERROR_HANDLER ? span.getName() : span.getStepPosition() + ":" + span.getName(),
+                        key -> new Entry(span.getName(), span.getStepPosition())).add(span);
+
+        this.entries = new ArrayList<>(byName.values());
+        this.entries.sort(Comparator.comparingInt(entry -> entry.stepPosition == 0 ? Integer.MAX_VALUE : entry.stepPosition));
+
+        this.slowest = traces.stream()
+                .sorted(Comparator.comparingLong(ExecutionTrace::getDurationNanos).reversed())
+                .limit(slowestCount)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return a report over the traces of <tracer>, with its <slowestCount> slowest executions
+     * */
+    public static ProfileReport of(String pipelineName, Tracer tracer, int slowestCount){
+        return new ProfileReport(pipelineName, tracer.getBuffer().snapshot(), slowestCount);
+    }
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return one entry per step, in step order, then the error handler
+     * */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public List<ExecutionTrace> getSlowest() {
+        return slowest;
+    }
+
+    /**
+     * @return the share of the wall time of the traced executions spent in <name>, between 0 and 1
+     * */
+    public double shareOf(String name){
+        return entries.stream().filter(entry -> entry.name.equals(name)).mapToDouble(this::share).sum();
+    }
+
+    private double share(Entry entry){
+        return wallNanos == 0 ? 0 : (double) entry.totalNanos / wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder()
+                .append("Profile of ").append(pipelineName).append(": ").append(executions).append(" traced executions, ")
+                .append(TimeUnit.NANOSECONDS.toMillis(wallNanos)).append("ms\n");
+
+        for (final Entry entry : entries)
+            builder.append(String.format("  %-40s %6.2f%% %8d calls %6d retries %10dus max%n",
+                    entry.stepPosition == 0 ? entry.name : entry.stepPosition + " " + entry.name,
+                    share(entry) * 100, entry.calls, entry.retries, TimeUnit.NANOSECONDS.toMicros(entry.maxNanos)));
+
+        if(!slowest.isEmpty())
+            builder.append("Slowest executions:\n");
+
+        slowest.forEach(builder::append);
+
+        return builder.toString();
+    }
+
+    /**
+     * The time of a step, or of the error handler, over all the traced executions
+     * */
+    public static final class Entry {
+        private final String name;
+        private final int stepPosition;
+        private long calls;
+        private long retries;
+        private long totalNanos;
+        private long maxNanos;
+
+        private Entry(String name, int stepPosition) {
+            this.name = name;
+            this.stepPosition = stepPosition;
+        }
+
+        private void add(Span span){
+            final var duration = span.getDurationNanos();
+
+            calls++;
+            totalNanos += duration;
+            maxNanos = Math.max(maxNanos, duration);
+            retries += span.getChildren().stream().filter(child -> child.getAttempt() > 1).count();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getStepPosition() {
+            return stepPosition;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.pipeline.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed part of a traced execution: the call of a step, one of its attempts, or the error handler
+ * */
+public final class Span {
+    public enum Kind { STEP, ATTEMPT, ERROR_HANDLER }
+
+    private final Kind kind;
+    private final String name;
+    private final int stepPosition;
+    private final int attempt;
+    private final Span parent;
+    private final long startNanos;
+    private long endNanos;
+    private boolean failed;
+    private List<Span> children = Collections.emptyList();
+    private Span openAttempt;
+
+    Span(Kind kind, String name, int stepPosition, int attempt, Span parent, long startNanos) {
+        this.kind = kind;
+        this.name = name;
+        this.stepPosition = stepPosition;
+        this.attempt = attempt;
+        this.parent = parent;
+        this.startNanos = startNanos;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the position of the step, 0 for the error handler
+     * */
+    public int getStepPosition() {
+        return stepPosition;
+    }
+
+    /**
+     * @return the attempt number starting at 1, 0 when the span is not an attempt
+     * */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the attempts of a step, and the steps it called itself
+     * */
+    public List<Span> getChildren() {
+        return children;
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    void addChild(Span child){
+        if(children.isEmpty())
+            children = new ArrayList<>(2);
+
+        children.add(child);
+    }
+
+    void startAttempt(Span attemptSpan){
+        endAttempt(attemptSpan.startNanos, true);
+        openAttempt = attemptSpan;
+        addChild(attemptSpan);
+    }
+
+    void end(long nanos, boolean isFailed){
+        endAttempt(nanos, isFailed);
+        endNanos = nanos;
+        failed = isFailed;
+    }
+
+    private void endAttempt(long nanos, boolean isFailed){
+        if(openAttempt != null)
+            openAttempt.end(nanos, isFailed);
+
+        openAttempt = null;
+    }
+
+    void appendTo(StringBuilder builder, long executionStartNanos, int depth){
+        builder.append("  ".repeat(depth)).append(kind).append(' ').append(name);
+
+        if(kind == Kind.ATTEMPT)
+            builder.append(" #").append(attempt);
+
+        builder.append(" +").append(TimeUnit.NANOSECONDS.toMicros(startNanos - executionStartNanos)).append("us ")
+                .append(TimeUnit.NANOSECONDS.toMicros(getDurationNanos())).append("us")
+                .append(failed ? " FAILED" : "").append('\n');
+
+        children.forEach(child -> child.appendTo(builder, executionStartNanos, depth + 1));
+    }
+}
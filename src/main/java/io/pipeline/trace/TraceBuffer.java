@@ -0,0 +1,53 @@
+package io.pipeline.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size ring of the last traces. Writers claim a slot with a single atomic increment and overwrite the oldest trace,
+ * so recording a trace never blocks nor allocates, and readers copy whatever the slots hold
+ * */
+public final class TraceBuffer {
+    private final AtomicReferenceArray<ExecutionTrace> slots;
+    private final AtomicLong next = new AtomicLong();
+    private final int mask;
+
+    /**
+     * @param capacity rounded up to the next power of two
+     * */
+    public TraceBuffer(int capacity) {
+        if(capacity < 1) throw new AssertionError("<capacity> must be greater than zero");
+
+        final var size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(ExecutionTrace trace){
+        slots.lazySet((int) (next.getAndIncrement() & mask), trace);
+    }
+
+    public int capacity(){
+        return mask + 1;
+    }
+
+    /**
+     * @return the traces in the buffer, the oldest first
+     * */
+    public List<ExecutionTrace> snapshot(){
+        final var end = next.get();
+        final var start = Math.max(0, end - capacity());
+        final var traces = new ArrayList<ExecutionTrace>((int) (end - start));
+
+        for (long i = start; i < end; i++) {
+            final var trace = slots.get((int) (i & mask));
+
+            if(trace != null)
+                traces.add(trace);
+        }
+
+        return traces;
+    }
+}
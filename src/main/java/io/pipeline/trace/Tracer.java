@@ -0,0 +1,120 @@
+package io.pipeline.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples the executions of a pipeline and keeps the trace of the sampled ones in a {@link TraceBuffer}.
+ * The trace of an execution is bound to the thread running it, so only the steps and attempts
+ * running on that thread are recorded, and an execution that isn't sampled records nothing at all.
+ * <pre>
+ * try (var trace = tracer.start(pipelineName)) {
+ *     ...
+ * }
+ * </pre>
+ * */
+public final class Tracer {
+    private static final ThreadLocal<ExecutionTrace> current = new ThreadLocal<>();
+
+    private final int sampleEvery;
+    private final TraceBuffer buffer;
+    private LongSupplier nanoClock = System::nanoTime;
+
+    /**
+     * @param sampleEvery one execution out of <sampleEvery> is traced, on average
+     * @param capacity how many traces are kept, the oldest being dropped first
+     * */
+    public Tracer(int sampleEvery, int capacity) {
+        if(sampleEvery < 1) throw new AssertionError("<sampleEvery> must be greater than zero");
+
+        this.sampleEvery = sampleEvery;
+        this.buffer = new TraceBuffer(capacity);
+    }
+
+    public TraceBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @param nanoClock the time source of the spans, replaced by the tests to move the time forward
+     * */
+    Tracer setNanoClock(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        return this;
+    }
+
+    /**
+     * Starts the trace of an execution on the current thread when it is sampled
+     *
+     * @return the scope of the trace, to close when the execution ends
+     * */
+    public Scope start(String pipelineName){
+        if(sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0)
+            return Scope.NOT_SAMPLED;
+
+        return new Scope(this, new ExecutionTrace(pipelineName, nanoClock));
+    }
+
+    /**
+     * @return a span of the trace of the current thread, or null when the current execution isn't traced
+     * */
+    public static Span startSpan(Span.Kind kind, String name, int stepPosition){
+        final var trace = current.get();
+
+        return trace == null ? null : trace.start(kind, name, stepPosition);
+    }
+
+    public static void endSpan(Span span, boolean failed){
+        if(span == null)
+            return;
+
+        final var trace = current.get();
+
+        if(trace != null)
+            trace.end(span, failed);
+    }
+
+    /**
+     * Starts the attempt <attempt> of the step running in the trace of the current thread
+     * */
+    public static void attempt(int attempt){
+        final var trace = current.get();
+
+        if(trace != null)
+            trace.attempt(attempt);
+    }
+
+    /**
+     * The trace of an execution on the current thread, closing it puts back the trace of the enclosing execution
+     * */
+    public static final class Scope implements AutoCloseable {
+        public static final Scope NOT_SAMPLED = new Scope(null, null);
+
+        private final Tracer tracer;
+        private final ExecutionTrace trace;
+        private final ExecutionTrace enclosing;
+
+        private Scope(Tracer tracer, ExecutionTrace trace) {
+            this.tracer = tracer;
+            this.trace = trace;
+            this.enclosing = trace == null ? null : current.get();
+
+            if(trace != null)
+                current.set(trace);
+        }
+
+        @Override
+        public void close() {
+            if(trace == null)
+                return;
+
+            trace.end();
+            tracer.buffer.add(trace);
+
+            if(enclosing == null)
+                current.remove();
+            else
+                current.set(enclosing);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package io.pipeline.utils;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
 import static java.util.Objects.isNull;
 
 public class Utils {
@@ -10,4 +13,19 @@ public class Utils {
         if(isNull(className)) throw new AssertionError("<className> cannot be null");
         return className.contains(LAMBDA_REFERENCE);
     }
+
+    /**
+     * Strips the wrappers added by futures around the actual failure
+     * */
+    public static Exception unwrap(Throwable t){
+        var cause = t;
+
+        while((cause instanceof CompletionException || cause instanceof ExecutionException) && !isNull(cause.getCause()))
+            cause = cause.getCause();
+
+        if(cause instanceof Exception)
+            return (Exception) cause;
+
+        return new CompletionException(cause);
+    }
 }
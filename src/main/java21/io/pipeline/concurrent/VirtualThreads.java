@@ -0,0 +1,25 @@
+package io.pipeline.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Java 21+ version of {@link VirtualThreads}, running every task on its own virtual thread.
+ * */
+public final class VirtualThreads {
+    private VirtualThreads(){}
+
+    private static final ExecutorService SHARED = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static boolean isSupported(){
+        return true;
+    }
+
+    public static ExecutorService newExecutor(){
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static ExecutorService sharedExecutor(){
+        return SHARED;
+    }
+}
@@ -0,0 +1,137 @@
+package io.pipeline;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.cache.CacheSpec;
+import io.pipeline.concurrent.JoinPolicy;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.LongStep;
+import io.pipeline.step.PrimitiveSteps;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineBuilderTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    /**
+     * Calls <call> with the indexes of <calls> calls, after five times as many warm-up calls,
+     * with the pipeline logs at INFO so debug logging doesn't allocate
+     *
+     * @return the bytes allocated by the current thread per measured call
+     * */
+    private static double bytesAllocatedPerCall(int calls, IntConsumer call){
+        final var logger = (Logger) LoggerFactory.getLogger("io.pipeline");
+        final var level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        try {
+            final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final var threadId = Thread.currentThread().getId();
+
+            for (int i = 0; i < 5 * calls; i++)
+                call.accept(i);
+
+            final var before = threads.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < calls; i++)
+                call.accept(i);
+
+            return (threads.getThreadAllocatedBytes(threadId) - before) / (double) calls;
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @BeforeAll
+    static void setUp(){
+        Metrics.addRegistry(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testBuilderWithLazyMeters(){
+        final var registry = new SimpleMeterRegistry();
+        final var pipe = Pipeline.<Integer>builder("testBuilderWithLazyMeters")
+                .setMeterRegistry(registry)
+                .setLazyMeters(true)
+                .next(new Sum1Step())
+                .next(in -> in * 2)
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> {})
+                .build();
+
+        assertSame(pipe, Pipeline.lookup("testBuilderWithLazyMeters").orElseThrow());
+        assertTrue(registry.getMeters().isEmpty());
+
+        assertEquals(4, pipe.execute(1));
+        assertEquals(1, registry.get(PipelineMonitor.PIPELINE_EXECUTIONS_COUNT_METRIC).functionCounter().count());
+        assertEquals(1, registry.get(StepMonitor.STEP_EXECUTION_TIME_METRIC).tag(StepMonitor.STEP_POSITION_TAG, "2").timer().count());
+        assertTrue(Metrics.globalRegistry.find(PipelineMonitor.PIPELINE_EXECUTIONS_COUNT_METRIC)
+                .tag(PipelineMonitor.PIPELINE_NAME_TAG, "testBuilderWithLazyMeters").meters().isEmpty());
+
+        final var eager = Pipeline.<Integer>builder("testBuilderWithEagerMeters")
+                .setMeterRegistry(registry)
+                .next(new Sum1Step())
+                .build();
+        assertEquals(1, registry.get(StepMonitor.STEP_EXECUTION_TIME_METRIC).tag(PipelineMonitor.PIPELINE_NAME_TAG, "testBuilderWithEagerMeters").timers().size());
+        assertEquals(2, eager.execute(1));
+
+        assertThrows(IllegalArgumentException.class, () -> Pipeline.builder("testBuilderWithLazyMeters"));
+    }
+
+    @Test
+    void testPrimitiveBuilder(){
+        final var pipe = Pipeline.builderOfLong("testPrimitiveBuilder")
+                .setMeterRegistry(new SimpleMeterRegistry())
+                .setLoggingContext(false)
+                .next((LongStep) in -> in + 1)
+                .next(PrimitiveSteps.longToDouble(in -> in / 2.0))
+                .next(PrimitiveSteps.doubleToLong(Math::round))
+                .build();
+
+        assertEquals(5, pipe.executeLong(9));
+
+        final var bytesPerExecution = bytesAllocatedPerCall(100_000, i -> pipe.executeLong(1_000_000 + i));
+        assertTrue(bytesPerExecution < 1, "Allocated " + bytesPerExecution + " bytes per execution");
+    }
+
+    @Test
+    void testBuilderParallelAndCached(){
+        final var calls = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>builder("testBuilderParallelAndCached")
+                .setMeterRegistry(new SimpleMeterRegistry())
+                .nextCached(in -> {
+                    calls.incrementAndGet();
+                    return in + 1;
+                }, new CacheSpec<Integer>().setMaximumSize(10))
+                .parallel(in -> in * 2, in -> {
+                    throw new IllegalStateException("Branch failed");
+                })
+                .setJoinPolicy(JoinPolicy.COLLECT_ALL)
+                .join(results -> results)
+                .build();
+
+        assertEquals(Arrays.asList(4, null), pipe.execute(1));
+        assertEquals(Arrays.asList(4, null), pipe.execute(1));
+        assertEquals(1, calls.get());
+    }
+}
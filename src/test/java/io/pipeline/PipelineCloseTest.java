@@ -0,0 +1,118 @@
+package io.pipeline;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.cache.CacheSpec;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineCloseTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    @BeforeAll
+    static void setUp(){
+        Metrics.addRegistry(new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testCloseRemovesMetersAndName(){
+        final var pipe = Pipeline.<Integer>init("testCloseRemovesMetersAndName")
+                .next(new Sum1Step())
+                .nextCached(new Sum1Step(), new CacheSpec<Integer>().setMaximumSize(10));
+        final var registry = registryOf(pipe);
+
+        assertEquals(3, pipe.execute(1));
+        assertSame(pipe, Pipeline.lookup("testCloseRemovesMetersAndName").orElseThrow());
+        assertFalse(registry.getMeters().isEmpty());
+
+        assertTrue(Pipeline.unregister("testCloseRemovesMetersAndName"));
+
+        assertTrue(registry.getMeters().isEmpty());
+        assertTrue(Pipeline.lookup("testCloseRemovesMetersAndName").isEmpty());
+        assertFalse(Pipeline.unregister("testCloseRemovesMetersAndName"));
+
+        Pipeline.init("testCloseRemovesMetersAndName");
+        assertThrows(IllegalArgumentException.class, () -> Pipeline.init("testCloseRemovesMetersAndName"));
+    }
+
+    @Test
+    void testClosingAStalePipelineKeepsTheNewOwner(){
+        final var stale = Pipeline.<Integer>init("testClosingAStalePipelineKeepsTheNewOwner").next(new Sum1Step());
+        stale.close();
+
+        final var owner = Pipeline.<Integer>init("testClosingAStalePipelineKeepsTheNewOwner").next(new Sum1Step());
+        final var registry = registryOf(owner);
+        owner.execute(1);
+
+        stale.close();
+        stale.next(new Sum1Step());
+
+        assertSame(owner, Pipeline.lookup("testClosingAStalePipelineKeepsTheNewOwner").orElseThrow());
+        assertFalse(registry.getMeters().isEmpty());
+    }
+
+    @Test
+    void testClosedPipelineRejectsExecutions(){
+        final var registry = new SimpleMeterRegistry();
+        final var pipe = Pipeline.<Integer>builder("testClosedPipelineRejectsExecutions")
+                .setMeterRegistry(registry)
+                .setLazyMeters(true)
+                .next(new Sum1Step())
+                .build();
+
+        pipe.close();
+
+        assertThrows(IllegalStateException.class, () -> pipe.execute(1));
+        assertThrows(IllegalStateException.class, () -> pipe.executeAsync(1));
+        assertTrue(registry.getMeters().isEmpty());
+        assertTrue(pipe.getMonitor().isClosed());
+    }
+
+    @Test
+    void testTakenNameRegistersNoMeters(){
+        final var registry = new SimpleMeterRegistry();
+        final var builder = Pipeline.<Integer>builder("testTakenNameRegistersNoMeters")
+                .setMeterRegistry(registry)
+                .next(new Sum1Step());
+
+        final var owner = Pipeline.<Integer>init("testTakenNameRegistersNoMeters");
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+        assertTrue(registry.getMeters().isEmpty());
+        assertSame(owner, Pipeline.lookup("testTakenNameRegistersNoMeters").orElseThrow());
+    }
+
+    @Test
+    void testCloseRemovesTheMetersOfEveryRegistry(){
+        final var pipe = Pipeline.<Integer>init("testCloseRemovesTheMetersOfEveryRegistry").next(new Sum1Step());
+        final var first = registryOf(pipe);
+        final var second = registryOf(pipe);
+
+        assertTrue(first.getMeters().isEmpty());
+        assertFalse(second.getMeters().isEmpty());
+
+        pipe.close();
+
+        assertTrue(second.getMeters().isEmpty());
+        assertTrue(Metrics.globalRegistry.find(PipelineMonitor.PIPELINE_EXECUTIONS_COUNT_METRIC)
+                .tag(PipelineMonitor.PIPELINE_NAME_TAG, "testCloseRemovesTheMetersOfEveryRegistry").meters().isEmpty());
+    }
+}
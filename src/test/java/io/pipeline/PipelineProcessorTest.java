@@ -0,0 +1,71 @@
+package io.pipeline;
+
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineProcessorTest {
+
+    @Test
+    void testPipelineProcessor() throws Exception {
+        final var received = new CopyOnWriteArrayList<Integer>();
+        final var errors = new AtomicInteger();
+        final var done = new CountDownLatch(1);
+
+        var processor = Pipeline.<Integer>init("testPipelineProcessor")
+                .next(in -> {
+                    if(in == 3) throw new NoSuchElementException();
+                    return in * 2;
+                })
+                .setRetry(new SimpleRetry(1))
+                .asProcessor()
+                .onError(e -> errors.incrementAndGet());
+
+        processor.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+
+        try (var publisher = new SubmissionPublisher<Integer>()) {
+            publisher.subscribe(processor);
+
+            for (int i = 0; i < 6; i++)
+                publisher.submit(i);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 2, 4, 8, 10), received);
+        assertEquals(1, errors.get());
+    }
+}
@@ -0,0 +1,118 @@
+package io.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StagedPipelineTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testStagedPipeline() throws Exception {
+        final var handled = new AtomicInteger();
+
+        var pipe = Pipeline.<Integer>init("testStagedPipeline")
+                .next(new Sum1Step())
+                .next(in -> {
+                    if(in == 5) throw new NoSuchElementException();
+                    return in * 2;
+                })
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> handled.incrementAndGet());
+
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+
+        try (var staged = pipe.staged(2, position -> position == 2 ? 3 : 1)) {
+            for (int i = 0; i < 20; i++)
+                futures.add(staged.submit(i));
+        }
+
+        for (int i = 0; i < 20; i++)
+            assertEquals(i == 4 ? null : (i + 1) * 2, futures.get(i).getNow(-1));
+
+        assertEquals(1, handled.get());
+    }
+
+    @Test
+    void testClosedStagedPipelineRejectsInputs() throws Exception {
+        var pipe = Pipeline.<Integer>init("testClosedStagedPipelineRejectsInputs")
+                .next(new Sum1Step());
+
+        final var staged = pipe.staged(1, 1);
+        final var result = staged.submit(1);
+        staged.close();
+
+        assertTrue(result.isDone());
+        assertEquals(2, result.join());
+        assertThrows(IllegalStateException.class, () -> staged.submit(2));
+    }
+
+    @Test
+    void testQueueGaugeFollowsTheLiveStages() throws Exception {
+        final var release = new CountDownLatch(1);
+        final var started = new CountDownLatch(1);
+
+        var pipe = Pipeline.<Integer>init("testQueueGaugeFollowsTheLiveStages")
+                .next(in -> {
+                    started.countDown();
+                    awaitUntil(() -> release.getCount() == 0);
+                    return in;
+                });
+        final var registry = registryOf(pipe);
+
+        pipe.staged(4, 1).close();
+        assertNull(registry.find(StepMonitor.STEP_QUEUE_DEPTH_METRIC).gauge());
+
+        try (var staged = pipe.staged(4, 1)) {
+            staged.submit(1);
+            started.await();
+            staged.submit(2);
+            staged.submit(3);
+
+            final var depth = registry.get(StepMonitor.STEP_QUEUE_DEPTH_METRIC).gauge();
+            awaitUntil(() -> depth.value() == 2);
+
+            release.countDown();
+        }
+
+        assertNull(registry.find(StepMonitor.STEP_QUEUE_DEPTH_METRIC).gauge());
+    }
+}
@@ -0,0 +1,107 @@
+package io.pipeline.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingStepTest {
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    @Test
+    void testNextCached(){
+        final var calls = new AtomicInteger();
+        final var spec = new CacheSpec<String>()
+                .setMaximumSize(2)
+                .setKeyExtractor(String::toLowerCase)
+                .setFailureTtl(Duration.ofMinutes(1));
+
+        var pipe = Pipeline.<String>init("testNextCached")
+                .nextCached(in -> {
+                    calls.incrementAndGet();
+                    if(in.isBlank()) throw new IllegalArgumentException("Blank input");
+                    return in.length();
+                }, spec)
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> {});
+
+        assertEquals(3, pipe.execute("abc"));
+        assertEquals(3, pipe.execute("ABC"));
+        assertEquals(1, calls.get());
+
+        assertNull(pipe.execute(" "));
+        assertNull(pipe.execute(" "));
+        assertEquals(2, calls.get());
+
+        pipe.execute("x");
+        pipe.execute("abc");
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void testCachedBatch(){
+        final var calls = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>init("testCachedBatch")
+                .nextCached(in -> {
+                    calls.incrementAndGet();
+                    return in * 2;
+                }, new CacheSpec<Integer>().setMaximumSize(10));
+        final var registry = registryOf(pipe);
+
+        assertEquals(List.of(2, 4, 6), results(pipe.executeBatch(List.of(1, 2, 3))));
+        assertEquals(3, calls.get());
+
+        assertEquals(List.of(2, 8, 6), results(pipe.executeBatch(List.of(1, 4, 3))));
+        assertEquals(4, calls.get());
+        assertEquals(2, registry.get(CachingStep.CACHE_HITS_METRIC).counter().count());
+        assertEquals(4, registry.get(CachingStep.CACHE_MISSES_METRIC).counter().count());
+    }
+
+    @Test
+    void testCachedAsync(){
+        final var calls = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>init("testCachedAsync")
+                .nextCached(in -> {
+                    calls.incrementAndGet();
+                    return in * 2;
+                }, new CacheSpec<Integer>().setMaximumSize(10));
+
+        assertEquals(2, pipe.executeAsync(1).join());
+        assertEquals(2, pipe.executeAsync(1).join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testCompiledPipelineKeepsTheCache(){
+        final var calls = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>init("testCompiledPipelineKeepsTheCache")
+                .nextCached(Step.pure(in -> {
+                    calls.incrementAndGet();
+                    return in * 2;
+                }), new CacheSpec<Integer>().setMaximumSize(10))
+                .next(Step.pure(in -> in + 1))
+                .compile();
+
+        assertEquals(3, pipe.execute(1));
+        assertEquals(3, pipe.execute(1));
+        assertEquals(1, calls.get());
+    }
+
+    private static List<Integer> results(List<Step.StepOutput<Integer>> outputs){
+        return outputs.stream().map(Step.StepOutput::getResultObj).collect(Collectors.toList());
+    }
+}
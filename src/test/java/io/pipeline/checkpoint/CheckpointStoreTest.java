@@ -0,0 +1,199 @@
+package io.pipeline.checkpoint;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointStoreTest {
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static Thread committerOf(Path file){
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("checkpoint-committer-" + file.getFileName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void testCheckpointedExecutionResumes(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("checkpoints");
+        final var calls = new AtomicInteger();
+        final var failing = new AtomicBoolean(false);
+        final Step<Integer, Integer> counted = in -> {
+            calls.incrementAndGet();
+            return in + 1;
+        };
+
+        final var pipe = Pipeline.<Integer>init("testCheckpointedExecutionResumes")
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> {})
+                .next(counted)
+                .next(counted)
+                .next(in -> {
+                    if(failing.get())
+                        throw new IllegalStateException("Crashed");
+                    return in * 10;
+                });
+
+        try (var store = CheckpointStore.open(file)) {
+            pipe.setCheckpointStore(store);
+
+            assertEquals(30, pipe.executeCheckpointed("succeeded", 1));
+            failing.set(true);
+            assertNull(pipe.executeCheckpointed("failed", 1));
+            assertEquals(4, calls.get());
+        }
+
+        failing.set(false);
+
+        try (var restarted = CheckpointStore.open(file).setSynchronous(true)) {
+            pipe.setCheckpointStore(restarted);
+
+            assertEquals(Set.of("failed"), restarted.getExecutionIds());
+            assertEquals(2, restarted.get("failed").orElseThrow().getStepPosition());
+            assertEquals(1, restarted.get("failed").orElseThrow().getInput());
+
+            assertEquals(30, pipe.resume("failed"));
+            assertEquals(4, calls.get());
+            assertTrue(restarted.getExecutionIds().isEmpty());
+            assertThrows(NoSuchElementException.class, () -> pipe.resume("failed"));
+        }
+    }
+
+    @Test
+    void testUnsavableCheckpointFailsTheStep(@TempDir Path directory) throws Exception {
+        final var errors = new ArrayList<StepException>();
+
+        final var pipe = Pipeline.<Object>init("testUnsavableCheckpointFailsTheStep")
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> errors.add(e))
+                .next(in -> in)
+                .next(in -> in instanceof Integer ? new Object() : in)
+                .next(in -> in);
+
+        try (var store = CheckpointStore.open(directory.resolve("checkpoints")).setSynchronous(true)) {
+            pipe.setCheckpointStore(store);
+
+            assertNull(pipe.executeCheckpointed("unsavable-output", 1));
+            assertEquals(1, store.get("unsavable-output").orElseThrow().getStepPosition());
+
+            assertNull(pipe.executeCheckpointed("unsavable-input", new Object()));
+            assertTrue(store.get("unsavable-input").isEmpty());
+        }
+
+        assertEquals(2, errors.size());
+        assertEquals(2, errors.get(0).getStepPosition());
+        assertEquals(1, errors.get(0).getStepInput());
+        assertTrue(errors.get(0).getCause() instanceof UncheckedIOException);
+        assertEquals(1, errors.get(1).getStepPosition());
+        assertTrue(errors.get(1).getCause() instanceof UncheckedIOException);
+    }
+
+    @Test
+    void testCompactsWhileRunning(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("checkpoints");
+        final var threshold = 4096;
+
+        try (var store = CheckpointStore.open(file).setCompactionThreshold(threshold)) {
+            store.save("live", 0, "input");
+            store.save("live", 1, "value");
+
+            for (int i = 0; i < 1000; i++) {
+                store.save("execution-" + i, 0, i);
+                store.save("execution-" + i, 1, i + 1);
+                store.complete("execution-" + i);
+            }
+
+            //The first flush commits the last checkpoints, the committer checks the file before it takes the second one
+            store.flush();
+            store.flush();
+            assertTrue(Files.size(file) < 2 * threshold);
+        }
+
+        try (var reopened = CheckpointStore.open(file)) {
+            assertEquals(Set.of("live"), reopened.getExecutionIds());
+            assertEquals("input", reopened.get("live").orElseThrow().getInput());
+            assertEquals("value", reopened.get("live").orElseThrow().getValue());
+        }
+    }
+
+    @Test
+    void testIdleCommitterParks(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("checkpoints");
+
+        try (var store = CheckpointStore.open(file)) {
+            store.save("execution", 0, 1);
+            store.flush();
+
+            final var committer = committerOf(file);
+            awaitUntil(() -> committer.getState() == Thread.State.WAITING);
+
+            store.save("execution", 1, 2);
+            store.flush();
+            awaitUntil(() -> committer.getState() == Thread.State.WAITING);
+        }
+    }
+
+    @Test
+    void testCloseFailsTheLaterWrites(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("checkpoints");
+        final var store = CheckpointStore.open(file).setSynchronous(true);
+        final var writers = new ArrayList<CompletableFuture<Integer>>();
+
+        for (int w = 0; w < 4; w++) {
+            final var writer = "writer-" + w;
+
+            writers.add(CompletableFuture.supplyAsync(() -> {
+                var saved = 0;
+
+                try {
+                    while(true){
+                        store.save(writer, saved, saved);
+                        saved++;
+                    }
+                } catch (IllegalStateException e) {
+                    return saved;
+                }
+            }));
+        }
+
+        awaitUntil(() -> store.getExecutionIds().size() == 4);
+        store.close();
+
+        awaitUntil(() -> writers.stream().allMatch(CompletableFuture::isDone));
+        assertThrows(IllegalStateException.class, () -> store.save("writer-0", 0, 0));
+        store.flush();
+
+        try (var reopened = CheckpointStore.open(file)) {
+            assertEquals(4, reopened.getExecutionIds().size());
+        }
+    }
+}
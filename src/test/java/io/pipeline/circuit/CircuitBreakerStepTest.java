@@ -0,0 +1,88 @@
+package io.pipeline.circuit;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerStepTest {
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private CircuitBreaker breaker(){
+        return new CircuitBreaker()
+                .setWindowSize(4)
+                .setMinimumCalls(4)
+                .setOpenDuration(Duration.ofMillis(50))
+                .setHalfOpenProbes(1)
+                .setNanoClock(nanoTime::get);
+    }
+
+    @Test
+    void testCircuitBreakerStep(){
+        final var calls = new AtomicInteger();
+        final var failing = new AtomicBoolean(true);
+        final var lastException = new AtomicReference<StepException>();
+        final var breaker = breaker();
+
+        var pipe = Pipeline.<Integer>init("testCircuitBreakerStep")
+                .next(new CircuitBreakerStep<Integer, Integer>(in -> {
+                    calls.incrementAndGet();
+                    if(failing.get()) throw new IllegalStateException("Unavailable");
+                    return in;
+                }, breaker))
+                .setRetry(new SimpleRetry(2))
+                .onError((in, e) -> lastException.set(e));
+
+        for (int i = 0; i < 4; i++)
+            pipe.execute(i);
+
+        assertEquals(8, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        pipe.execute(5);
+        assertEquals(8, calls.get());
+        assertTrue(lastException.get() instanceof CircuitOpenException);
+        assertEquals(1, lastException.get().getStepPosition());
+        assertEquals(5, lastException.get().getStepInput());
+
+        failing.set(false);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(6, pipe.execute(6));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testOpenCircuitRejectsBatches(){
+        final var calls = new AtomicInteger();
+        final var breaker = breaker();
+
+        var pipe = Pipeline.<Integer>init("testOpenCircuitRejectsBatches")
+                .next(new CircuitBreakerStep<Integer, Integer>(in -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("Unavailable");
+                }, breaker))
+                .setRetry(new SimpleRetry(5))
+                .onError((in, e) -> {});
+
+        pipe.executeBatch(List.of(1, 2, 3, 4));
+        assertEquals(20, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        final var rejected = pipe.executeBatch(List.of(5, 6, 7));
+        assertEquals(20, calls.get());
+        assertTrue(rejected.stream().allMatch(Step.StepOutput::failed));
+        assertTrue(rejected.stream().allMatch(output -> output.getLastException() instanceof CircuitOpenException));
+    }
+}
@@ -0,0 +1,102 @@
+package io.pipeline.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.BatchStep;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatchingStepTest {
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    @Test
+    void testFullBatches() throws Exception {
+        final var batchStep = new DoubleBatchStep();
+        final var failed = new CopyOnWriteArrayList<Integer>();
+
+        //A delay no test run reaches, so the batches are only ever closed by their fourth element
+        final var pipe = Pipeline.<Integer>init("testMicroBatchingStep")
+                .next(new MicroBatchingStep<>(batchStep, 4, Duration.ofMinutes(10)))
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> failed.add(in));
+        final var registry = registryOf(pipe);
+
+        final var executor = Executors.newFixedThreadPool(4);
+        try {
+            final var results = Stream.of(1, 2, 3, 4)
+                    .map(i -> executor.submit(() -> pipe.execute(i)))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < 4; i++)
+                assertEquals((i + 1) * 2, results.get(i).get());
+            assertEquals(1, batchStep.getBatchCalls());
+
+            final var isolated = Stream.of(5, -1, 6, 7)
+                    .map(i -> executor.submit(() -> pipe.execute(i)))
+                    .collect(Collectors.toList());
+            assertNull(isolated.get(1).get());
+            assertEquals(14, isolated.get(3).get());
+            assertEquals(List.of(-1), failed);
+            assertEquals(6, batchStep.getBatchCalls());
+        } finally {
+            executor.shutdown();
+        }
+
+        final var batchSizes = registry.get(StepMonitor.STEP_BATCH_SIZE_METRIC).summary();
+        assertEquals(2, batchSizes.count());
+        assertEquals(8, batchSizes.totalAmount());
+        assertEquals(8, registry.get(MicroBatchingStep.BATCH_QUEUE_DELAY_METRIC).timer().count());
+    }
+
+    @Test
+    void testLoneCallIsFlushedAfterTheMaxDelay(){
+        final var batchStep = new DoubleBatchStep();
+        final var pipe = Pipeline.<Integer>init("testLoneCallIsFlushedAfterTheMaxDelay")
+                .next(new MicroBatchingStep<>(batchStep, 4, Duration.ofMillis(50)));
+        final var registry = registryOf(pipe);
+
+        assertEquals(16, pipe.execute(8));
+        assertEquals(24, pipe.executeAsync(12).join());
+        assertEquals(2, batchStep.getBatchCalls());
+
+        //Each lone element is flushed alone once its delay expires, without waiting for the batch to fill
+        final var batchSizes = registry.get(StepMonitor.STEP_BATCH_SIZE_METRIC).summary();
+        assertEquals(2, batchSizes.count());
+        assertEquals(2, batchSizes.totalAmount());
+        assertEquals(2, registry.get(MicroBatchingStep.BATCH_QUEUE_DELAY_METRIC).timer().count());
+    }
+}
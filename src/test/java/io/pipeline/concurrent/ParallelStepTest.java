@@ -0,0 +1,148 @@
+package io.pipeline.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelStepTest {
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Every branch waits for all of them to start, so the execution only completes when they run concurrently
+     * */
+    private static Step<Integer, Integer> rendezvous(CountDownLatch started, int increment){
+        return in -> {
+            started.countDown();
+            awaitUntil(() -> started.getCount() == 0);
+            return in + increment;
+        };
+    }
+
+    @Test
+    void testParallelBranches(){
+        final var started = new CountDownLatch(3);
+        final var pipe = Pipeline.<Integer>init("testParallelBranches")
+                .parallel(rendezvous(started, 1), rendezvous(started, 1), in -> {
+                    started.countDown();
+                    return in * 10;
+                })
+                .join(results -> results);
+        final var registry = registryOf(pipe);
+
+        assertEquals(List.of(2, 2, 10), pipe.execute(1));
+
+        final var restarted = new CountDownLatch(3);
+        final var asyncPipe = Pipeline.<Integer>init("testParallelBranchesAsync")
+                .parallel(rendezvous(restarted, 1), rendezvous(restarted, 1), rendezvous(restarted, 18))
+                .join(results -> results);
+
+        assertEquals(List.of(3, 3, 20), asyncPipe.executeAsync(2).join());
+        assertEquals(1, registry.find(StepMonitor.STEP_EXECUTION_TIME_METRIC)
+                .tag(StepMonitor.STEP_NAME_TAG, "Lambda$position(1)$branch(3)").timers().size());
+    }
+
+    @Test
+    void testCollectAll(){
+        final var collected = Pipeline.<Integer>init("testParallelBranchesCollectAll")
+                .parallel(in -> {
+                    throw new IllegalStateException("Branch failed");
+                }, in -> in + 1)
+                .setJoinPolicy(JoinPolicy.COLLECT_ALL)
+                .join(results -> results);
+
+        assertEquals(Arrays.asList(null, 2), collected.execute(1));
+    }
+
+    @Test
+    void testFailFastInterruptsTheOtherBranches(){
+        final var started = new CountDownLatch(1);
+        final var interrupted = new CountDownLatch(1);
+        final Step<Integer, Integer> stuck = in -> {
+            started.countDown();
+
+            while(!Thread.currentThread().isInterrupted())
+                LockSupport.park();
+
+            interrupted.countDown();
+            return in;
+        };
+
+        final var failFast = Pipeline.<Integer>init("testParallelBranchesFailFast")
+                .parallel(stuck, in -> {
+                    awaitUntil(() -> started.getCount() == 0);
+                    throw new IllegalStateException("Branch failed");
+                })
+                .join(results -> results);
+
+        final var failure = assertThrows(StepException.class, () -> failFast.execute(1));
+        assertEquals("Lambda$position(1)$branch(2)", failure.getStepName());
+        awaitUntil(() -> interrupted.getCount() == 0);
+    }
+
+    @Test
+    void testBranchesAreBound(){
+        final var bound = new CopyOnWriteArrayList<String>();
+        final var branch = new Step<Integer, Integer>() {
+            @Override
+            public void bind(StepMonitor monitor) {
+                bound.add(monitor.getStepName());
+            }
+
+            @Override
+            public Integer process(Integer in) {
+                return in;
+            }
+        };
+
+        Pipeline.<Integer>init("testBranchesAreBound").parallel(branch, in -> in).join(results -> results);
+
+        assertEquals(1, bound.size());
+        assertTrue(bound.get(0).endsWith("$branch(1)"));
+    }
+
+    @Test
+    void testProcessJoinsTheBranches(){
+        final var started = new CountDownLatch(2);
+        final var parallel = new ParallelStep<Integer>(List.of(rendezvous(started, 1), rendezvous(started, 2)),
+                JoinPolicy.FAIL_FAST, VirtualThreads.sharedExecutor());
+
+        final var pipe = Pipeline.<Integer>init("testProcessJoinsTheBranches").next(Step.pure(parallel));
+        assertEquals(List.of(2, 3), pipe.execute(1));
+
+        final var failing = new ParallelStep<Integer>(List.of(in -> in, in -> {
+            throw new IllegalStateException("Branch failed");
+        }), JoinPolicy.FAIL_FAST, VirtualThreads.sharedExecutor());
+
+        assertEquals("Branch failed", assertThrows(IllegalStateException.class, () -> failing.process(1)).getMessage());
+    }
+}
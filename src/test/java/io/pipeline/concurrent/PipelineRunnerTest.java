@@ -0,0 +1,59 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineRunnerTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testPipelineRunner() throws Exception {
+        final var started = new CountDownLatch(100);
+        var pipe = Pipeline.<Integer>init("testPipelineRunner")
+                .next(in -> {
+                    //Every execution waits for all of them to start, so they only complete with a thread each
+                    started.countDown();
+                    awaitUntil(() -> started.getCount() == 0);
+                    return in;
+                })
+                .next(new Sum1Step());
+
+        final var futures = new ArrayList<CompletableFuture<Integer>>();
+
+        try (var runner = PipelineRunner.virtualThreads(pipe)) {
+            for (int i = 0; i < 100; i++)
+                futures.add(runner.submit(i));
+        }
+
+        for (int i = 0; i < 100; i++)
+            assertEquals(i + 1, futures.get(i).getNow(null));
+    }
+}
@@ -0,0 +1,124 @@
+package io.pipeline.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.BatchStep;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testSingleFlight() {
+        final var calls = new AtomicInteger();
+        final var handled = new AtomicInteger();
+        final var released = new AtomicBoolean(false);
+
+        var pipe = Pipeline.<String>init("testSingleFlight")
+                .next(in -> {
+                    calls.incrementAndGet();
+                    awaitUntil(released::get);
+                    throw new IllegalStateException("Unavailable");
+                })
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> handled.incrementAndGet())
+                .singleFlight(String::trim);
+        final var registry = registryOf(pipe);
+
+        final var pool = Executors.newFixedThreadPool(8);
+        final var futures = new ArrayList<CompletableFuture<Object>>();
+
+        for (int i = 0; i < 8; i++)
+            futures.add(CompletableFuture.supplyAsync(() -> pipe.execute(" hot-key "), pool));
+
+        final var coalesced = registry.get(PipelineMonitor.PIPELINE_COALESCED_COUNT_METRIC).functionCounter();
+        awaitUntil(() -> coalesced.count() == 7);
+
+        released.set(true);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        pool.shutdown();
+
+        assertEquals(1, calls.get());
+        assertEquals(8, handled.get());
+    }
+
+    @Test
+    void testNullKeysAreNotCoalesced(){
+        final var calls = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>init("testNullKeysAreNotCoalesced")
+                .next(in -> {
+                    calls.incrementAndGet();
+                    return in == null ? -1 : in;
+                })
+                .singleFlight(in -> in);
+
+        assertEquals(-1, pipe.execute(null));
+        assertEquals(-1, pipe.executeAsync(null).join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testSingleFlightStepCoalescesBatches(){
+        final var batchStep = new DoubleBatchStep();
+        final var pipe = Pipeline.<Integer>init("testSingleFlightStepCoalescesBatches")
+                .next(new SingleFlightStep<>(batchStep, in -> in));
+        final var registry = registryOf(pipe);
+
+        final var outputs = pipe.executeBatch(List.of(1, 2, 1, 3, 2));
+
+        assertEquals(List.of(2, 4, 2, 6, 4), outputs.stream().map(Step.StepOutput::getResultObj).collect(Collectors.toList()));
+        assertEquals(1, batchStep.getBatchCalls());
+        assertEquals(2, registry.get(SingleFlightStep.COALESCED_CALLS_METRIC).counter().count());
+    }
+}
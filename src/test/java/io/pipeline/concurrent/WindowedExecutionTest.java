@@ -0,0 +1,70 @@
+package io.pipeline.concurrent;
+
+import io.pipeline.Pipeline;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedExecutionTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    @Test
+    void testExecuteAllOrdered(){
+        var pipe = Pipeline.<Integer>init("testExecuteAllOrdered")
+                .next(new Sum1Step());
+
+        final var results = pipe.executeAll(IntStream.range(0, 50).boxed())
+                .map(Step.StepOutput::getResultObj)
+                .collect(Collectors.toList());
+
+        assertEquals(IntStream.range(1, 51).boxed().collect(Collectors.toList()), results);
+    }
+
+    @Test
+    void testExecuteAllUnorderedPullsLazily(){
+        final var pulled = new AtomicInteger();
+        final Iterable<Integer> inputs = () -> Stream.iterate(0, i -> i + 1).limit(100).peek(i -> pulled.incrementAndGet()).iterator();
+
+        var pipe = Pipeline.<Integer>init("testExecuteAllUnorderedPullsLazily")
+                .next(in -> {
+                    if(in == 10) throw new NoSuchElementException();
+                    return in;
+                })
+                .setRetry(new SimpleRetry(1));
+
+        final var pool = Executors.newFixedThreadPool(4);
+        final var outputs = pipe.executeAll(inputs, 4, pool, OutputOrder.UNORDERED).iterator();
+
+        outputs.next();
+        assertTrue(pulled.get() <= 5);
+
+        var failures = 0;
+        var total = 1;
+
+        while(outputs.hasNext()){
+            total++;
+            if(outputs.next().failed()) failures++;
+        }
+
+        pool.shutdown();
+
+        assertEquals(100, total);
+        assertEquals(1, failures);
+    }
+}
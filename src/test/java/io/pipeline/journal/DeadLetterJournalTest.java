@@ -0,0 +1,180 @@
+package io.pipeline.journal;
+
+import io.pipeline.Pipeline;
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadLetterJournalTest {
+
+    private static long segmentFiles(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(Segment.SUFFIX)).count();
+        }
+    }
+
+    private static Pipeline<Integer, Integer> failingPipeline(String name, DeadLetterJournal<Integer> journal, AtomicBoolean failing){
+        return Pipeline.<Integer>init(name)
+                .setRetry(new SimpleRetry(1))
+                .onError(journal)
+                .next(in -> in + 1)
+                .next(in -> {
+                    if(failing.get())
+                        throw new IllegalStateException("Unavailable");
+                    return in * 10;
+                });
+    }
+
+    @Test
+    void testDeadLetterJournalReplay(@TempDir Path directory) throws Exception {
+        final var firstStepCalls = new AtomicInteger();
+        final var failing = new AtomicBoolean(true);
+
+        try (var journal = DeadLetterJournal.<Integer>open(directory, JournalSerializer.JAVA, 1024)) {
+            final var pipe = Pipeline.<Integer>init("testDeadLetterJournalReplay")
+                    .setRetry(new SimpleRetry(1))
+                    .onError(journal)
+                    .next(in -> {
+                        firstStepCalls.incrementAndGet();
+                        return in + 1;
+                    })
+                    .next(in -> {
+                        if(failing.get())
+                            throw new IllegalStateException("Unavailable");
+                        return in * 10;
+                    });
+
+            for (int i = 0; i < 10; i++)
+                assertNull(pipe.execute(i));
+
+            final var letters = journal.read().entries().collect(Collectors.toList());
+            assertEquals(10, letters.size());
+            assertEquals(2, letters.get(3).getStepPosition());
+            assertEquals(3, letters.get(3).getInput());
+            assertEquals(4, letters.get(3).getStepInput());
+            assertEquals(IllegalStateException.class.getName(), letters.get(3).getCauseClass());
+
+            failing.set(false);
+
+            final var results = new CopyOnWriteArrayList<Integer>();
+            assertEquals(10, pipe.replay(journal, output -> results.add(output.getResultObj())));
+            assertEquals(IntStream.range(1, 11).map(i -> i * 10).boxed().collect(Collectors.toSet()), Set.copyOf(results));
+            assertEquals(10, firstStepCalls.get());
+            assertEquals(0, pipe.replay(journal));
+        }
+
+        try (var reopened = DeadLetterJournal.<Integer>open(directory, JournalSerializer.JAVA, 1024)) {
+            assertEquals(0, reopened.read().entries().count());
+        }
+    }
+
+    @Test
+    void testUnserializableInputIsRecordedWithoutIt(@TempDir Path directory) throws Exception {
+        final var failing = new AtomicBoolean(true);
+
+        try (var journal = DeadLetterJournal.<Object>open(directory)) {
+            final var pipe = Pipeline.<Object>init("testUnserializableInputIsRecordedWithoutIt")
+                    .setRetry(new SimpleRetry(1))
+                    .onError(journal)
+                    .next(in -> {
+                        if(in instanceof Thread)
+                            throw new IllegalStateException("Unavailable");
+                        return 5;
+                    })
+                    .next(in -> {
+                        if(failing.get())
+                            throw new IllegalStateException("Unavailable");
+                        return in * 10;
+                    });
+
+            assertNull(pipe.execute(new Object()));
+            assertNull(pipe.execute(Thread.currentThread()));
+
+            final var letters = journal.read().entries().collect(Collectors.toList());
+            assertEquals(2, letters.size());
+            assertFalse(letters.get(0).hasInput());
+            assertTrue(letters.get(0).isResumable());
+            assertFalse(letters.get(1).hasInput());
+            assertFalse(letters.get(1).isResumable());
+
+            failing.set(false);
+
+            final var outputs = new CopyOnWriteArrayList<Object>();
+            assertEquals(1, pipe.replay(journal, output -> outputs.add(output.getResultObj())));
+            assertTrue(outputs.contains(50));
+        }
+    }
+
+    @Test
+    void testUnrecordableFailureIsSuppressed(@TempDir Path directory) throws Exception {
+        try (var journal = DeadLetterJournal.<String>open(directory, JournalSerializer.JAVA, 64)) {
+            final var recorded = new AtomicBoolean();
+            final var pipe = Pipeline.<String>init("testUnrecordableFailureIsSuppressed")
+                    .setRetry(new SimpleRetry(1))
+                    .onError((in, e) -> {
+                        journal.accept(in, e);
+                        recorded.set(e.getSuppressed().length == 0);
+                    })
+                    .next(in -> {
+                        throw new IllegalStateException("Unavailable");
+                    });
+
+            assertNull(pipe.execute("x".repeat(1024)));
+            assertFalse(recorded.get());
+        }
+    }
+
+    @Test
+    void testSegmentsAreDeletedOnceReleased(@TempDir Path directory) throws Exception {
+        final var failing = new AtomicBoolean(true);
+
+        try (var journal = DeadLetterJournal.<Integer>open(directory, JournalSerializer.JAVA, 1024)) {
+            final var pipe = failingPipeline("testSegmentsAreDeletedOnceReleased", journal, failing);
+
+            for (int i = 0; i < 10; i++)
+                pipe.execute(i);
+
+            assertTrue(segmentFiles(directory) > 1);
+
+            final var open = journal.read();
+            failing.set(false);
+            assertEquals(10, pipe.replay(journal));
+
+            assertTrue(segmentFiles(directory) > 1);
+            assertEquals(10, open.entries().count());
+
+            open.close();
+            assertFalse(Files.exists(directory.resolve(Segment.fileName(0))));
+        }
+    }
+
+    @Test
+    void testNextSegmentIsCreatedAhead(@TempDir Path directory) throws Exception {
+        final var failing = new AtomicBoolean(true);
+
+        for (int run = 0; run < 3; run++) {
+            try (var journal = DeadLetterJournal.<Integer>open(directory, JournalSerializer.JAVA, 1024)) {
+                failingPipeline("testNextSegmentIsCreatedAhead" + run, journal, failing).execute(run);
+            }
+
+            //The segment being written and the next one, whatever the number of runs
+            assertEquals(2, segmentFiles(directory));
+        }
+
+        try (var journal = DeadLetterJournal.<Integer>open(directory, JournalSerializer.JAVA, 1024)) {
+            assertEquals(3, journal.read().entries().count());
+        }
+    }
+}
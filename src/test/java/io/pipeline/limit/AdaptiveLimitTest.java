@@ -0,0 +1,30 @@
+package io.pipeline.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimitTest {
+
+    @Test
+    void testAdaptiveLimit(){
+        final var adaptive = new AdaptiveLimit().setInitialLimit(4).setMaxLimit(6);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++)
+                assertTrue(adaptive.tryAcquire());
+            for (int j = 0; j < 3; j++)
+                adaptive.release(true, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(6, adaptive.getLimit());
+
+        assertTrue(adaptive.tryAcquire());
+        adaptive.release(true, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(5, adaptive.getLimit());
+
+        assertTrue(adaptive.tryAcquire());
+        adaptive.release(false, TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(4, adaptive.getLimit());
+    }
+}
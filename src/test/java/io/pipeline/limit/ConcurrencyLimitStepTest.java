@@ -0,0 +1,152 @@
+package io.pipeline.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.step.BatchStep;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitStepTest {
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        final var started = new CountDownLatch(2);
+        final var released = new AtomicBoolean(false);
+        final var lastException = new AtomicReference<StepException>();
+        final var limit = new AdaptiveLimit().setInitialLimit(2);
+
+        final var pipe = Pipeline.<Integer>init("testConcurrencyLimit")
+                .next(new ConcurrencyLimitStep<Integer, Integer>(in -> {
+                    started.countDown();
+                    awaitUntil(released::get);
+                    return in;
+                }, limit))
+                .onError((in, e) -> lastException.set(e));
+        final var registry = registryOf(pipe);
+
+        final var executor = Executors.newFixedThreadPool(2);
+        try {
+            final var first = executor.submit(() -> pipe.execute(1));
+            final var second = executor.submit(() -> pipe.execute(2));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            assertNull(pipe.execute(3));
+            assertTrue(lastException.get() instanceof ConcurrencyLimitExceededException);
+            assertEquals(1, lastException.get().getStepPosition());
+            assertEquals(3, lastException.get().getStepInput());
+            assertEquals(2, registry.get(ConcurrencyLimitStep.CONCURRENCY_IN_FLIGHT_METRIC).gauge().value());
+            assertEquals(1, registry.get(ConcurrencyLimitStep.CONCURRENCY_REJECTIONS_METRIC).counter().count());
+
+            released.set(true);
+            assertEquals(1, first.get());
+            assertEquals(2, second.get());
+            assertEquals(0, limit.getInFlight());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBatchIsASingleCall(){
+        final var batchStep = new DoubleBatchStep();
+        final var limit = new AdaptiveLimit().setInitialLimit(1).setMaxLimit(1);
+        final var pipe = Pipeline.<Integer>init("testBatchIsASingleCall")
+                .next(new ConcurrencyLimitStep<>(batchStep, limit))
+                .onError((in, e) -> {});
+        final var registry = registryOf(pipe);
+
+        final var outputs = pipe.executeBatch(List.of(1, 2, 3, 4, 5));
+
+        assertEquals(1, batchStep.getBatchCalls());
+        assertEquals(List.of(2, 4, 6, 8, 10), outputs.stream().map(Step.StepOutput::getResultObj).collect(Collectors.toList()));
+        assertEquals(0, limit.getInFlight());
+        assertEquals(1, limit.getLimit());
+
+        assertTrue(limit.tryAcquire());
+        final var rejected = pipe.executeBatch(List.of(1, 2));
+
+        assertTrue(rejected.stream().allMatch(output -> output.getLastException() instanceof ConcurrencyLimitExceededException));
+        assertEquals(2, rejected.get(1).getStepInput());
+        assertEquals(2, registry.get(ConcurrencyLimitStep.CONCURRENCY_REJECTIONS_METRIC).counter().count());
+        assertEquals(1, batchStep.getBatchCalls());
+    }
+
+    @Test
+    void testAsyncCallThrowingIsReleased(){
+        final var limit = new AdaptiveLimit().setInitialLimit(1);
+        final var throwing = new Step<Integer, Integer>() {
+            @Override
+            public CompletableFuture<StepOutput<Integer>> applyAsync(Pipeline<?, ?> pipeline, int myPosition, StepMonitor monitor, Integer in) {
+                throw new IllegalStateException("Unavailable");
+            }
+
+            @Override
+            public Integer process(Integer in) {
+                return in;
+            }
+        };
+        final var pipe = Pipeline.<Integer>init("testAsyncCallThrowingIsReleased")
+                .next(new ConcurrencyLimitStep<>(throwing, limit))
+                .onError((in, e) -> {});
+
+        try {
+            pipe.executeAsync(1).join();
+        } catch (RuntimeException e) {
+            //Surfaced either way, the permit is what matters
+        }
+
+        assertEquals(0, limit.getInFlight());
+    }
+}
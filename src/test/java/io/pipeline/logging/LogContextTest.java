@@ -0,0 +1,82 @@
+package io.pipeline.logging;
+
+import io.pipeline.Pipeline;
+import io.pipeline.step.AsyncStep;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogContextTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    @Test
+    void testLoggingContextIsScoped(){
+        final var stepNames = new ArrayList<String>();
+        final var inner = Pipeline.<Integer>init("testLoggingContextIsScopedInner")
+                .next(new Sum1Step());
+
+        final var hot = Pipeline.<Integer>init("testLoggingContextIsScopedHot")
+                .next(in -> {
+                    stepNames.add(MDC.get(LoggingUtils.MDC_STEP_NAME));
+                    return in;
+                })
+                .setLoggingContext(false);
+
+        final var outer = Pipeline.<Integer>init("testLoggingContextIsScoped")
+                .next(in -> {
+                    final var result = inner.execute(in);
+                    stepNames.add(MDC.get(LoggingUtils.MDC_PIPELINE_NAME) + "/" + MDC.get(LoggingUtils.MDC_STEP_NAME));
+                    return hot.execute(result);
+                });
+
+        assertEquals(2, outer.execute(1));
+        assertEquals(List.of("testLoggingContextIsScoped/Lambda$position(1)", "Lambda$position(1)"), stepNames);
+
+        assertNull(MDC.get(LoggingUtils.MDC_PIPELINE_NAME));
+        assertNull(MDC.get(LoggingUtils.MDC_STEP_NAME));
+        assertNull(MDC.get(LoggingUtils.MDC_STEP_POSITION));
+    }
+
+    @Test
+    void testLoggingContextFollowsAsyncExecutions() throws Exception {
+        final var pool = Executors.newSingleThreadExecutor();
+        final var seen = new CopyOnWriteArrayList<String>();
+
+        try {
+            final var pipe = Pipeline.<Integer>init("testLoggingContextFollowsAsyncExecutions")
+                    .next((AsyncStep<Integer, Integer>) in -> CompletableFuture.supplyAsync(() -> in + 1, pool))
+                    .next(in -> {
+                        seen.add(MDC.get("request.id") + "/" + MDC.get(LoggingUtils.MDC_PIPELINE_NAME) + "/" + MDC.get(LoggingUtils.MDC_STEP_NAME));
+                        return in * 2;
+                    })
+                    .compile();
+
+            MDC.put("request.id", "42");
+            try {
+                assertEquals(4, pipe.executeAsync(1).join());
+            } finally {
+                MDC.remove("request.id");
+            }
+
+            assertEquals(List.of("42/testLoggingContextFollowsAsyncExecutions/Lambda$position(2)"), seen);
+            assertNull(pool.submit(() -> MDC.get(LoggingUtils.MDC_PIPELINE_NAME)).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
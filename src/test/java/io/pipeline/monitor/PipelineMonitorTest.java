@@ -0,0 +1,145 @@
+package io.pipeline.monitor;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineMonitorTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    /**
+     * Calls <call> with the indexes of <calls> calls, after five times as many warm-up calls,
+     * with the pipeline logs at INFO so debug logging doesn't allocate
+     *
+     * @return the bytes allocated by the current thread per measured call
+     * */
+    private static double bytesAllocatedPerCall(int calls, IntConsumer call){
+        final var logger = (Logger) LoggerFactory.getLogger("io.pipeline");
+        final var level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        try {
+            final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final var threadId = Thread.currentThread().getId();
+
+            for (int i = 0; i < 5 * calls; i++)
+                call.accept(i);
+
+            final var before = threads.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < calls; i++)
+                call.accept(i);
+
+            return (threads.getThreadAllocatedBytes(threadId) - before) / (double) calls;
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void testSucceededExecutionAllocatesNothing(){
+        final Pipeline<String, String> pipeline = Pipeline.<String>init("testSucceededExecutionAllocatesNothing")
+                .next(in -> in)
+                .next(in -> in)
+                .setLoggingContext(false);
+        registryOf(pipeline);
+
+        final var bytesPerExecution = bytesAllocatedPerCall(100_000, i -> pipeline.execute("input"));
+
+        assertTrue(bytesPerExecution < 1, "Allocated " + bytesPerExecution + " bytes per execution");
+    }
+
+    @Test
+    void testMetricsLevels(){
+        final var pipe = Pipeline.<Integer>init("testMetricsLevels")
+                .next(new Sum1Step())
+                .setMetricsLevel(MetricsLevel.COUNTERS_ONLY);
+        final var registry = registryOf(pipe);
+
+        for (int i = 0; i < 10; i++)
+            pipe.execute(i);
+
+        final var executions = registry.get("pipeline.executions").functionCounter();
+        final var executionTime = registry.get("pipeline.execution.time").timer();
+        final var stepTime = registry.get("pipeline.step.execution.time").timer();
+
+        assertEquals(10, executions.count());
+        assertEquals(0, executionTime.count());
+        assertEquals(0, stepTime.count());
+
+        pipe.setMetricsLevel(MetricsLevel.sampled(4));
+        for (int i = 0; i < 1000; i++)
+            pipe.execute(i);
+
+        assertEquals(1010, executions.count());
+        assertTrue(stepTime.count() > 100 && stepTime.count() < 500);
+
+        pipe.setMetricsLevel(MetricsLevel.OFF);
+        pipe.execute(1);
+
+        assertEquals(1010, executions.count());
+
+        pipe.setMetricsLevel(MetricsLevel.FULL);
+        pipe.execute(1);
+
+        assertEquals(1011, executions.count());
+        assertTrue(executionTime.takeSnapshot().percentileValues().length > 0);
+    }
+
+    @Test
+    void testErrorHandlerFollowsTheMetricsLevel(){
+        final var handled = new AtomicInteger();
+        final var pipe = Pipeline.<Integer>init("testErrorHandlerFollowsTheMetricsLevel")
+                .next(in -> {
+                    throw new IllegalStateException("Unavailable");
+                })
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> handled.incrementAndGet())
+                .setMetricsLevel(MetricsLevel.COUNTERS_ONLY);
+        final var registry = registryOf(pipe);
+        final var onErrorTime = registry.get(PipelineMonitor.PIPELINE_ON_ERROR_EXECUTION_TIME_METRIC).timer();
+
+        pipe.execute(1);
+        assertEquals(1, handled.get());
+        assertEquals(0, onErrorTime.count());
+
+        pipe.setMetricsLevel(MetricsLevel.FULL);
+        pipe.execute(1);
+        assertEquals(2, handled.get());
+        assertEquals(1, onErrorTime.count());
+    }
+
+    @Test
+    void testCopyKeepsTheMetricsLevel(){
+        final var pipe = Pipeline.<Integer>init("testCopyKeepsTheMetricsLevel")
+                .next(new Sum1Step())
+                .setMetricsLevel(MetricsLevel.OFF);
+
+        assertEquals(MetricsLevel.OFF, pipe.copy("testCopyKeepsTheMetricsLevelCopy").getMonitor().getMetricsLevel());
+    }
+}
@@ -0,0 +1,80 @@
+package io.pipeline.pipe;
+
+import io.pipeline.Pipeline;
+import io.pipeline.circuit.CircuitBreaker;
+import io.pipeline.circuit.CircuitBreakerStep;
+import io.pipeline.error.StepException;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledPipeTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    @Test
+    void testCompiledPipeline(){
+        var pipe = Pipeline.<Integer>init("testCompiledPipeline")
+                .next(new Sum1Step())
+                .next(Step.pure(in -> in * 2))
+                .next(Step.pure(in -> in + 3))
+                .next(in -> in - 1)
+                .compile();
+
+        assertEquals(6, pipe.execute(1));
+    }
+
+    @Test
+    void testCompiledPipelineFailureOnFusedStep(){
+        final var atomicThrowable = new AtomicReference<StepException>();
+
+        var pipe = Pipeline.<Integer>init("testCompiledPipelineFailureOnFusedStep")
+                .next(new Sum1Step())
+                .next(Step.pure(in -> in * 2))
+                .next(Step.<Integer, Integer>pure(in -> {
+                    throw new NoSuchElementException();
+                }))
+                .compile()
+                .onError((in, e) -> atomicThrowable.set(e));
+
+        assertNull(pipe.execute(1));
+        assertEquals("Lambda$position(3)", atomicThrowable.get().getStepName());
+    }
+
+    @Test
+    void testDecoratedPureStepIsNotFused(){
+        final var calls = new AtomicInteger();
+        final var breaker = new CircuitBreaker()
+                .setWindowSize(2)
+                .setMinimumCalls(2);
+
+        var pipe = Pipeline.<Integer>init("testDecoratedPureStepIsNotFused")
+                .next(Step.pure(in -> in + 1))
+                .next(new CircuitBreakerStep<>(Step.<Integer, Integer>pure(in -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("Unavailable");
+                }), breaker))
+                .next(Step.pure(in -> in * 2))
+                .compile()
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> {});
+
+        for (int i = 0; i < 3; i++)
+            assertNull(pipe.execute(i));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, calls.get());
+    }
+}
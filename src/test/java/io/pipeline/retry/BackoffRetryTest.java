@@ -0,0 +1,83 @@
+package io.pipeline.retry;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.step.AsyncStep;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackoffRetryTest {
+
+    @Test
+    void testBackoffRetryClassifiesExceptions(){
+        final var attempts = new AtomicInteger();
+        final var retry = new BackoffRetry().setAttempts(3).setInitialDelay(Duration.ofMillis(1));
+
+        var pipe = Pipeline.<String>init("testBackoffRetryClassifiesExceptions")
+                .next(in -> {
+                    attempts.incrementAndGet();
+                    return Integer.parseInt(in);
+                })
+                .setRetry(retry);
+
+        assertThrows(StepException.class, () -> pipe.execute("not a number"));
+        assertEquals(1, attempts.get());
+
+        final var transientAttempts = new AtomicInteger();
+        var transientPipe = Pipeline.<String>init("testBackoffRetryClassifiesExceptionsTransient")
+                .next(in -> {
+                    if(transientAttempts.incrementAndGet() < 3) throw new IllegalStateException("Unavailable");
+                    return in;
+                })
+                .setRetry(retry);
+
+        assertEquals("ok", transientPipe.execute("ok"));
+        assertEquals(3, transientAttempts.get());
+    }
+
+    @Test
+    void testBackoffRetryAsyncWithBudget(){
+        final var attempts = new AtomicInteger();
+        final var retry = new BackoffRetry()
+                .setAttempts(5)
+                .setInitialDelay(Duration.ofMillis(1))
+                .setBudget(new RetryBudget(0.1, 2));
+
+        var pipe = Pipeline.<Integer>init("testBackoffRetryAsyncWithBudget")
+                .next((AsyncStep<Integer, Integer>) in -> {
+                    attempts.incrementAndGet();
+                    return CompletableFuture.failedFuture(new IllegalStateException("Unavailable"));
+                })
+                .setRetry(retry);
+
+        assertThrows(CompletionException.class, () -> pipe.executeAsync(1).join());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testInterruptedBackoffStopsRetrying(){
+        final var attempts = new AtomicInteger();
+        final var retry = new BackoffRetry().setAttempts(5).setInitialDelay(Duration.ofSeconds(10));
+
+        Thread.currentThread().interrupt();
+
+        try {
+            final var failure = assertThrows(IllegalStateException.class, () -> retry.doTry(() -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("Unavailable");
+            }));
+
+            assertEquals(1, attempts.get());
+            assertTrue(failure.getSuppressed()[0] instanceof InterruptedException);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
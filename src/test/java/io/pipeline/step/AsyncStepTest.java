@@ -0,0 +1,72 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.logging.LoggingUtils;
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncStepTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    @Test
+    void testExecuteAsync() throws Exception {
+        final var ioPool = Executors.newSingleThreadExecutor();
+        final var pipelineNameOnPool = new AtomicReference<String>();
+
+        try {
+            var pipe = Pipeline.<Integer>init("testExecuteAsync")
+                    .next(new Sum1Step())
+                    .next(in -> {
+                        pipelineNameOnPool.set(MDC.get(LoggingUtils.MDC_PIPELINE_NAME));
+                        return in * 10;
+                    }, ioPool)
+                    .next((AsyncStep<Integer, Integer>) in -> CompletableFuture.supplyAsync(() -> in + 5));
+
+            assertEquals(25, pipe.executeAsync(1).get());
+            assertEquals("testExecuteAsync", pipelineNameOnPool.get());
+        } finally {
+            ioPool.shutdown();
+        }
+    }
+
+    @Test
+    void testExecuteAsyncFailure(){
+        final var attempts = new AtomicInteger();
+        final var handled = new AtomicBoolean(false);
+
+        var pipe = Pipeline.<Integer>init("testExecuteAsyncFailure")
+                .next((AsyncStep<Integer, Integer>) in -> {
+                    attempts.incrementAndGet();
+                    return CompletableFuture.failedFuture(new NoSuchElementException());
+                })
+                .setRetry(new SimpleRetry(3));
+
+        final var exception = assertThrows(CompletionException.class, () -> pipe.executeAsync(1).join());
+        assertTrue(exception.getCause() instanceof StepException);
+        assertEquals(3, attempts.get());
+
+        pipe.onError((in, e) -> handled.set(true));
+
+        assertNull(pipe.executeAsync(1).join());
+        assertTrue(handled.get());
+    }
+}
@@ -0,0 +1,77 @@
+package io.pipeline.step;
+
+import io.pipeline.Pipeline;
+import io.pipeline.error.StepException;
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchStepTest {
+
+    private static class Sum1Step implements Step<Integer, Integer> {
+
+        @Override
+        public Integer process(Integer in) {
+            return in + 1;
+        }
+    }
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    @Test
+    void testExecuteBatch(){
+        final var batchStep = new DoubleBatchStep();
+
+        var pipe = Pipeline.<Integer>init("testExecuteBatch")
+                .next(new Sum1Step())
+                .next(batchStep)
+                .setRetry(new SimpleRetry(1));
+
+        final var outputs = pipe.executeBatch(List.of(1, 2, 3));
+
+        assertEquals(List.of(4, 6, 8), outputs.stream().map(Step.StepOutput::getResultObj).collect(Collectors.toList()));
+        assertEquals(1, batchStep.getBatchCalls());
+    }
+
+    @Test
+    void testExecuteBatchIsolatesFailures(){
+        final var handled = new AtomicInteger();
+
+        var pipe = Pipeline.<Integer>init("testExecuteBatchIsolatesFailures")
+                .next(in -> in - 1)
+                .next(new DoubleBatchStep())
+                .compile()
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> handled.incrementAndGet());
+
+        final var outputs = pipe.executeBatch(List.of(1, 0, 3));
+
+        assertTrue(outputs.get(0).succeeded());
+        assertEquals(0, outputs.get(0).getResultObj());
+        assertTrue(outputs.get(1).failed());
+        assertTrue(outputs.get(1).getLastException() instanceof StepException);
+        assertEquals(4, outputs.get(2).getResultObj());
+        assertEquals(1, handled.get());
+    }
+}
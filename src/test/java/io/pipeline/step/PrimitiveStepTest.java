@@ -0,0 +1,97 @@
+package io.pipeline.step;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveStepTest {
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    /**
+     * Calls <call> with the indexes of <calls> calls, after five times as many warm-up calls,
+     * with the pipeline logs at INFO so debug logging doesn't allocate
+     *
+     * @return the bytes allocated by the current thread per measured call
+     * */
+    private static double bytesAllocatedPerCall(int calls, IntConsumer call){
+        final var logger = (Logger) LoggerFactory.getLogger("io.pipeline");
+        final var level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        try {
+            final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final var threadId = Thread.currentThread().getId();
+
+            for (int i = 0; i < 5 * calls; i++)
+                call.accept(i);
+
+            final var before = threads.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < calls; i++)
+                call.accept(i);
+
+            return (threads.getThreadAllocatedBytes(threadId) - before) / (double) calls;
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void testPrimitivePipeline(){
+        final var attempts = new AtomicInteger();
+        final var failed = new AtomicReference<Long>();
+        final var pipeline = Pipeline.ofLong("testPrimitivePipeline")
+                .next((LongStep) in -> in + 1)
+                .next((LongStep) in -> {
+                    if(in < 0){
+                        attempts.incrementAndGet();
+                        throw new IllegalArgumentException("Negative input");
+                    }
+                    return in;
+                })
+                .next(PrimitiveSteps.longToDouble(in -> in / 2.0))
+                .next((DoubleStep) in -> in * 3)
+                .next(PrimitiveSteps.doubleToLong(Math::round))
+                .setRetry(new SimpleRetry(2))
+                .setLoggingContext(false)
+                .onError((in, e) -> failed.set(in));
+        registryOf(pipeline);
+
+        assertEquals(15, pipeline.executeLong(9));
+        assertEquals(15L, pipeline.execute(9L));
+        assertEquals(-1, pipeline.executeLong(-5, -1));
+        assertEquals(-5L, failed.get());
+        assertEquals(2, attempts.get());
+
+        final var bytesPerExecution = bytesAllocatedPerCall(100_000, i -> pipeline.executeLong(1_000_000 + i));
+        assertTrue(bytesPerExecution < 1, "Allocated " + bytesPerExecution + " bytes per execution");
+    }
+
+    @Test
+    void testMixedPipelineIsBoxed(){
+        final var pipeline = Pipeline.ofLong("testMixedPipelineIsBoxed")
+                .next((LongStep) in -> in + 1)
+                .next(in -> in * 2)
+                .next((LongStep) in -> in - 1);
+
+        assertEquals(19, pipeline.executeLong(9));
+        assertEquals(19L, pipeline.execute(9L));
+    }
+}
@@ -0,0 +1,107 @@
+package io.pipeline.timeout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.concurrent.JoinPolicy;
+import io.pipeline.concurrent.ParallelStep;
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.step.BatchStep;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingStepTest {
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testHedging(){
+        final var calls = new AtomicInteger();
+        final var released = new AtomicBoolean(false);
+        final var hedging = new HedgingStep<Integer, Integer>(in -> {
+            if(calls.incrementAndGet() == LatencyWindow.RECOMPUTE_EVERY + 1)
+                awaitUntil(released::get);
+
+            return in + 1;
+        }).setMinDelay(Duration.ofMillis(50));
+        final var hedged = Pipeline.<Integer>init("testHedging").next(hedging);
+        final var registry = registryOf(hedged);
+
+        for (int i = 0; i < LatencyWindow.RECOMPUTE_EVERY; i++)
+            assertEquals(i + 1, hedged.execute(i));
+
+        assertNotEquals(Deadline.NONE, hedging.getHedgeDelayNanos());
+
+        try {
+            assertEquals(2, hedged.execute(1));
+            assertEquals(1, registry.get(HedgingStep.STEP_HEDGES_METRIC).counter().count());
+        } finally {
+            released.set(true);
+        }
+    }
+
+    @Test
+    void testHedgingAppliesTheDecoratedStep(){
+        final var parallel = new ParallelStep<Integer>(List.of(in -> in + 1, in -> in * 10),
+                JoinPolicy.FAIL_FAST, VirtualThreads.sharedExecutor());
+        final var hedged = Pipeline.<Integer>init("testHedgingAppliesTheDecoratedStep")
+                .next(new HedgingStep<>(parallel));
+
+        assertEquals(List.of(2, 10), hedged.execute(1));
+    }
+
+    @Test
+    void testBatchIsForwarded(){
+        final var batchStep = new DoubleBatchStep();
+        final var pipe = Pipeline.<Integer>init("testBatchIsForwarded")
+                .next(new HedgingStep<>(batchStep));
+
+        assertEquals(List.of(2, 4, 6), pipe.executeBatch(List.of(1, 2, 3)).stream()
+                .map(Step.StepOutput::getResultObj).collect(Collectors.toList()));
+        assertEquals(1, batchStep.getBatchCalls());
+    }
+}
@@ -0,0 +1,154 @@
+package io.pipeline.timeout;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.pipeline.Pipeline;
+import io.pipeline.concurrent.JoinPolicy;
+import io.pipeline.concurrent.ParallelStep;
+import io.pipeline.concurrent.VirtualThreads;
+import io.pipeline.error.StepException;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.monitor.StepMonitor;
+import io.pipeline.retry.SimpleRetry;
+import io.pipeline.step.BatchStep;
+import io.pipeline.step.Step;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeoutStepTest {
+
+    private static class DoubleBatchStep implements BatchStep<Integer, Integer> {
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        @Override
+        public List<Integer> processBatch(List<Integer> in) {
+            batchCalls.incrementAndGet();
+
+            if(in.contains(-1))
+                throw new IllegalArgumentException("Negative input");
+
+            return in.stream().map(i -> i * 2).collect(Collectors.toList());
+        }
+
+        int getBatchCalls() {
+            return batchCalls.get();
+        }
+    }
+
+    private static SimpleMeterRegistry registryOf(Pipeline<?, ?> pipeline){
+        final var registry = new SimpleMeterRegistry();
+        pipeline.getMonitor().setMeterRegistry(registry);
+
+        return registry;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition){
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while(!condition.getAsBoolean()){
+            if(System.nanoTime() - deadline > 0)
+                fail("Condition not met in time");
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testTimeoutInterruptsTheCall(){
+        final var interrupted = new CountDownLatch(1);
+        final Step<Integer, Integer> stuck = in -> {
+            while(!Thread.currentThread().isInterrupted())
+                LockSupport.park();
+
+            interrupted.countDown();
+            throw new IllegalStateException("Interrupted");
+        };
+
+        final var timedOut = Pipeline.<Integer>init("testTimeouts")
+                .setRetry(new SimpleRetry(3))
+                .next(new TimeoutStep<>(stuck, Duration.ofMillis(50)));
+        final var registry = registryOf(timedOut);
+
+        final var timeout = assertThrows(StepException.class, () -> timedOut.execute(1));
+        assertTrue(timeout.getCause() instanceof StepTimeoutException);
+        assertEquals(1, registry.get(TimeoutStep.STEP_TIMEOUTS_METRIC).counter().count());
+        awaitUntil(() -> interrupted.getCount() == 0);
+    }
+
+    @Test
+    void testDeadline(){
+        final var calls = new AtomicInteger();
+        final var deadlined = Pipeline.<Integer>init("testDeadline")
+                .setRetry(new SimpleRetry(1000))
+                .setTimeout(Duration.ofMillis(100))
+                .next(in -> {
+                    //The third attempt outlives the deadline, so no other one is started
+                    if(calls.incrementAndGet() == 3)
+                        awaitUntil(() -> Deadline.isExpired(Deadline.get()));
+
+                    throw new IllegalStateException("Always failing");
+                });
+        final var registry = registryOf(deadlined);
+
+        final var exceeded = assertThrows(StepException.class, () -> deadlined.execute(1));
+        assertTrue(exceeded.getCause() instanceof DeadlineExceededException);
+        assertEquals(3, calls.get());
+        assertEquals(1, registry.get(PipelineMonitor.PIPELINE_DEADLINE_EXCEEDED_COUNT_METRIC).functionCounter().count());
+    }
+
+    @Test
+    void testTimeoutAppliesTheDecoratedStep(){
+        final var parallel = new ParallelStep<Integer>(List.of(in -> in + 1, in -> in * 10),
+                JoinPolicy.FAIL_FAST, VirtualThreads.sharedExecutor());
+        final var pipe = Pipeline.<Integer>init("testTimeoutAppliesTheDecoratedStep")
+                .next(new TimeoutStep<>(parallel, Duration.ofSeconds(10)));
+        final var registry = registryOf(pipe);
+
+        assertEquals(List.of(2, 10), pipe.execute(1));
+        assertEquals(List.of(3, 20), new TimeoutStep<>(parallel, Duration.ofSeconds(10)).process(2));
+        assertEquals(1, registry.find(StepMonitor.STEP_EXECUTION_TIME_METRIC)
+                .tag(StepMonitor.STEP_NAME_TAG, "Lambda$position(1)$branch(2)").timers().size());
+    }
+
+    @Test
+    void testBatchIsBoundedAsASingleCall(){
+        final var batchStep = new DoubleBatchStep();
+        final var pipe = Pipeline.<Integer>init("testBatchIsBoundedAsASingleCall")
+                .next(new TimeoutStep<>(batchStep, Duration.ofSeconds(10)));
+
+        assertEquals(List.of(2, 4, 6), pipe.executeBatch(List.of(1, 2, 3)).stream()
+                .map(Step.StepOutput::getResultObj).collect(Collectors.toList()));
+        assertEquals(1, batchStep.getBatchCalls());
+    }
+
+    @Test
+    void testAsyncCallIsNotWaitedForByTheCaller(){
+        final var errors = new ArrayList<StepException>();
+        final Step<Integer, Integer> stuck = in -> {
+            while(!Thread.currentThread().isInterrupted())
+                LockSupport.park();
+
+            throw new IllegalStateException("Interrupted");
+        };
+        final var pipe = Pipeline.<Integer>init("testAsyncCallIsNotWaitedForByTheCaller")
+                .setRetry(new SimpleRetry(1))
+                .onError((in, e) -> errors.add(e))
+                .next(new TimeoutStep<>(stuck, Duration.ofMillis(200)));
+
+        final var result = pipe.executeAsync(1);
+
+        assertFalse(result.isDone());
+        assertNull(result.join());
+        assertTrue(errors.get(0).getCause() instanceof StepTimeoutException);
+    }
+}
@@ -0,0 +1,62 @@
+package io.pipeline.trace;
+
+import io.pipeline.Pipeline;
+import io.pipeline.monitor.PipelineMonitor;
+import io.pipeline.retry.SimpleRetry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileReportTest {
+
+    @Test
+    void testTracingProfile(){
+        final var clock = new AtomicLong();
+        final var pipe = Pipeline.<Integer>init("testTracingProfile")
+                .next(in -> {
+                    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+                    return in;
+                })
+                .next(in -> {
+                    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+                    if(in < 0) throw new IllegalArgumentException("Negative input");
+                    return in;
+                })
+                .setRetry(new SimpleRetry(2))
+                .onError((in, e) -> {});
+
+        assertThrows(IllegalStateException.class, () -> pipe.getMonitor().profile());
+        assertNull(pipe.getMonitor().getTracer());
+        pipe.execute(1);
+
+        pipe.getMonitor().enableTracing(1, 4);
+        pipe.getMonitor().getTracer().setNanoClock(clock::get);
+
+        assertEquals(2, pipe.execute(2));
+        assertNull(pipe.execute(-1));
+        for (int i = 3; i < 6; i++)
+            pipe.execute(i);
+
+        final var report = pipe.getMonitor().profile(1);
+        assertEquals(4, report.getExecutions());
+        assertEquals(List.of(1, 2, 0), report.getEntries().stream().map(e -> e.getStepPosition()).collect(Collectors.toList()));
+        assertTrue(report.shareOf(report.getEntries().get(0).getName()) > 0.5);
+        assertEquals(4, report.getEntries().get(1).getCalls());
+        assertEquals(1, report.getEntries().get(1).getRetries());
+        assertEquals(PipelineMonitor.ON_ERROR_SPAN_NAME, report.getEntries().get(2).getName());
+
+        final var slowest = report.getSlowest();
+        assertEquals(1, slowest.size());
+        assertEquals(Span.Kind.ATTEMPT, slowest.get(0).getSpans().get(1).getChildren().get(0).getKind());
+        assertTrue(report.toString().contains("Slowest executions"));
+
+        pipe.getMonitor().disableTracing();
+        pipe.execute(7);
+        assertFalse(pipe.getMonitor().isTracing());
+    }
+}